@@ -57,6 +57,15 @@ public class ActionFactory {
         return new ApplyCandidateAction(installationPath, updatePath);
     }
 
+    /**
+     * applies a candidate created by the current operation. The candidate has to be removed after it is applied.
+     */
+    public ApplyCandidateAction applyTemporaryCandidate(Path installationPath, Path updatePath)
+            throws OperationException,
+            ProvisioningException {
+        return new ApplyCandidateAction(installationPath, updatePath, true);
+    }
+
     public InstallationHistoryAction history(Path targetPath, Console console) {
         return new InstallationHistoryAction(targetPath, console);
     }
@@ -33,6 +33,7 @@ import picocli.CommandLine;
 import static org.jboss.galleon.Constants.TRACK_CONFIGS;
 import static org.jboss.galleon.Constants.TRACK_LAYOUT_BUILD;
 import static org.jboss.galleon.Constants.TRACK_PACKAGES;
+import static org.wildfly.prospero.api.ArchiveDownloader.TRACK_REPOSITORY_DOWNLOAD;
 import static org.wildfly.prospero.galleon.GalleonEnvironment.TRACK_JBEXAMPLES;
 import static org.wildfly.prospero.galleon.GalleonEnvironment.TRACK_JBMODULES;
 import static org.wildfly.prospero.galleon.GalleonEnvironment.TRACK_JB_ARTIFACTS_RESOLVE;
@@ -104,6 +105,7 @@ public class CliConsole implements Console {
         loggers.put(TRACK_JBEXAMPLES, new ProgressLogger(CliMessages.MESSAGES.installingJBossExamples(), CliMessages.MESSAGES.jbossExamplesInstalled()));
         loggers.put(TRACK_JB_ARTIFACTS_RESOLVE, new ProgressLogger(CliMessages.MESSAGES.downloadingArtifacts(), CliMessages.MESSAGES.artifactsDownloaded()));
         loggers.put(TRACK_RESOLVING_VERSIONS, new ProgressLogger(CliMessages.MESSAGES.resolvingVersions(), CliMessages.MESSAGES.versionsResolved()));
+        loggers.put(TRACK_REPOSITORY_DOWNLOAD, new ProgressLogger(CliMessages.MESSAGES.downloadingRepositoryArchive(), CliMessages.MESSAGES.repositoryArchiveDownloaded()));
     }
 
     private Cli cli = new Cli(getStdOut());
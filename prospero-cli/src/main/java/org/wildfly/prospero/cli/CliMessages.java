@@ -70,6 +70,10 @@ public interface CliMessages {
         return bundle.getString("prospero.install.progress.versions");
     }
 
+    default String downloadingRepositoryArchive() {
+        return bundle.getString("prospero.install.progress.repository-archive");
+    }
+
     default String installingJBossExamples() {
         return bundle.getString("prospero.install.progress.examples");
     }
@@ -102,6 +106,10 @@ public interface CliMessages {
         return bundle.getString("prospero.install.progress.versions.done");
     }
 
+    default String repositoryArchiveDownloaded() {
+        return bundle.getString("prospero.install.progress.repository-archive.done");
+    }
+
     default String installProgressWait() {
         return bundle.getString("prospero.install.progress.applying_changes");
     }
@@ -114,6 +122,10 @@ public interface CliMessages {
         return bundle.getString("prospero.updates.header");
     }
 
+    default String updatesAvailable() {
+        return bundle.getString("prospero.updates.available");
+    }
+
     default String changesFound() {
         return bundle.getString("prospero.revert.changes.header");
     }
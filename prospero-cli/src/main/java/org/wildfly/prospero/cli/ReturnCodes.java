@@ -27,4 +27,5 @@ public final class ReturnCodes {
     public static final int SUCCESS = CommandLine.ExitCode.OK;
     public static final int INVALID_ARGUMENTS = CommandLine.ExitCode.USAGE;
     public static final int PROCESSING_ERROR = CommandLine.ExitCode.SOFTWARE;
+    public static final int NO_UPDATES_FOUND = 3;
 }
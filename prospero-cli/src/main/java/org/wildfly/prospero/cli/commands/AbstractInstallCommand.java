@@ -92,7 +92,7 @@ public abstract class AbstractInstallCommand extends AbstractCommand {
     protected ProvisioningDefinition.Builder buildDefinition(TemporaryFilesManager temporaryFiles)
             throws ArgumentParsingException, InvalidRepositoryArchiveException {
         final List<Repository> repositories = RepositoryUtils.unzipArchives(
-                RepositoryDefinition.from(remoteRepositories), temporaryFiles);
+                RepositoryDefinition.from(remoteRepositories), temporaryFiles, console);
         return ProvisioningDefinition.builder()
                 .setFpl(featurePackOrDefinition.fpl.orElse(null))
                 .setProfile(featurePackOrDefinition.profile.orElse(null))
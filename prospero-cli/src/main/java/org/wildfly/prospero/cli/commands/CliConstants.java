@@ -73,6 +73,7 @@ public final class CliConstants {
     public static final String DEBUG = "--debug";
     public static final String DEFINITION = "--definition";
     public static final String DIR = "--dir";
+    public static final String EXISTS = "--exists";
     public static final String FEATURE_PACK_REFERENCE = "<feature-pack-reference>";
     public static final String FPL = "--fpl";
     public static final String FULL = "--full";
@@ -93,6 +94,7 @@ public final class CliConstants {
     public static final String REVISION = "--revision";
     public static final String SELF = "--self";
     public static final String SHADE_REPOSITORIES = "--shade-repositories";
+    public static final String SHARED_LOCAL_CACHE = "--shared-local-cache";
     public static final String STABILITY_LEVEL = "--stability-level";
     public static final String USE_LOCAL_MAVEN_CACHE = "--use-default-local-cache";
     public static final String TARGET_CONFIG = "--target-config";
@@ -147,7 +147,7 @@ public class CloneCommand extends AbstractCommand {
                 List<Repository> repositories = RepositoryDefinition.from(remoteRepositories);
                 actionFactory
                         .restoreAction(installationDirectory, mavenOptions.build(), console)
-                        .restore(inPath, RepositoryUtils.unzipArchives(repositories, temporaryFiles));
+                        .restore(inPath, RepositoryUtils.unzipArchives(repositories, temporaryFiles, console));
 
                 console.println("");
                 console.println(CliMessages.MESSAGES.installationMetaRestored());
@@ -89,7 +89,7 @@ public class FeaturesCommand extends AbstractParentCommand {
 
             try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
                 final List<Repository> repositories = RepositoryUtils.unzipArchives(
-                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles);
+                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles, console);
 
                 console.println(CliMessages.MESSAGES.featuresAddHeader(fpl, installationDir));
 
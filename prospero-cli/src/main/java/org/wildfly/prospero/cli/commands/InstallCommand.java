@@ -203,7 +203,7 @@ public class InstallCommand extends AbstractInstallCommand {
             final GalleonProvisioningConfig provisioningConfig = provisioningDefinition.toProvisioningConfig();
             final List<Channel> channels = ChannelUtils.resolveChannels(provisioningDefinition, mavenOptions);
             List<Repository> repositories = RepositoryDefinition.from(this.shadowRepositories);
-            final List<Repository> shadowRepositories = RepositoryUtils.unzipArchives(repositories, temporaryFiles);
+            final List<Repository> shadowRepositories = RepositoryUtils.unzipArchives(repositories, temporaryFiles, console);
 
             final ProvisioningAction provisioningAction = actionFactory.install(directory.toAbsolutePath(), mavenOptions,
                     console);
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.apache.commons.io.FileUtils;
 import org.jboss.galleon.ProvisioningException;
 import org.wildfly.channel.Repository;
 import org.wildfly.prospero.ProsperoLogger;
@@ -116,27 +117,32 @@ public class RevertCommand extends AbstractParentCommand {
             final MavenOptions mavenOptions = parseMavenOptions();
 
             final List<Repository> repositories = RepositoryDefinition.from(temporaryRepositories);
+            Path tempDirectory = null;
             try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
-                final List<Repository> overrideRepositories = RepositoryUtils.unzipArchives(repositories, temporaryFiles);
+                final List<Repository> overrideRepositories = RepositoryUtils.unzipArchives(repositories, temporaryFiles, console);
 
                 InstallationHistoryAction historyAction = actionFactory.history(installationDirectory, console);
 
                 console.println(CliMessages.MESSAGES.revertStart(installationDirectory, revision));
                 console.println("");
 
-                final Path tempDirectory = temporaryFiles.createTempDirectory("revert-candidate");
+                tempDirectory = ApplyCandidateAction.createCandidateDirectory(installationDirectory, "revert-candidate");
                 historyAction.prepareRevert(new SavedState(revision), mavenOptions, overrideRepositories, tempDirectory);
 
                 console.println("");
                 console.println(CliMessages.MESSAGES.comparingChanges());
 
-                final ApplyCandidateAction applyCandidateAction = actionFactory.applyUpdate(installationDirectory, tempDirectory);
+                final ApplyCandidateAction applyCandidateAction = actionFactory.applyTemporaryCandidate(installationDirectory, tempDirectory);
 
                 validateRevertCandidate(installationDirectory, tempDirectory, applyCandidateAction);
 
                 applyCandidate(console, applyCandidateAction, yes, noConflictsOnly, false);
             } catch (IOException e) {
                 throw ProsperoLogger.ROOT_LOGGER.unableToCreateTemporaryDirectory(e);
+            } finally {
+                if (tempDirectory != null) {
+                    FileUtils.deleteQuietly(tempDirectory.toFile());
+                }
             }
 
             final float totalTime = (System.currentTimeMillis() - startTime) / 1000f;
@@ -218,7 +224,7 @@ public class RevertCommand extends AbstractParentCommand {
 
             try(TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
                 final List<Repository> repositories = RepositoryDefinition.from(temporaryRepositories);
-                final List<Repository> overrideRepositories = RepositoryUtils.unzipArchives(repositories, temporaryFiles);
+                final List<Repository> overrideRepositories = RepositoryUtils.unzipArchives(repositories, temporaryFiles, console);
 
                 console.println(CliMessages.MESSAGES.buildRevertCandidateHeader(installationDirectory));
 
@@ -116,7 +116,7 @@ public class UpdateCommand extends AbstractParentCommand {
             final MavenOptions mavenOptions = parseMavenOptions();
             try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
                 final List<Repository> repositories = RepositoryUtils.unzipArchives(
-                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles);
+                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles, console);
 
                 log.tracef("Perform full update");
 
@@ -136,12 +136,12 @@ public class UpdateCommand extends AbstractParentCommand {
         private boolean performUpdate(UpdateAction updateAction, boolean yes, CliConsole console, Path installDir, boolean noConflictsOnly) throws OperationException, ProvisioningException {
             Path targetDir = null;
             try {
-                targetDir = Files.createTempDirectory("update-candidate");
+                targetDir = ApplyCandidateAction.createCandidateDirectory(installDir, "update-candidate");
                 if (buildUpdate(updateAction, targetDir, yes, console, () -> console.confirmUpdates())) {
                     console.println("");
                     console.buildUpdatesComplete();
 
-                    ApplyCandidateAction applyCandidateAction = actionFactory.applyUpdate(installDir, targetDir);
+                    ApplyCandidateAction applyCandidateAction = actionFactory.applyTemporaryCandidate(installDir, targetDir);
                     final List<FileConflict> conflicts = applyCandidateAction.getConflicts();
                     if (!conflicts.isEmpty()) {
                         FileConflictPrinter.print(conflicts, console);
@@ -194,7 +194,7 @@ public class UpdateCommand extends AbstractParentCommand {
             final MavenOptions mavenOptions = parseMavenOptions();
             try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
                 final List<Repository> repositories = RepositoryUtils.unzipArchives(
-                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles);
+                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles, console);
 
                 log.tracef("Generate update in %s", candidateDirectory);
 
@@ -302,6 +302,9 @@ public class UpdateCommand extends AbstractParentCommand {
     @CommandLine.Command(name = CliConstants.Commands.LIST, sortOptions = false)
     public static class ListCommand extends AbstractMavenCommand {
 
+        @CommandLine.Option(names = CliConstants.EXISTS)
+        boolean exists;
+
         public ListCommand(CliConsole console, ActionFactory actionFactory) {
             super(console, actionFactory);
         }
@@ -314,9 +317,14 @@ public class UpdateCommand extends AbstractParentCommand {
 
             try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
                 final List<Repository> repositories = RepositoryUtils.unzipArchives(
-                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles);
+                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles, console);
                 console.println(CliMessages.MESSAGES.checkUpdatesHeader(installationDir));
                 try (UpdateAction updateAction = actionFactory.update(installationDir, mavenOptions, console, repositories)) {
+                    if (exists) {
+                        final boolean hasUpdates = updateAction.hasUpdates();
+                        console.println(hasUpdates ? CliMessages.MESSAGES.updatesAvailable() : CliMessages.MESSAGES.noUpdatesFound());
+                        return hasUpdates ? ReturnCodes.SUCCESS : ReturnCodes.NO_UPDATES_FOUND;
+                    }
                     final UpdateSet updateSet = updateAction.findUpdates();
                     console.updatesFound(updateSet.getArtifactUpdates());
                 }
@@ -368,7 +376,7 @@ public class UpdateCommand extends AbstractParentCommand {
 
             try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
                 final List<Repository> repositories = RepositoryUtils.unzipArchives(
-                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles);
+                        RepositoryDefinition.from(temporaryRepositories), temporaryFiles, console);
                 final List<Channel> tempChannels = TemporaryRepositoriesHandler.overrideRepositories(channels, repositories);
 
                 SubscribeNewServerAction subscribeNewServerAction = actionFactory.subscribeNewServerAction(parseMavenOptions(), console);
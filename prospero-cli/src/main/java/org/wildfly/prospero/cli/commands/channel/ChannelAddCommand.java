@@ -85,7 +85,7 @@ public class ChannelAddCommand extends AbstractCommand {
         } else {
             final ChannelManifestCoordinate manifest = ArtifactUtils.manifestCoordFromString(channelOptions.channelGroup.manifestLocation);
             try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
-                final List<Repository> repositories = RepositoryUtils.unzipArchives(RepositoryDefinition.from(channelOptions.channelGroup.repositoryDefs), temporaryFiles);
+                final List<Repository> repositories = RepositoryUtils.unzipArchives(RepositoryDefinition.from(channelOptions.channelGroup.repositoryDefs), temporaryFiles, console);
                 channel = new Channel(channelName, null, null, repositories, manifest, null, null);
             }
         }
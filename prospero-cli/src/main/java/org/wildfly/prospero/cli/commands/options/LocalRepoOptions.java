@@ -25,6 +25,8 @@ import picocli.CommandLine;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public class LocalRepoOptions {
@@ -35,6 +37,14 @@ public class LocalRepoOptions {
     )
     Path localMavenCache;
 
+    @CommandLine.Option(
+            names = CliConstants.SHARED_LOCAL_CACHE,
+            paramLabel = CliConstants.PATH,
+            split = ",",
+            order = 7
+    )
+    List<Path> sharedMavenCaches = new ArrayList<>();
+
     @CommandLine.Option(
             names = CliConstants.USE_LOCAL_MAVEN_CACHE,
             order = 8
@@ -52,6 +62,15 @@ public class LocalRepoOptions {
             }
             builder.setLocalCachePath(localMavenCache.toAbsolutePath());
         }
+
+        if (!sharedMavenCaches.isEmpty()) {
+            for (Path sharedMavenCache : sharedMavenCaches) {
+                if (!Files.isDirectory(sharedMavenCache)) {
+                    throw CliMessages.MESSAGES.repositoryIsNotDirectory(sharedMavenCache);
+                }
+            }
+            builder.setSharedLocalCaches(sharedMavenCaches);
+        }
         return builder;
     }
 }
@@ -85,7 +85,7 @@ public class RevertPerformCommandTest extends AbstractMavenCommandTest {
             }
 
             @Override
-            public ApplyCandidateAction applyUpdate(Path installationPath, Path updatePath) throws OperationException, ProvisioningException {
+            public ApplyCandidateAction applyTemporaryCandidate(Path installationPath, Path updatePath) throws OperationException, ProvisioningException {
                 return applyCandidateAction;
             }
         };
@@ -186,6 +186,21 @@ public class RevertPerformCommandTest extends AbstractMavenCommandTest {
         verify(applyCandidateAction).applyUpdate(ApplyCandidateAction.Type.REVERT);
     }
 
+    @Test
+    public void candidateIsRemovedWhenRevertFails() throws Exception {
+        when(applyCandidateAction.getConflicts()).thenReturn(List.of(mock(FileConflict.class)));
+        final ArgumentCaptor<Path> candidate = ArgumentCaptor.forClass(Path.class);
+
+        int exitCode = commandLine.execute(CliConstants.Commands.REVERT, CliConstants.Commands.PERFORM,
+                CliConstants.DIR, installationDir.toString(),
+                CliConstants.REVISION, "abcd",
+                CliConstants.NO_CONFLICTS_ONLY);
+
+        assertEquals(ReturnCodes.PROCESSING_ERROR, exitCode);
+        verify(historyAction).prepareRevert(eq(new SavedState("abcd")), any(), any(), candidate.capture());
+        assertThat(candidate.getValue()).doesNotExist();
+    }
+
     @Override
     protected MavenOptions getCapturedMavenOptions() throws Exception {
         verify(historyAction).prepareRevert(eq(new SavedState("abcd")), mavenOptions.capture(), any(), any());
@@ -93,7 +93,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     public void setUp() throws Exception {
         super.setUp();
         when(actionFactory.update(any(), any(), any(), any())).thenReturn(updateAction);
-        when(actionFactory.applyUpdate(any(), any())).thenReturn(applyCandidateAction);
+        when(actionFactory.applyTemporaryCandidate(any(), any())).thenReturn(applyCandidateAction);
         installationDir = tempFolder.newFolder().toPath();
 
         MetadataTestUtils.createInstallationMetadata(installationDir);
@@ -230,6 +230,33 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
         Mockito.verify(updateAction).findUpdates();
     }
 
+    @Test
+    public void testListExistsReturnsSuccessIfUpdatesAreAvailable() throws Exception {
+        System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
+        when(updateAction.hasUpdates()).thenReturn(true);
+
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST,
+                CliConstants.DIR, installationDir.toAbsolutePath().toString(), CliConstants.EXISTS);
+
+        assertEquals(ReturnCodes.SUCCESS, exitCode);
+        Mockito.verify(updateAction).hasUpdates();
+        Mockito.verify(updateAction, never()).findUpdates();
+        assertTrue(getStandardOutput().contains(CliMessages.MESSAGES.updatesAvailable()));
+    }
+
+    @Test
+    public void testListExistsReturnsNoUpdatesFoundIfNoUpdatesAreAvailable() throws Exception {
+        System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
+        when(updateAction.hasUpdates()).thenReturn(false);
+
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST,
+                CliConstants.DIR, installationDir.toAbsolutePath().toString(), CliConstants.EXISTS);
+
+        assertEquals(ReturnCodes.NO_UPDATES_FOUND, exitCode);
+        Mockito.verify(updateAction, never()).findUpdates();
+        assertTrue(getStandardOutput().contains(CliMessages.MESSAGES.noUpdatesFound()));
+    }
+
     @Test
     public void testListCurrentDirNotValidInstallation() {
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST);
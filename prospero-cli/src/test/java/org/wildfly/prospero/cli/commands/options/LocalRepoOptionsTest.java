@@ -26,6 +26,7 @@ import org.wildfly.prospero.cli.ArgumentParsingException;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -64,4 +65,24 @@ public class LocalRepoOptionsTest {
                 localRepoParam.toOptions()
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sharedLocalCachesAreAdded() throws Exception {
+        final LocalRepoOptions localRepoParam = new LocalRepoOptions();
+        final Path sharedRepo = temp.newFolder().toPath();
+        localRepoParam.sharedMavenCaches = List.of(sharedRepo);
+
+        final MavenOptions mavenOptions = localRepoParam.toOptions().build();
+        assertEquals(List.of(sharedRepo.toAbsolutePath()), mavenOptions.getSharedLocalCaches());
+        assertTrue(mavenOptions.isNoLocalCache());
+    }
+
+    @Test
+    public void sharedLocalCacheHasToBeDirectory() throws Exception {
+        final LocalRepoOptions localRepoParam = new LocalRepoOptions();
+        localRepoParam.sharedMavenCaches = List.of(temp.newFile().toPath());
+        Assert.assertThrows(ArgumentParsingException.class, () ->
+                localRepoParam.toOptions()
+        );
+    }
+}
@@ -70,7 +70,7 @@ public interface ProsperoLogger extends BasicLogger {
     @Message(id = 6, value = "Revert candidate generated in %s")
     void revertCandidateCompleted(Path installationPath);
 
-    @LogMessage(level = Logger.Level.DEBUG)
+    @LogMessage(level = Logger.Level.INFO)
     @Message(id = 7, value = "Created temporary candidate folder %s")
     void temporaryCandidateFolder(Path tempPath);
 
@@ -166,6 +166,15 @@ public interface ProsperoLogger extends BasicLogger {
     @Message(id = 31, value = "Server provisioned into %s")
     void provisioningComplete(Path installDir);
 
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 32, value = "Downloaded %d files (%s) in %d ms, average throughput %s/s")
+    void downloadThroughput(long files, String size, long millis, String throughput);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 33, value = "Applied the candidate files in %d ms with parallelism %d: resolved conflicts in %d ms, created directories in %d ms, copied %d files in %d ms, deleted %d files in %d ms")
+    void candidateFilesApplied(long millis, int parallelism, long conflictsMillis, long directoriesMillis,
+                               int copiedFiles, long copyMillis, int deletedFiles, long deleteMillis);
+
 
     // 200+ - errors
     @Message(id = 200, value = "Aborting update - the server appears to be running.")
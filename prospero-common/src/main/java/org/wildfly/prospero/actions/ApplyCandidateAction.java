@@ -18,6 +18,7 @@ package org.wildfly.prospero.actions;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -28,12 +29,18 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -68,11 +75,10 @@ import static org.wildfly.prospero.metadata.ProsperoMetadataUtils.METADATA_DIR;
 
 import org.jboss.galleon.diff.FsEntry;
 import org.jboss.galleon.layout.SystemPaths;
-import org.jboss.galleon.util.HashUtils;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.PathsUtils;
 import org.wildfly.prospero.galleon.ArtifactCache;
-import org.wildfly.prospero.galleon.GalleonUtils;
+import org.wildfly.prospero.utils.ExecutorUtils;
 import org.wildfly.prospero.installation.git.GitStorage;
 import org.wildfly.prospero.licenses.LicenseManager;
 import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
@@ -89,9 +95,28 @@ public class ApplyCandidateAction {
     public static final Path STANDALONE_STARTUP_MARKER = Path.of("standalone", "tmp", "startup-marker");
     public static final Path DOMAIN_STARTUP_MARKER = Path.of("domain", "tmp", "startup-marker");
     public static final String CANDIDATE_CHANNEL_NAME_LIST = "candidate_properties.yaml";
+    /**
+     * maximum number of files copied or deleted at the same time when applying the candidate. Defaults to 1 - the files
+     * are applied sequentially.
+     */
+    public static final String APPLY_PARALLELISM_PROPERTY = "org.wildfly.prospero.apply.parallelism";
+    /**
+     * if set to {@code false}, the updated files are always copied into the installation. Otherwise, if the candidate
+     * is created by Prospero and is on the same filesystem as the installation, the files are hard linked.
+     */
+    public static final String APPLY_LINK_FILES_PROPERTY = "org.wildfly.prospero.apply.link-files";
+    /**
+     * folder where the update and revert candidates are created. If not set, the candidates are created next to
+     * the installation, or in the system temporary folder if the installation's parent folder is not writable.
+     */
+    public static final String CANDIDATE_DIR_PROPERTY = "org.wildfly.prospero.candidate.dir";
+    private static final String LINK_SUFFIX = ".prospero-link";
+    private static final long STALE_CANDIDATE_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
     private final Path updateDir;
     private final Path installationDir;
     private final SystemPaths systemPaths;
+    private final int parallelism;
+    private final boolean linkFiles;
 
     private static final Logger log = Logger.getLogger(ApplyCandidateAction.class);
 
@@ -124,8 +149,24 @@ public class ApplyCandidateAction {
 
     public ApplyCandidateAction(Path installationDir, Path updateDir)
             throws ProvisioningException, OperationException {
+        this(installationDir, updateDir, false);
+    }
+
+    /**
+     * @param installationDir - installation the candidate is applied to
+     * @param updateDir - the candidate
+     * @param temporaryCandidate - {@code true} if the candidate was created by Prospero and is removed once applied.
+     *                           The files of a temporary candidate can be hard linked into the installation, the files
+     *                           of any other candidate are always copied, so that later changes to the candidate
+     *                           don't affect the installation.
+     */
+    public ApplyCandidateAction(Path installationDir, Path updateDir, boolean temporaryCandidate)
+            throws ProvisioningException, OperationException {
         this.updateDir = InstallFolderUtils.toRealPath(updateDir);
         this.installationDir = InstallFolderUtils.toRealPath(installationDir);
+        this.parallelism = ExecutorUtils.getPositiveInteger(APPLY_PARALLELISM_PROPERTY, 1);
+        this.linkFiles = temporaryCandidate && Boolean.parseBoolean(System.getProperty(APPLY_LINK_FILES_PROPERTY, "true"))
+                && isSameFileStore(this.installationDir, this.updateDir);
 
         try {
             this.systemPaths = SystemPaths.load(this.updateDir);
@@ -137,6 +178,82 @@ public class ApplyCandidateAction {
         }
     }
 
+    /**
+     * creates an empty folder for a candidate of {@code installationDir}. The folder is created in {@code CANDIDATE_DIR_PROPERTY}
+     * if set, otherwise next to the installation, so that the candidate's files can be linked into the installation
+     * when it is applied. If the installation's parent folder is not writable, the system temporary folder is used.
+     * <p>
+     * Candidate folders left behind by interrupted operations are removed once they are older than a day.
+     *
+     * @param installationDir - installation the candidate is created for
+     * @param prefix - prefix of the folder name
+     * @return path to the new folder. The caller is responsible for removing it.
+     * @throws IOException - if unable to create the folder
+     */
+    public static Path createCandidateDirectory(Path installationDir, String prefix) throws IOException {
+        final String location = System.getProperty(CANDIDATE_DIR_PROPERTY);
+        final Path candidate;
+        if (location != null && !location.isBlank()) {
+            final Path parent = Files.createDirectories(Path.of(location));
+            removeStaleCandidates(parent, prefix);
+            candidate = Files.createTempDirectory(parent, prefix);
+        } else {
+            candidate = createCandidateNextTo(installationDir.toAbsolutePath(), prefix);
+        }
+        ProsperoLogger.ROOT_LOGGER.temporaryCandidateFolder(candidate);
+        return candidate;
+    }
+
+    private static Path createCandidateNextTo(Path installationDir, String prefix) throws IOException {
+        final Path parent = installationDir.getParent();
+        if (parent == null || !Files.isWritable(parent)) {
+            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.debugf("The parent folder of %s is not writable, using the temporary folder for the candidate",
+                        installationDir);
+            }
+            return Files.createTempDirectory(prefix);
+        }
+
+        removeStaleCandidates(parent, "." + prefix);
+        try {
+            return Files.createTempDirectory(parent, "." + prefix);
+        } catch (IOException e) {
+            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.debugf(e, "Unable to create the candidate folder in %s", parent);
+            }
+            return Files.createTempDirectory(prefix);
+        }
+    }
+
+    /**
+     * removes candidate folders left behind by interrupted operations. Recently modified folders might belong to
+     * an operation running concurrently and are kept.
+     */
+    private static void removeStaleCandidates(Path parent, String prefix) {
+        final long staleBefore = System.currentTimeMillis() - STALE_CANDIDATE_AGE_MILLIS;
+        try (Stream<Path> children = Files.list(parent)) {
+            children.filter(p -> p.getFileName().toString().startsWith(prefix))
+                    .filter(Files::isDirectory)
+                    .filter(p -> {
+                        try {
+                            return Files.getLastModifiedTime(p).toMillis() < staleBefore;
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .forEach(p -> {
+                        if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                            ProsperoLogger.ROOT_LOGGER.debugf("Removing stale candidate folder %s", p);
+                        }
+                        FileUtils.deleteQuietly(p.toFile());
+                    });
+        } catch (IOException e) {
+            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.debugf(e, "Unable to remove stale candidate folders in %s", parent);
+            }
+        }
+    }
+
     /**
      * Applies changes from prepare update at {@code updateDir} to {@code installationDir}. The update candidate has to
      * contain a marker file {@code .installation/.update.txt}.
@@ -175,10 +292,12 @@ public class ApplyCandidateAction {
             throw ex;
         }
 
-        final FsDiff diffs = GalleonUtils.findChanges(installationDir);
+        // the diffs are shared by the backup and the apply stages
+        final ApplyDiffContext diffContext = new ApplyDiffContext(installationDir, updateDir);
+        diffContext.computeAll();
         ApplyStageBackup backup = null;
         try {
-            backup = new ApplyStageBackup(installationDir, updateDir);
+            backup = new ApplyStageBackup(installationDir, updateDir, diffContext);
             backup.recordAll();
 
             ProsperoLogger.ROOT_LOGGER.debug("Update backup generated in " + installationDir.resolve(ApplyStageBackup.BACKUP_FOLDER));
@@ -188,7 +307,7 @@ public class ApplyCandidateAction {
                     findUpdates().getArtifactUpdates().stream().map(ArtifactChange::prettyPrint).collect(Collectors.joining("; "))
             );
 
-            final List<FileConflict> conflicts = doApplyUpdate(diffs);
+            final List<FileConflict> conflicts = doApplyUpdate(diffContext);
 
             if (conflicts.isEmpty()) {
                 ProsperoLogger.ROOT_LOGGER.noCandidateConflicts();
@@ -299,7 +418,7 @@ public class ApplyCandidateAction {
      */
     public List<FileConflict> getConflicts() throws ProvisioningException, OperationException {
         try {
-            return compareServers(GalleonUtils.findChanges(installationDir));
+            return compareServers(new ApplyDiffContext(installationDir, updateDir));
         } catch (IOException ex) {
             throw new ProvisioningException(ex);
         }
@@ -499,7 +618,7 @@ public class ApplyCandidateAction {
         return conflictList;
     }
 
-    private List<FileConflict> handleAddedFiles(FsDiff fsDiff) throws IOException, ProvisioningException {
+    private List<FileConflict> handleAddedFiles(FsDiff fsDiff, ApplyDiffContext diffs) throws IOException, ProvisioningException {
         final List<FileConflict> conflictList = new ArrayList<>();
         if (fsDiff.hasAddedEntries()) {
             for (FsEntry added : fsDiff.getAddedEntries()) {
@@ -508,14 +627,14 @@ public class ApplyCandidateAction {
                 if (p.getNameCount() > 0 && p.getName(0).toString().equals(METADATA_DIR)) {
                     continue;
                 }
-                addFsEntry(updateDir, added, systemPaths, conflictList);
+                addFsEntry(updateDir, added, systemPaths, conflictList, diffs);
             }
         }
         return conflictList;
     }
 
     private void addFsEntry(Path updateDir, FsEntry added, SystemPaths systemPaths,
-                            List<FileConflict> conflictList)
+                            List<FileConflict> conflictList, ApplyDiffContext diffs)
             throws ProvisioningException {
         final Path target = updateDir.resolve(added.getRelativePath());
         if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
@@ -524,13 +643,13 @@ public class ApplyCandidateAction {
         if (Files.exists(target)) {
             if (added.isDir()) {
                 for (FsEntry child : added.getChildren()) {
-                    addFsEntry(updateDir, child, systemPaths, conflictList);
+                    addFsEntry(updateDir, child, systemPaths, conflictList, diffs);
                 }
                 return;
             }
             final byte[] targetHash;
             try {
-                targetHash = HashUtils.hashPath(target);
+                targetHash = diffs.getCandidateHash(Paths.get(added.getRelativePath()));
             } catch (IOException e) {
                 throw new ProvisioningException(BaseErrors.hashCalculation(target), e);
             }
@@ -555,7 +674,7 @@ public class ApplyCandidateAction {
         }
     }
 
-    private List<FileConflict> handleModifiedFiles(FsDiff fsDiff) throws IOException, ProvisioningException {
+    private List<FileConflict> handleModifiedFiles(FsDiff fsDiff, ApplyDiffContext diffs) throws IOException, ProvisioningException {
         final List<FileConflict> conflictList = new ArrayList<>();
         if (fsDiff.hasModifiedEntries()) {
             for (FsEntry[] modified : fsDiff.getModifiedEntries()) {
@@ -568,7 +687,7 @@ public class ApplyCandidateAction {
                 if (Files.exists(file)) {
                     byte[] updateHash;
                     try {
-                        updateHash = HashUtils.hashPath(file);
+                        updateHash = diffs.getCandidateHash(Paths.get(installation.getRelativePath()));
                     } catch (IOException e) {
                         throw new ProvisioningException(BaseErrors.hashCalculation(file), e);
                     }
@@ -604,23 +723,33 @@ public class ApplyCandidateAction {
         return conflictList;
     }
 
-    private List<FileConflict> compareServers(FsDiff fsDiff) throws IOException, ProvisioningException {
+    private List<FileConflict> compareServers(ApplyDiffContext diffs) throws IOException, ProvisioningException, OperationException {
+        final FsDiff fsDiff = diffs.getServerDiff();
         List<FileConflict> conflicts = new ArrayList<>();
         // Handles user added/removed/modified files
         conflicts.addAll(handleRemovedFiles(fsDiff));
-        conflicts.addAll(handleAddedFiles(fsDiff));
-        conflicts.addAll(handleModifiedFiles(fsDiff));
+        conflicts.addAll(handleAddedFiles(fsDiff, diffs));
+        conflicts.addAll(handleModifiedFiles(fsDiff, diffs));
         return Collections.unmodifiableList(conflicts);
     }
 
-    private List<FileConflict> doApplyUpdate(FsDiff fsDiff) throws IOException, ProvisioningException {
+    /**
+     * applies the changes in phases. The user changes and the conflicts are resolved first, one file at a time, so the
+     * {@code .glnew} and {@code .glold} files are always created in the same way. Then the directories of the updated files
+     * are created and finally the updated files are copied, or linked, and the removed files are deleted. The copies and deletions
+     * are grouped by directory and executed concurrently if {@code APPLY_PARALLELISM_PROPERTY} is set.
+     */
+    private List<FileConflict> doApplyUpdate(ApplyDiffContext diffs) throws IOException, ProvisioningException, OperationException {
+        final long start = System.currentTimeMillis();
+        final FsDiff fsDiff = diffs.getServerDiff();
         List<FileConflict> conflicts = new ArrayList<>();
         // Handles user added/removed/modified files
         conflicts.addAll(handleRemovedFiles(fsDiff));
-        conflicts.addAll(handleAddedFiles(fsDiff));
-        conflicts.addAll(handleModifiedFiles(fsDiff));
+        conflicts.addAll(handleAddedFiles(fsDiff, diffs));
+        conflicts.addAll(handleModifiedFiles(fsDiff, diffs));
 
         resolveFileConflicts(conflicts);
+        final long conflictsResolved = System.currentTimeMillis();
 
         // Handles files added/removed/modified in the update.
         Path skipUpdateGalleon = PathsUtils.getProvisionedStateDir(updateDir);
@@ -628,7 +757,8 @@ public class ApplyCandidateAction {
         Path skipInstallationGalleon = PathsUtils.getProvisionedStateDir(installationDir);
         Path skipInstallationInstallation = installationDir.resolve(METADATA_DIR);
 
-        // Copy the new/modified files that the update brings that are not in the installation and not removed/modified by the user.
+        // Find the new/modified files that the update brings that are not in the installation and not removed/modified by the user.
+        final List<Path> updatedFiles = new ArrayList<>();
         Files.walkFileTree(updateDir, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
@@ -639,13 +769,10 @@ public class ApplyCandidateAction {
                 final String pathKey = getFsDiffKey(relative, false);
                 if (fsDiff.getModifiedEntry(pathKey) == null &&
                         fsDiff.getAddedEntry(pathKey) == null && !isParentAdded(fsDiff, relative)) {
-                    byte[] updateHash = HashUtils.hashPath(file);
-                    // The file could be new or updated in the installation
-                    if (!Files.exists(installationFile) || !Arrays.equals(updateHash, HashUtils.hashPath(installationFile))) {
-                        if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-                            ProsperoLogger.ROOT_LOGGER.debug("Copying updated file " + relative + " to the installation");
-                        }
-                        copyFiles(file, installationFile);
+                    // The file could be new or updated in the installation. The hashes are taken from the recorded
+                    // Galleon hashes, so the files are not read
+                    if (!Files.exists(installationFile) || !Arrays.equals(diffs.getCandidateHash(relative), diffs.getServerHash(relative))) {
+                        updatedFiles.add(relative);
                     }
                 }
                 return FileVisitResult.CONTINUE;
@@ -679,9 +806,29 @@ public class ApplyCandidateAction {
             }
         });
 
-        // Delete the files in the installation that are not present in the update and not added by the user
+        // create the directories up-front, so that the files can be copied concurrently
+        final Map<Path, List<Path>> updatedDirs = groupByDirectory(updatedFiles);
+        for (Path dir : updatedDirs.keySet()) {
+            if (dir != null) {
+                Files.createDirectories(installationDir.resolve(dir));
+            }
+        }
+        final long directoriesCreated = System.currentTimeMillis();
+
+        applyFileOperation(updatedDirs.values(), relative -> {
+            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.debug("Copying updated file " + relative + " to the installation");
+            }
+            installFile(updateDir.resolve(relative), installationDir.resolve(relative));
+        });
+        final long filesCopied = System.currentTimeMillis();
+
+        // Find the files in the installation that are not present in the update and not added by the user
         // We need to skip .glnew and .glold.
         // JBEAP-30585: We need to keep the Symbolic files
+        final List<Path> removedFiles = new ArrayList<>();
+        // directories are collected after their children, so nested directories are removed first
+        final List<Path> removedDirs = new ArrayList<>();
         Files.walkFileTree(installationDir, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
@@ -690,10 +837,7 @@ public class ApplyCandidateAction {
                 Path updateFile = updateDir.resolve(relative);
                 final String fsDiffKey = getFsDiffKey(relative, false);
                 if (isNotAddedOrModified(fsDiffKey, fsDiff) && fileNotPresent(updateFile) && !Files.isSymbolicLink(file)) {
-                    if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-                        ProsperoLogger.ROOT_LOGGER.debug("Deleting the file " + relative + " that doesn't exist in the update");
-                    }
-                    IoUtils.recursiveDelete(file);
+                    removedFiles.add(relative);
                 }
                 return FileVisitResult.CONTINUE;
             }
@@ -712,9 +856,6 @@ public class ApplyCandidateAction {
                 if (!Files.isReadable(dir)) {
                     return FileVisitResult.SKIP_SUBTREE;
                 }
-                if (!Files.isReadable(dir)) {
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
                 if (!dir.equals(installationDir)) {
                     Path relative = installationDir.relativize(dir);
                     Path target = updateDir.resolve(relative);
@@ -735,12 +876,8 @@ public class ApplyCandidateAction {
                     Path relative = installationDir.relativize(dir);
                     Path target = updateDir.resolve(relative);
                     String pathKey = getFsDiffKey(relative, true);
-                    if (!isAdded(pathKey, fsDiff) && !Files.exists(target) && isEmpty(dir)) {
-                        if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-                            ProsperoLogger.ROOT_LOGGER.debug("Deleting the directory " + relative + " that doesn't exist in the update");
-                        }
-                        IoUtils.recursiveDelete(dir);
-                        return FileVisitResult.SKIP_SUBTREE;
+                    if (!isAdded(pathKey, fsDiff) && !Files.exists(target)) {
+                        removedDirs.add(relative);
                     }
                 }
                 return FileVisitResult.CONTINUE;
@@ -761,9 +898,123 @@ public class ApplyCandidateAction {
                 }
             }
         });
+
+        applyFileOperation(groupByDirectory(removedFiles).values(), relative -> {
+            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.debug("Deleting the file " + relative + " that doesn't exist in the update");
+            }
+            IoUtils.recursiveDelete(installationDir.resolve(relative));
+        });
+        for (Path relative : removedDirs) {
+            final Path dir = installationDir.resolve(relative);
+            if (isEmpty(dir)) {
+                if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                    ProsperoLogger.ROOT_LOGGER.debug("Deleting the directory " + relative + " that doesn't exist in the update");
+                }
+                IoUtils.recursiveDelete(dir);
+            }
+        }
+        final long filesDeleted = System.currentTimeMillis();
+
+        ProsperoLogger.ROOT_LOGGER.candidateFilesApplied(filesDeleted - start, parallelism,
+                conflictsResolved - start, directoriesCreated - conflictsResolved,
+                updatedFiles.size(), filesCopied - directoriesCreated, removedFiles.size(), filesDeleted - filesCopied);
         return Collections.unmodifiableList(conflicts);
     }
 
+    /**
+     * replaces {@code target} with {@code source}. If the candidate is temporary and on the same filesystem, the {@code source}
+     * is hard linked next to the {@code target} and atomically renamed, so the {@code target} is never missing or partially
+     * written. Otherwise the {@code source} is copied.
+     */
+    private void installFile(Path source, Path target) throws IOException {
+        if (linkFiles) {
+            final Path link = target.resolveSibling(target.getFileName() + LINK_SUFFIX);
+            try {
+                Files.deleteIfExists(link);
+                Files.createLink(link, source);
+                // the backup holds a hard link to the replaced file, so the rename doesn't affect it
+                Files.move(link, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.deleteIfExists(link);
+                if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                    ProsperoLogger.ROOT_LOGGER.debugf(e, "Unable to link %s, copying it instead", source);
+                }
+            }
+        }
+        copyFiles(source, target);
+    }
+
+    private static boolean isSameFileStore(Path installationDir, Path updateDir) {
+        try {
+            return Files.getFileStore(installationDir).equals(Files.getFileStore(updateDir));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Map<Path, List<Path>> groupByDirectory(List<Path> files) {
+        final Map<Path, List<Path>> dirs = new LinkedHashMap<>();
+        for (Path file : files) {
+            dirs.computeIfAbsent(file.getParent(), k -> new ArrayList<>()).add(file);
+        }
+        return dirs;
+    }
+
+    /**
+     * applies {@code operation} to each path. The batches are executed concurrently, but the paths within a batch
+     * are processed sequentially.
+     */
+    private void applyFileOperation(Collection<List<Path>> batches, FileOperation operation) throws IOException {
+        if (parallelism == 1 || batches.size() < 2) {
+            for (List<Path> batch : batches) {
+                for (Path path : batch) {
+                    operation.apply(path);
+                }
+            }
+            return;
+        }
+
+        final ExecutorService executor = ExecutorUtils.newBoundedExecutor(parallelism);
+        try {
+            final List<Future<Void>> results = new ArrayList<>(batches.size());
+            for (List<Path> batch : batches) {
+                results.add(executor.submit(() -> {
+                    for (Path path : batch) {
+                        operation.apply(path);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while applying the candidate");
+        } finally {
+            executor.shutdownNow();
+            // wait for the running operations, the installation might be restored from the backup after a failure
+            try {
+                executor.awaitTermination(1, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private interface FileOperation {
+        void apply(Path relativePath) throws IOException;
+    }
+
     private void resolveFileConflicts(List<FileConflict> conflicts) throws IOException, ProvisioningException {
         // apply conflict resolution
         for (FileConflict conflict : conflicts) {
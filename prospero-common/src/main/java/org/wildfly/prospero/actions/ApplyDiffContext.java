@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.actions;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.diff.FsEntry;
+import org.jboss.galleon.util.HashUtils;
+import org.wildfly.prospero.api.exceptions.OperationException;
+import org.wildfly.prospero.galleon.FsDiffCalculator;
+import org.wildfly.prospero.galleon.GalleonUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Holds the {@code FsDiff} of the server and the recorded hashes of the candidate for the duration of a single apply
+ * operation.
+ *
+ * Computing the diff requires hashing the installation, so the server's diff is computed only once and shared by
+ * the backup, the conflict detection and the apply stages. The candidate has just been provisioned, so the hashes
+ * recorded by Galleon in its {@code .galleon/hashes} are used instead of hashing the candidate files. Only the files
+ * reported by the server's diff as added or modified by the user are hashed.
+ */
+class ApplyDiffContext {
+
+    private final Path serverRoot;
+    private final Path candidateRoot;
+    private volatile FsDiff serverDiff;
+    private volatile FsEntry candidateHashes;
+
+    ApplyDiffContext(Path serverRoot, Path candidateRoot) {
+        this.serverRoot = serverRoot;
+        this.candidateRoot = candidateRoot;
+    }
+
+    /**
+     * computes the diff of the server and reads the recorded hashes of the candidate.
+     */
+    synchronized void computeAll() throws ProvisioningException, OperationException {
+        getServerDiff();
+        getCandidateHashes();
+    }
+
+    /**
+     * @return changes made to the server since it was provisioned
+     */
+    synchronized FsDiff getServerDiff() throws ProvisioningException, OperationException {
+        if (serverDiff == null) {
+            serverDiff = GalleonUtils.findChanges(serverRoot);
+        }
+        return serverDiff;
+    }
+
+    /**
+     * @return hashes of the candidate files recorded when the candidate was provisioned. If the candidate doesn't have
+     * any recorded hashes, the returned entry has no children.
+     */
+    synchronized FsEntry getCandidateHashes() throws ProvisioningException {
+        if (candidateHashes == null) {
+            if (FsDiffCalculator.hasRecordedHashes(candidateRoot)) {
+                candidateHashes = FsDiffCalculator.readRecordedHashes(candidateRoot);
+            } else {
+                candidateHashes = new FsEntry(null, candidateRoot);
+            }
+        }
+        return candidateHashes;
+    }
+
+    /**
+     * returns the hash of a file in the server. Files added or modified by the user are hashed by the server's diff,
+     * the hashes of the other files are taken from the hashes recorded when the server was provisioned.
+     *
+     * @param relativePath - path of the file relative to the server root
+     */
+    byte[] getServerHash(Path relativePath) throws IOException {
+        final FsDiff diff = serverDiff;
+        if (diff != null) {
+            try {
+                // FsDiff always uses UNIX separators
+                final String key = relativePath.toString().replace(File.separator, "/");
+                final FsEntry[] modified = diff.getModifiedEntry(key);
+                if (modified != null) {
+                    return modified[1].getHash();
+                }
+                final FsEntry added = diff.getAddedEntry(key);
+                if (added != null && !added.isDir()) {
+                    return added.getHash();
+                }
+                final byte[] recorded = findHash(diff.getOriginalRoot(), relativePath);
+                if (recorded != null) {
+                    return recorded;
+                }
+            } catch (ProvisioningException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return HashUtils.hashPath(serverRoot.resolve(relativePath));
+    }
+
+    /**
+     * returns the hash of a file in the candidate. The hash is taken from the hashes recorded when the candidate was
+     * provisioned, only files not recorded there are hashed.
+     *
+     * @param relativePath - path of the file relative to the candidate root
+     */
+    byte[] getCandidateHash(Path relativePath) throws IOException {
+        try {
+            final byte[] recorded = findHash(getCandidateHashes(), relativePath);
+            if (recorded != null) {
+                return recorded;
+            }
+        } catch (ProvisioningException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return HashUtils.hashPath(candidateRoot.resolve(relativePath));
+    }
+
+    private static byte[] findHash(FsEntry root, Path relativePath) throws ProvisioningException {
+        FsEntry entry = root;
+        for (Path name : relativePath) {
+            entry = entry.getChild(name.toString());
+            if (entry == null) {
+                return null;
+            }
+        }
+        return entry.isDir() ? null : entry.getHash();
+    }
+}
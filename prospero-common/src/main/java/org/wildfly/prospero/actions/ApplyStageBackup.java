@@ -3,7 +3,11 @@ package org.wildfly.prospero.actions;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.diff.FsEntry;
 import org.wildfly.prospero.ProsperoLogger;
+import org.wildfly.prospero.api.exceptions.OperationException;
 import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
 
 import java.io.File;
@@ -25,6 +29,7 @@ class ApplyStageBackup implements AutoCloseable {
     private final Path backupRoot;
     private final Path serverRoot;
     private final Path candidateRoot;
+    private final ApplyDiffContext diffs;
 
     /**
      * create a record for server at {@code serverRoot}. The recorded files will be stored in {@tempRoot}
@@ -32,9 +37,21 @@ class ApplyStageBackup implements AutoCloseable {
      * @param serverRoot - root folder of the server that will be updated
      */
     ApplyStageBackup(Path serverRoot, Path candidateRoot) throws IOException {
+        this(serverRoot, candidateRoot, new ApplyDiffContext(serverRoot, candidateRoot));
+    }
+
+    /**
+     * create a record for server at {@code serverRoot} using the {@code FsDiff}s already computed in {@code diffs}.
+     *
+     * @param serverRoot - root folder of the server that will be updated
+     * @param candidateRoot - root folder of the candidate server
+     * @param diffs - diffs of the server and the candidate shared with the apply operation
+     */
+    ApplyStageBackup(Path serverRoot, Path candidateRoot, ApplyDiffContext diffs) throws IOException {
 
         this.serverRoot = serverRoot;
         this.candidateRoot = candidateRoot;
+        this.diffs = diffs;
         this.backupRoot = serverRoot.resolve(BACKUP_FOLDER);
 
         if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
@@ -81,9 +98,17 @@ class ApplyStageBackup implements AutoCloseable {
             return;
         }
 
+        final FsDiff serverDiff;
+        final FsEntry candidateHashes;
+        try {
+            serverDiff = diffs.getServerDiff();
+            candidateHashes = diffs.getCandidateHashes();
+        } catch (ProvisioningException | OperationException e) {
+            throw new RuntimeException(e);
+        }
 
         // walk the hashes to record server-managed files while ignoring non-managed files
-        final GalleonHashesFileWalker serverFS = new GalleonHashesFileWalker(serverRoot) {
+        final GalleonHashesFileWalker serverFS = new GalleonHashesFileWalker(serverRoot, serverDiff.getOriginalRoot()) {
             @Override
             void visitFile(Path file) throws IOException {
                 final Path serverPath = serverRoot.resolve(file);
@@ -107,7 +132,7 @@ class ApplyStageBackup implements AutoCloseable {
 
         // we need to walk the candidate tree as well and find files that might overwrite existing user files
         ProsperoLogger.ROOT_LOGGER.trace("Checking candidate folder for overwriting files.");
-        final GalleonHashesFileWalker candidateFS = new GalleonHashesFileWalker(candidateRoot) {
+        final GalleonHashesFileWalker candidateFS = new GalleonHashesFileWalker(candidateRoot, candidateHashes) {
             @Override
             void visitFile(Path file) throws IOException {
                 // if the file exists in the candidate folder, and it exists in the server folder,
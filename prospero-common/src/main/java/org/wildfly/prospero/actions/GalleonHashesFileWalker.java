@@ -4,37 +4,28 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
-import org.jboss.galleon.ProvisioningException;
-import org.jboss.galleon.diff.FsDiff;
 import org.jboss.galleon.diff.FsEntry;
-import org.wildfly.prospero.api.exceptions.OperationException;
-import org.wildfly.prospero.galleon.GalleonUtils;
 
 /**
  * Traverse file tree based on Galleon hashes record.
  * The hashes directory reflects the same directory structure as the server. The files in each directory are
  * recorded in a hashes file in those directories.
  *
- * We use Galleon APIs to parse the hashes
+ * We use Galleon APIs to parse the hashes. The recorded hashes are read by the caller, so that they can be
+ * shared with other stages.
  */
 abstract class GalleonHashesFileWalker {
 
     private final Path rootPath;
+    private final FsEntry recorded;
 
-    GalleonHashesFileWalker(Path rootPath) {
+    GalleonHashesFileWalker(Path rootPath, FsEntry recorded) {
         this.rootPath = rootPath;
+        this.recorded = recorded;
     }
 
     public void walk() throws IOException {
-        try {
-            final FsDiff changes = GalleonUtils.findChanges(rootPath);
-            doWalk(changes.getOriginalRoot());
-
-        } catch (ProvisioningException e) {
-            throw new RuntimeException(e);
-        } catch (OperationException e) {
-            throw new RuntimeException(e);
-        }
+        doWalk(recorded);
     }
 
     private void doWalk(FsEntry root) throws IOException {
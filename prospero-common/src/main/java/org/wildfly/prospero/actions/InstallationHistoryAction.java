@@ -87,12 +87,9 @@ public class InstallationHistoryAction {
         Path tempDirectory = null;
         try {
             ProsperoLogger.ROOT_LOGGER.revertStarted(installation, savedState.getName());
-            tempDirectory = Files.createTempDirectory("revert-candidate");
-            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-                ProsperoLogger.ROOT_LOGGER.temporaryCandidateFolder(tempDirectory);
-            }
+            tempDirectory = ApplyCandidateAction.createCandidateDirectory(installation, "revert-candidate");
             prepareRevert(savedState, mavenOptions, overrideRepositories, tempDirectory);
-            new ApplyCandidateAction(installation, tempDirectory).applyUpdate(ApplyCandidateAction.Type.REVERT);
+            new ApplyCandidateAction(installation, tempDirectory, true).applyUpdate(ApplyCandidateAction.Type.REVERT);
             ProsperoLogger.ROOT_LOGGER.revertCompleted(installation, savedState.getName());
         } catch (IOException e) {
             throw ProsperoLogger.ROOT_LOGGER.unableToCreateTemporaryDirectory(e);
@@ -18,7 +18,6 @@
 package org.wildfly.prospero.actions;
 
 import org.eclipse.aether.DefaultRepositorySystemSession;
-import org.eclipse.aether.RepositorySystem;
 import org.jboss.galleon.Constants;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.logging.Logger;
@@ -180,8 +179,7 @@ class PrepareCandidateAction implements AutoCloseable {
 
     private void cacheManifests(ManifestVersionRecord manifestRecord, Path installDir) {
         try {
-            final RepositorySystem system = mavenSessionManager.newRepositorySystem();
-            final DefaultRepositorySystemSession session = mavenSessionManager.newRepositorySystemSession(system);
+            final DefaultRepositorySystemSession session = mavenSessionManager.newRepositorySystemSession();
 
             ArtifactCache.getInstance(installDir).cache(manifestRecord, session.getLocalRepositoryManager());
         } catch (IOException e) {
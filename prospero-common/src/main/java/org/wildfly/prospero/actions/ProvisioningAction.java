@@ -19,7 +19,6 @@ package org.wildfly.prospero.actions;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.aether.DefaultRepositorySystemSession;
-import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.jboss.galleon.universe.maven.MavenUniverseException;
 import org.wildfly.channel.ArtifactCoordinate;
@@ -192,8 +191,7 @@ public class ProvisioningAction {
 
     private void cacheManifests(ManifestVersionRecord manifestRecord) {
         try {
-            final RepositorySystem system = mavenSessionManager.newRepositorySystem();
-            final DefaultRepositorySystemSession session = mavenSessionManager.newRepositorySystemSession(system);
+            final DefaultRepositorySystemSession session = mavenSessionManager.newRepositorySystemSession();
 
             ArtifactCache.getInstance(installDir).cache(manifestRecord, session.getLocalRepositoryManager());
         } catch (IOException e) {
@@ -22,10 +22,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.commons.io.FileUtils;
 import org.jboss.galleon.util.PathsUtils;
 import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.Repository;
 import org.wildfly.prospero.ProsperoLogger;
 import org.wildfly.prospero.api.Console;
@@ -35,7 +37,10 @@ import org.wildfly.prospero.api.TemporaryRepositoriesHandler;
 import org.wildfly.prospero.api.InstallationMetadata;
 import org.wildfly.prospero.api.exceptions.OperationException;
 import org.wildfly.prospero.galleon.GalleonEnvironment;
+import org.wildfly.prospero.metadata.ManifestVersionRecord;
+import org.wildfly.prospero.metadata.ManifestVersionResolver;
 import org.wildfly.prospero.model.ProsperoConfig;
+import org.wildfly.prospero.updates.UpdateCheckCache;
 import org.wildfly.prospero.updates.UpdateFinder;
 import org.wildfly.prospero.updates.UpdateSet;
 import org.wildfly.prospero.wfchannel.MavenSessionManager;
@@ -76,12 +81,9 @@ public class UpdateAction implements AutoCloseable {
         ProsperoLogger.ROOT_LOGGER.performUpdateStarted(installDir);
         Path targetDir = null;
         try {
-            targetDir = Files.createTempDirectory("update-candidate");
-            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-                ProsperoLogger.ROOT_LOGGER.temporaryCandidateFolder(targetDir);
-            }
+            targetDir = ApplyCandidateAction.createCandidateDirectory(installDir, "update-candidate");
             if (buildUpdate(targetDir)) {
-                final ApplyCandidateAction applyCandidateAction = new ApplyCandidateAction(installDir, targetDir);
+                final ApplyCandidateAction applyCandidateAction = new ApplyCandidateAction(installDir, targetDir, true);
                 return applyCandidateAction.applyUpdate(ApplyCandidateAction.Type.UPDATE);
             } else {
                 return Collections.emptyList();
@@ -142,15 +144,82 @@ public class UpdateAction implements AutoCloseable {
      */
     public UpdateSet findUpdates() throws OperationException, ProvisioningException {
         ProsperoLogger.ROOT_LOGGER.checkingUpdates();
+        final UpdateCheckCache updateCheckCache;
+        if (UpdateCheckCache.isEnabled() && !mavenSessionManager.isOffline()) {
+            updateCheckCache = UpdateCheckCache.load(installDir, mavenSessionManager);
+            final Optional<UpdateSet> unchanged = updateCheckCache.findUnchangedUpdates(prosperoConfig.getChannels(), metadata.getArtifacts());
+            if (unchanged.isPresent()) {
+                if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                    ProsperoLogger.ROOT_LOGGER.debug("Channels have not changed since the last update check, reusing the result");
+                }
+                ProsperoLogger.ROOT_LOGGER.updatesFound(unchanged.get().getArtifactUpdates().size());
+                return unchanged.get();
+            }
+        } else {
+            updateCheckCache = null;
+        }
+
         try (GalleonEnvironment galleonEnv = getGalleonEnv(installDir);
              UpdateFinder updateFinder = new UpdateFinder(galleonEnv.getChannelSession())) {
 
             final UpdateSet updates = updateFinder.findUpdates(metadata.getArtifacts());
             ProsperoLogger.ROOT_LOGGER.updatesFound(updates.getArtifactUpdates().size());
+            if (updateCheckCache != null) {
+                updateCheckCache.record(prosperoConfig.getChannels(), metadata.getArtifacts(),
+                        galleonEnv.getChannelSession().getManifests(), updates);
+            }
             return updates;
         }
     }
 
+    /**
+     * checks if any updates can be applied to server at {@code installDir}. Stops as soon as the first update is found.
+     *
+     * @return true if at least one update is available
+     * @throws OperationException
+     * @throws ProvisioningException
+     */
+    public boolean hasUpdates() throws OperationException, ProvisioningException {
+        ProsperoLogger.ROOT_LOGGER.checkingUpdates();
+        try (GalleonEnvironment galleonEnv = getGalleonEnv(installDir);
+             UpdateFinder updateFinder = new UpdateFinder(galleonEnv.getChannelSession())) {
+
+            if (hasSameManifestVersions(galleonEnv)) {
+                if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                    ProsperoLogger.ROOT_LOGGER.debug("The channel manifests have not changed since the installation was updated");
+                }
+                return false;
+            }
+
+            return updateFinder.hasUpdates(metadata.getArtifacts());
+        }
+    }
+
+    /**
+     * the installation cannot have any updates if it was provisioned from the same manifests as are currently available
+     * in the channels, unless some versions are resolved from the repositories.
+     */
+    private boolean hasSameManifestVersions(GalleonEnvironment galleonEnv) {
+        final Optional<ManifestVersionRecord> installedVersions = metadata.getManifestVersions();
+        if (installedVersions.isEmpty()) {
+            return false;
+        }
+        try {
+            final ManifestVersionRecord currentVersions = ManifestVersionResolver.getCurrentVersions(galleonEnv.getChannelSession());
+            return hasSameManifestVersions(installedVersions.get(), currentVersions, galleonEnv.getChannelSession().getManifests());
+        } catch (IOException e) {
+            ProsperoLogger.ROOT_LOGGER.debug("Unable to resolve current manifest versions", e);
+            return false;
+        }
+    }
+
+    static boolean hasSameManifestVersions(ManifestVersionRecord installedVersions, ManifestVersionRecord currentVersions,
+                                           List<ChannelManifest> currentManifests) {
+        return currentVersions.getOpenManifests().isEmpty()
+                && currentVersions.getSummary().equals(installedVersions.getSummary())
+                && UpdateFinder.isDefinedByManifests(currentManifests);
+    }
+
     private GalleonEnvironment getGalleonEnv(Path target) throws ProvisioningException, OperationException {
         return GalleonEnvironment
                 .builder(target, prosperoConfig.getChannels(), mavenSessionManager, false)
@@ -0,0 +1,553 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.api;
+
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.prospero.utils.ExecutorUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads remote repository archives.
+ *
+ * If the server supports byte ranges, the archive is split into segments downloaded over several connections. The progress
+ * of each segment is recorded next to the partially downloaded file, so an interrupted download is resumed from where it
+ * stopped, as long as the {@code ETag} (or {@code Last-Modified} and size) of the remote file didn't change.
+ *
+ * The archives are stored in {@code <cache>/<SHA-1 of the URL>/}. The cache is persisted between runs, so complete
+ * archives are re-used without downloading them again. By default the cache is kept in the user's {@code .m2} folder,
+ * the location can be changed with {@code DOWNLOAD_CACHE_PROPERTY}.
+ */
+public final class ArchiveDownloader {
+    private static final Logger LOG = Logger.getLogger(ArchiveDownloader.class);
+
+    /**
+     * location of the persistent download cache. Defaults to {@code ~/.m2/prospero-archives}.
+     */
+    public static final String DOWNLOAD_CACHE_PROPERTY = "org.wildfly.prospero.archive.download-cache";
+    /**
+     * maximum number of connections used to download a single archive. Defaults to {@code DEFAULT_CONNECTIONS}.
+     */
+    public static final String CONNECTIONS_PROPERTY = "org.wildfly.prospero.archive.download-connections";
+    public static final String TRACK_REPOSITORY_DOWNLOAD = "REPOSITORY_DOWNLOAD";
+
+    static final String DEFAULT_CACHE_DIR = "prospero-archives";
+    static final int DEFAULT_CONNECTIONS = 4;
+    static final long DEFAULT_MIN_SEGMENT_SIZE = 8 * 1024 * 1024;
+    static final String ARCHIVE_FILENAME = "archive.zip";
+    static final String PART_FILENAME = "archive.zip.part";
+    static final String STATE_FILENAME = "download.properties";
+    private static final String LOCK_FILENAME = ".lock";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // how often (in bytes) the progress of a segment is persisted
+    private static final long CHECKPOINT_SIZE = 1024 * 1024;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final Path cacheDir;
+    private final int connections;
+    private final long minSegmentSize;
+    private final Console console;
+    private HttpClient httpClient;
+
+    ArchiveDownloader(Path cacheDir, int connections, long minSegmentSize, Console console) {
+        this.cacheDir = cacheDir.toAbsolutePath();
+        this.connections = connections;
+        this.minSegmentSize = minSegmentSize;
+        this.console = console;
+    }
+
+    /**
+     * creates a downloader using the cache configured by {@code DOWNLOAD_CACHE_PROPERTY}, or the default cache in the
+     * user's {@code .m2} folder if the cache is not configured.
+     *
+     * @param console - console to report the progress to, can be {@code null}
+     */
+    static ArchiveDownloader fromSystemProperties(Console console) {
+        final String location = System.getProperty(DOWNLOAD_CACHE_PROPERTY);
+        final Path cacheDir;
+        if (location == null || location.isBlank()) {
+            cacheDir = defaultCacheDirectory();
+        } else {
+            cacheDir = Path.of(location);
+        }
+        return new ArchiveDownloader(cacheDir, ExecutorUtils.getPositiveInteger(CONNECTIONS_PROPERTY, DEFAULT_CONNECTIONS),
+                DEFAULT_MIN_SEGMENT_SIZE, console);
+    }
+
+    /**
+     * @return the default location of the download cache, shared by all runs of the current user
+     */
+    static Path defaultCacheDirectory() {
+        return Path.of(System.getProperty("user.home"), ".m2", DEFAULT_CACHE_DIR);
+    }
+
+    /**
+     * downloads the archive at {@code url} or re-uses the cached copy if the remote file didn't change.
+     *
+     * @param url - HTTP(S) URL of the archive
+     * @return path to the downloaded archive
+     * @throws IOException if the archive cannot be downloaded. The downloaded content is kept and the download
+     *                     is resumed on the next attempt.
+     */
+    Path download(String url) throws IOException {
+        final URI uri = URI.create(url);
+        final Path entryDir = cacheDir.resolve(sha1(url));
+        Files.createDirectories(entryDir);
+
+        // prevent other processes from writing into the same entry
+        try (FileChannel lockChannel = FileChannel.open(entryDir.resolve(LOCK_FILENAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lockChannel.lock()) {
+            final RemoteFile remote = head(uri);
+            final Path archive = entryDir.resolve(ARCHIVE_FILENAME);
+            final Path part = entryDir.resolve(PART_FILENAME);
+            final Path stateFile = entryDir.resolve(STATE_FILENAME);
+
+            DownloadState state = DownloadState.load(stateFile);
+            if (state != null && state.isComplete() && remote.isSameAs(state.remote) && Files.exists(archive)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Using cached archive %s for %s", archive, url);
+                }
+                return archive;
+            }
+
+            if (state == null || state.isComplete() || !remote.isSameAs(state.remote) || !Files.exists(part)) {
+                Files.deleteIfExists(archive);
+                Files.deleteIfExists(part);
+                state = new DownloadState(remote, split(remote));
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debugf("Resuming download of %s from %d bytes", url, state.downloaded());
+            }
+
+            final Progress progress = new Progress(fileName(uri), remote.length, state.downloaded());
+            progress.started();
+            if (state.segments.isEmpty()) {
+                downloadStream(uri, part);
+            } else {
+                try {
+                    downloadSegments(uri, part, stateFile, state, progress);
+                } catch (ContentChangedException e) {
+                    LOG.debugf("The content of %s changed during download, downloading again", url);
+                    Files.deleteIfExists(part);
+                    state = new DownloadState(head(uri), new ArrayList<>());
+                    progress.reset();
+                    downloadStream(uri, part);
+                }
+            }
+            progress.completed();
+
+            Files.move(part, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            state.complete = true;
+            state.save(stateFile);
+            return archive;
+        }
+    }
+
+    private RemoteFile head(URI uri) throws IOException {
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        final HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IOException(String.format("Unable to download %s - received status %d", uri, response.statusCode()));
+        }
+        return new RemoteFile(uri.toString(),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                response.headers().firstValueAsLong("Content-Length").orElse(-1),
+                response.headers().firstValue("Accept-Ranges").map("bytes"::equalsIgnoreCase).orElse(false));
+    }
+
+    private List<Segment> split(RemoteFile remote) {
+        final List<Segment> segments = new ArrayList<>();
+        if (!remote.acceptsRanges || remote.length <= 0) {
+            return segments;
+        }
+        final long count = Math.max(1, Math.min(connections, remote.length / minSegmentSize));
+        final long size = remote.length / count;
+        for (int i = 0; i < count; i++) {
+            final long start = i * size;
+            final long end = i == count - 1 ? remote.length - 1 : start + size - 1;
+            segments.add(new Segment(start, end, 0));
+        }
+        return segments;
+    }
+
+    private void downloadSegments(URI uri, Path part, Path stateFile, DownloadState state, Progress progress) throws IOException {
+        final ExecutorService executor = ExecutorUtils.newBoundedExecutor(state.segments.size());
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (Segment segment : state.segments) {
+                if (!segment.isDone()) {
+                    futures.add(executor.submit(() -> {
+                        downloadSegment(uri, channel, segment, stateFile, state, progress);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download of " + uri + " was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+            state.save(stateFile);
+        }
+    }
+
+    private void downloadSegment(URI uri, FileChannel channel, Segment segment, Path stateFile, DownloadState state,
+                                 Progress progress) throws IOException {
+        IOException failure = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !segment.isDone(); attempt++) {
+            final long from = segment.start + segment.downloaded.get();
+            final HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(TIMEOUT)
+                    .header("Range", "bytes=" + from + "-" + segment.end)
+                    .GET();
+            // if the file changed, the server returns the whole new content instead of the range
+            state.remote.validator().ifPresent(v -> request.header("If-Range", v));
+
+            try {
+                final HttpResponse<InputStream> response = send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    if (response.statusCode() == 200) {
+                        throw new ContentChangedException();
+                    }
+                    if (response.statusCode() != 206
+                            || !response.headers().firstValue("Content-Range").orElse("").startsWith("bytes " + from + "-")) {
+                        throw new IOException(String.format("Unable to download %s - received status %d for range %d-%d",
+                                uri, response.statusCode(), from, segment.end));
+                    }
+                    transfer(body, channel, segment, stateFile, state, progress);
+                }
+            } catch (ContentChangedException e) {
+                throw e;
+            } catch (IOException e) {
+                LOG.debugf(e, "Failed to download range %d-%d of %s (attempt %d)", from, segment.end, uri, attempt);
+                failure = e;
+            }
+        }
+        if (!segment.isDone()) {
+            throw failure != null ? failure : new IOException("Unable to download " + uri);
+        }
+    }
+
+    private static void transfer(InputStream body, FileChannel channel, Segment segment, Path stateFile, DownloadState state,
+                                 Progress progress) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long sinceCheckpoint = 0;
+        int read;
+        while (!segment.isDone() && (read = body.read(buffer)) != -1) {
+            final int length = (int) Math.min(read, segment.remaining());
+            final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+            long position = segment.start + segment.downloaded.get();
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+            segment.downloaded.addAndGet(length);
+            progress.transferred(length);
+
+            sinceCheckpoint += length;
+            if (sinceCheckpoint >= CHECKPOINT_SIZE) {
+                // make sure the recorded progress is not ahead of the content on disk
+                channel.force(false);
+                state.save(stateFile);
+                sinceCheckpoint = 0;
+            }
+        }
+        if (!segment.isDone()) {
+            throw new IOException(String.format("Connection closed after %d bytes of range %d-%d",
+                    segment.downloaded.get(), segment.start, segment.end));
+        }
+    }
+
+    private void downloadStream(URI uri, Path part) throws IOException {
+        IOException failure = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            final HttpRequest request = HttpRequest.newBuilder(uri).timeout(TIMEOUT).GET().build();
+            try {
+                final HttpResponse<Path> response = send(request, HttpResponse.BodyHandlers.ofFile(part));
+                if (response.statusCode() == 200) {
+                    return;
+                }
+                failure = new IOException(String.format("Unable to download %s - received status %d", uri, response.statusCode()));
+            } catch (IOException e) {
+                LOG.debugf(e, "Failed to download %s (attempt %d)", uri, attempt);
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return getHttpClient().send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download of " + request.uri() + " was interrupted", e);
+        }
+    }
+
+    private synchronized HttpClient getHttpClient() {
+        if (httpClient == null) {
+            httpClient = HttpClient.newBuilder()
+                    // HTTP/2 would multiplex the segments over a single connection
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(TIMEOUT)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .proxy(ProxySelector.getDefault())
+                    .build();
+        }
+        return httpClient;
+    }
+
+    private static String fileName(URI uri) {
+        final String path = uri.getPath();
+        return path == null ? uri.toString() : path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String sha1(String text) {
+        try {
+            return HashUtils.bytesToHexString(MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class ContentChangedException extends IOException {
+    }
+
+    /**
+     * Identity of the remote file. A download can only be resumed if the remote file didn't change.
+     */
+    private static final class RemoteFile {
+        private final String url;
+        private final String etag;
+        private final String lastModified;
+        private final long length;
+        private final boolean acceptsRanges;
+
+        private RemoteFile(String url, String etag, String lastModified, long length, boolean acceptsRanges) {
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.acceptsRanges = acceptsRanges;
+        }
+
+        private Optional<String> validator() {
+            return Optional.ofNullable(etag != null ? etag : lastModified);
+        }
+
+        /**
+         * @return {@code true} if both describe the same content. Files without an {@code ETag} or {@code Last-Modified}
+         * header are never considered the same.
+         */
+        private boolean isSameAs(RemoteFile other) {
+            if (other == null || !url.equals(other.url) || length != other.length || validator().isEmpty()) {
+                return false;
+            }
+            return Objects.equals(etag, other.etag) && Objects.equals(lastModified, other.lastModified);
+        }
+    }
+
+    private static final class Segment {
+        private final long start;
+        private final long end;
+        private final AtomicLong downloaded;
+
+        private Segment(long start, long end, long downloaded) {
+            this.start = start;
+            this.end = end;
+            this.downloaded = new AtomicLong(downloaded);
+        }
+
+        private long remaining() {
+            return end - start + 1 - downloaded.get();
+        }
+
+        private boolean isDone() {
+            return remaining() <= 0;
+        }
+    }
+
+    /**
+     * Persisted state of a download - the remote file it belongs to and the progress of each segment.
+     */
+    private static final class DownloadState {
+        private final RemoteFile remote;
+        private final List<Segment> segments;
+        private volatile boolean complete;
+
+        private DownloadState(RemoteFile remote, List<Segment> segments) {
+            this.remote = remote;
+            this.segments = segments;
+        }
+
+        private boolean isComplete() {
+            return complete;
+        }
+
+        private long downloaded() {
+            return segments.stream().mapToLong(s -> s.downloaded.get()).sum();
+        }
+
+        private static DownloadState load(Path file) {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            final Properties props = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(reader);
+                final RemoteFile remote = new RemoteFile(props.getProperty("url"), props.getProperty("etag"),
+                        props.getProperty("last-modified"), Long.parseLong(props.getProperty("length")),
+                        Boolean.parseBoolean(props.getProperty("accept-ranges")));
+                final List<Segment> segments = new ArrayList<>();
+                final int count = Integer.parseInt(props.getProperty("segments", "0"));
+                for (int i = 0; i < count; i++) {
+                    segments.add(new Segment(Long.parseLong(props.getProperty("segment." + i + ".start")),
+                            Long.parseLong(props.getProperty("segment." + i + ".end")),
+                            Long.parseLong(props.getProperty("segment." + i + ".downloaded"))));
+                }
+                final DownloadState state = new DownloadState(remote, segments);
+                state.complete = Boolean.parseBoolean(props.getProperty("complete"));
+                return state;
+            } catch (IOException | RuntimeException e) {
+                LOG.debugf(e, "Unable to read download state from %s", file);
+                return null;
+            }
+        }
+
+        private synchronized void save(Path file) throws IOException {
+            final Properties props = new Properties();
+            props.setProperty("url", remote.url);
+            if (remote.etag != null) {
+                props.setProperty("etag", remote.etag);
+            }
+            if (remote.lastModified != null) {
+                props.setProperty("last-modified", remote.lastModified);
+            }
+            props.setProperty("length", Long.toString(remote.length));
+            props.setProperty("accept-ranges", Boolean.toString(remote.acceptsRanges));
+            props.setProperty("complete", Boolean.toString(complete));
+            props.setProperty("segments", Integer.toString(segments.size()));
+            for (int i = 0; i < segments.size(); i++) {
+                final Segment segment = segments.get(i);
+                props.setProperty("segment." + i + ".start", Long.toString(segment.start));
+                props.setProperty("segment." + i + ".end", Long.toString(segment.end));
+                props.setProperty("segment." + i + ".downloaded", Long.toString(segment.downloaded.get()));
+            }
+
+            final Path temp = Files.createTempFile(file.getParent(), STATE_FILENAME, ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    props.store(writer, "Repository archive download");
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Reports the number of downloaded bytes to the console. Updates are emitted at most once per percent of progress.
+     */
+    private final class Progress {
+        private final String item;
+        private final long total;
+        private final AtomicLong completed;
+        private long lastReported = -1;
+
+        private Progress(String item, long total, long completed) {
+            this.item = item;
+            this.total = total;
+            this.completed = new AtomicLong(completed);
+        }
+
+        private void started() {
+            emit(ProvisioningProgressEvent.EventType.STARTING, completed.get());
+        }
+
+        private void transferred(long bytes) {
+            final long current = completed.addAndGet(bytes);
+            if (console == null || total <= 0) {
+                return;
+            }
+            final long percent = current * 100 / total;
+            synchronized (this) {
+                if (percent > lastReported) {
+                    lastReported = percent;
+                    emit(ProvisioningProgressEvent.EventType.UPDATE, current);
+                }
+            }
+        }
+
+        private synchronized void reset() {
+            completed.set(0);
+            lastReported = -1;
+        }
+
+        private void completed() {
+            emit(ProvisioningProgressEvent.EventType.COMPLETED, completed.get());
+        }
+
+        private void emit(ProvisioningProgressEvent.EventType type, long current) {
+            if (console != null) {
+                console.progressUpdate(new ProvisioningProgressEvent(TRACK_REPOSITORY_DOWNLOAD, type, current, total, item, false));
+            }
+        }
+    }
+}
@@ -25,39 +25,40 @@ import java.util.Optional;
 
 public class ArtifactChange extends Diff {
     private final String channelName;
+    private final String extension;
+    private final String classifier;
 
     public static ArtifactChange added(Artifact newVersion) {
         Objects.requireNonNull(newVersion);
-        return new ArtifactChange(toGav(newVersion), null, newVersion.getVersion());
+        return new ArtifactChange(toGav(newVersion), null, newVersion.getVersion(), null, newVersion.getExtension(), newVersion.getClassifier());
     }
     public static ArtifactChange added(Artifact newVersion, String channelName) {
         Objects.requireNonNull(newVersion);
-        return new ArtifactChange(toGav(newVersion), null, newVersion.getVersion(), channelName);
+        return new ArtifactChange(toGav(newVersion), null, newVersion.getVersion(), channelName, newVersion.getExtension(), newVersion.getClassifier());
     }
 
     public static ArtifactChange removed(Artifact oldVersion) {
         Objects.requireNonNull(oldVersion);
-        return new ArtifactChange(toGav(oldVersion), oldVersion.getVersion(), null);
+        return new ArtifactChange(toGav(oldVersion), oldVersion.getVersion(), null, null, oldVersion.getExtension(), oldVersion.getClassifier());
     }
 
     public static ArtifactChange updated(Artifact oldVersion, Artifact newVersion) {
         Objects.requireNonNull(oldVersion);
         Objects.requireNonNull(newVersion);
-        return new ArtifactChange(toGav(oldVersion), oldVersion.getVersion(), newVersion.getVersion());
+        return new ArtifactChange(toGav(oldVersion), oldVersion.getVersion(), newVersion.getVersion(), null, newVersion.getExtension(), newVersion.getClassifier());
     }
     public static ArtifactChange updated(Artifact oldVersion, Artifact newVersion, String channelName) {
         Objects.requireNonNull(oldVersion);
         Objects.requireNonNull(newVersion);
-        return new ArtifactChange(toGav(oldVersion), oldVersion.getVersion(), newVersion.getVersion(), channelName);
+        return new ArtifactChange(toGav(oldVersion), oldVersion.getVersion(), newVersion.getVersion(), channelName, newVersion.getExtension(), newVersion.getClassifier());
     }
 
-    private ArtifactChange(String gav, String oldVersion, String newVersion) {
-        this(gav, oldVersion, newVersion, null);
-    }
-
-    private ArtifactChange(String gav, String oldVersion, String newVersion, String channelName) {
+    private ArtifactChange(String gav, String oldVersion, String newVersion, String channelName, String extension,
+                           String classifier) {
         super(gav, oldVersion, newVersion);
         this.channelName = channelName;
+        this.extension = extension;
+        this.classifier = classifier;
     }
 
     @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -78,6 +79,14 @@ public class ArtifactChange extends Diff {
         return getNewValue();
     }
 
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getClassifier() {
+        return classifier;
+    }
+
     private static String toGav(Artifact artifact) {
         final String gac;
         if (artifact.getClassifier() == null || artifact.getClassifier().isEmpty()) {
@@ -115,12 +124,12 @@ public class ArtifactChange extends Diff {
 
     public ArtifactChange reverse() {
         if (isUpdated()) {
-            return new ArtifactChange(getName().get(), getNewVersion().get(), getOldVersion().get(), channelName);
+            return new ArtifactChange(getName().get(), getNewVersion().get(), getOldVersion().get(), channelName, extension, classifier);
         }
         else if (isInstalled()) {
-            return new ArtifactChange(getArtifactName(), getNewVersion().get(), null, channelName);
+            return new ArtifactChange(getArtifactName(), getNewVersion().get(), null, channelName, extension, classifier);
         } else {
-            return new ArtifactChange(getArtifactName(), null, getOldVersion().get(), channelName);
+            return new ArtifactChange(getArtifactName(), null, getOldVersion().get(), channelName, extension, classifier);
         }
     }
 }
@@ -18,6 +18,7 @@
 package org.wildfly.prospero.api;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -27,7 +28,9 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import java.util.Optional;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
@@ -42,6 +45,12 @@ public class MavenOptions {
     private final Optional<Path> localCache;
     private final Optional<Boolean> offline;
     private final Optional<Boolean> noLocalCache;
+    private final Optional<List<Path>> sharedLocalCaches;
+    private final Optional<Integer> downloadThreads;
+    private final Optional<Integer> maxConnectionsPerRoute;
+    private final Optional<Integer> connectionTtl;
+    private final Optional<Integer> connectTimeout;
+    private final Optional<Integer> requestTimeout;
 
     public static final MavenOptions DEFAULT_OPTIONS = builder().build();
     public static final MavenOptions OFFLINE_NO_CACHE = builder()
@@ -60,16 +69,41 @@ public class MavenOptions {
     @JsonCreator
     private MavenOptions(@JsonProperty("localCache") Path localCache,
                          @JsonProperty("offline") boolean offline,
-                         @JsonProperty("noLocalCache") boolean noLocalCache) {
+                         @JsonProperty("noLocalCache") boolean noLocalCache,
+                         @JsonProperty("sharedLocalCaches") List<Path> sharedLocalCaches,
+                         @JsonProperty("downloadThreads") Integer downloadThreads,
+                         @JsonProperty("maxConnectionsPerRoute") Integer maxConnectionsPerRoute,
+                         @JsonProperty("connectionTtl") Integer connectionTtl,
+                         @JsonProperty("connectTimeout") Integer connectTimeout,
+                         @JsonProperty("requestTimeout") Integer requestTimeout) {
         this.localCache = Optional.ofNullable(localCache).map(Path::toAbsolutePath);
         this.noLocalCache = Optional.of(noLocalCache);
         this.offline = Optional.of(offline);
+        this.sharedLocalCaches = Optional.ofNullable(sharedLocalCaches).filter(l -> !l.isEmpty()).map(MavenOptions::toAbsolutePaths);
+        this.downloadThreads = Optional.ofNullable(downloadThreads).map(v -> requirePositive("downloadThreads", v));
+        this.maxConnectionsPerRoute = Optional.ofNullable(maxConnectionsPerRoute).map(v -> requirePositive("maxConnectionsPerRoute", v));
+        this.connectionTtl = Optional.ofNullable(connectionTtl).map(v -> requirePositive("connectionTtl", v));
+        this.connectTimeout = Optional.ofNullable(connectTimeout).map(v -> requirePositive("connectTimeout", v));
+        this.requestTimeout = Optional.ofNullable(requestTimeout).map(v -> requirePositive("requestTimeout", v));
     }
 
-    private MavenOptions(Optional<Path> localCache, Optional<Boolean> offline, Optional<Boolean> noLocalCache) {
-        this.localCache = localCache;
-        this.noLocalCache = noLocalCache;
-        this.offline = offline;
+    private static int requirePositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " has to be a positive number: " + value);
+        }
+        return value;
+    }
+
+    private MavenOptions(Builder builder) {
+        this.localCache = builder.localCachePath;
+        this.noLocalCache = builder.noLocalCache;
+        this.offline = builder.offline;
+        this.sharedLocalCaches = builder.sharedLocalCaches;
+        this.downloadThreads = builder.downloadThreads;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.connectionTtl = builder.connectionTtl;
+        this.connectTimeout = builder.connectTimeout;
+        this.requestTimeout = builder.requestTimeout;
     }
 
     public Path getLocalCache() {
@@ -85,6 +119,67 @@ public class MavenOptions {
     }
 
 
+    /**
+     * read-only local repositories consulted in addition to the local cache. Artifacts found in those repositories are
+     * not downloaded again, new artifacts are stored in the local cache.
+     *
+     * @return list of shared repositories, empty if no shared repositories are used
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public List<Path> getSharedLocalCaches() {
+        return sharedLocalCaches.orElse(List.of());
+    }
+
+    /**
+     * number of threads used to download artifacts from a single repository concurrently
+     *
+     * @return number of threads or {@code null} if the Maven resolver default should be used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getDownloadThreads() {
+        return downloadThreads.orElse(null);
+    }
+
+    /**
+     * maximum number of pooled HTTP connections to a single repository host
+     *
+     * @return number of connections or {@code null} if the Maven resolver default should be used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute.orElse(null);
+    }
+
+    /**
+     * time in seconds after which a pooled HTTP connection is closed
+     *
+     * @return TTL in seconds or {@code null} if the Maven resolver default should be used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getConnectionTtl() {
+        return connectionTtl.orElse(null);
+    }
+
+    /**
+     * timeout in milliseconds for establishing a connection to a repository
+     *
+     * @return timeout in milliseconds or {@code null} if the Maven resolver default should be used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getConnectTimeout() {
+        return connectTimeout.orElse(null);
+    }
+
+    /**
+     * timeout in milliseconds for receiving data from a repository
+     *
+     * @return timeout in milliseconds or {@code null} if the Maven resolver default should be used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getRequestTimeout() {
+        return requestTimeout.orElse(null);
+    }
+
     public boolean overridesLocalCache() {
         return localCache.isPresent();
     }
@@ -95,6 +190,12 @@ public class MavenOptions {
                 "localCache=" + localCache +
                 ", offline=" + offline +
                 ", noLocalCache=" + noLocalCache +
+                ", sharedLocalCaches=" + sharedLocalCaches +
+                ", downloadThreads=" + downloadThreads +
+                ", maxConnectionsPerRoute=" + maxConnectionsPerRoute +
+                ", connectionTtl=" + connectionTtl +
+                ", connectTimeout=" + connectTimeout +
+                ", requestTimeout=" + requestTimeout +
                 '}';
     }
 
@@ -117,6 +218,13 @@ public class MavenOptions {
         } else if (this.localCache.isPresent()) {
             builder.setLocalCachePath(this.getLocalCache());
         }
+
+        builder.sharedLocalCaches = override.sharedLocalCaches.or(() -> this.sharedLocalCaches);
+        builder.downloadThreads = override.downloadThreads.or(() -> this.downloadThreads);
+        builder.maxConnectionsPerRoute = override.maxConnectionsPerRoute.or(() -> this.maxConnectionsPerRoute);
+        builder.connectionTtl = override.connectionTtl.or(() -> this.connectionTtl);
+        builder.connectTimeout = override.connectTimeout.or(() -> this.connectTimeout);
+        builder.requestTimeout = override.requestTimeout.or(() -> this.requestTimeout);
         return builder.build();
     }
 
@@ -135,12 +243,21 @@ public class MavenOptions {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         MavenOptions that = (MavenOptions) o;
-        return Objects.equals(localCache, that.localCache) && Objects.equals(offline, that.offline) && Objects.equals(noLocalCache, that.noLocalCache);
+        return Objects.equals(localCache, that.localCache) && Objects.equals(offline, that.offline) && Objects.equals(noLocalCache, that.noLocalCache)
+                && Objects.equals(sharedLocalCaches, that.sharedLocalCaches)
+                && Objects.equals(downloadThreads, that.downloadThreads) && Objects.equals(maxConnectionsPerRoute, that.maxConnectionsPerRoute)
+                && Objects.equals(connectionTtl, that.connectionTtl) && Objects.equals(connectTimeout, that.connectTimeout)
+                && Objects.equals(requestTimeout, that.requestTimeout);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(localCache, offline, noLocalCache);
+        return Objects.hash(localCache, offline, noLocalCache, sharedLocalCaches, downloadThreads, maxConnectionsPerRoute, connectionTtl,
+                connectTimeout, requestTimeout);
+    }
+
+    private static List<Path> toAbsolutePaths(List<Path> paths) {
+        return paths.stream().map(Path::toAbsolutePath).collect(Collectors.toUnmodifiableList());
     }
 
     public static class Builder {
@@ -148,13 +265,19 @@ public class MavenOptions {
         private Optional<Boolean> offline = Optional.empty();
         private Optional<Boolean> noLocalCache = Optional.empty();
         private Optional<Path> localCachePath = Optional.empty();
+        private Optional<List<Path>> sharedLocalCaches = Optional.empty();
+        private Optional<Integer> downloadThreads = Optional.empty();
+        private Optional<Integer> maxConnectionsPerRoute = Optional.empty();
+        private Optional<Integer> connectionTtl = Optional.empty();
+        private Optional<Integer> connectTimeout = Optional.empty();
+        private Optional<Integer> requestTimeout = Optional.empty();
 
         private Builder() {
 
         }
 
         public MavenOptions build() {
-            return new MavenOptions(localCachePath, offline, noLocalCache);
+            return new MavenOptions(this);
         }
 
         public Builder setOffline(boolean offline) {
@@ -171,5 +294,39 @@ public class MavenOptions {
             this.localCachePath = Optional.of(localCachePath);
             return this;
         }
+
+        /**
+         * sets read-only local repositories consulted in addition to the local cache. The repositories are searched in the
+         * order of the list.
+         */
+        public Builder setSharedLocalCaches(List<Path> sharedLocalCaches) {
+            this.sharedLocalCaches = sharedLocalCaches.isEmpty() ? Optional.empty() : Optional.of(toAbsolutePaths(sharedLocalCaches));
+            return this;
+        }
+
+        public Builder setDownloadThreads(int downloadThreads) {
+            this.downloadThreads = Optional.of(requirePositive("downloadThreads", downloadThreads));
+            return this;
+        }
+
+        public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = Optional.of(requirePositive("maxConnectionsPerRoute", maxConnectionsPerRoute));
+            return this;
+        }
+
+        public Builder setConnectionTtl(int connectionTtl) {
+            this.connectionTtl = Optional.of(requirePositive("connectionTtl", connectionTtl));
+            return this;
+        }
+
+        public Builder setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = Optional.of(requirePositive("connectTimeout", connectTimeout));
+            return this;
+        }
+
+        public Builder setRequestTimeout(int requestTimeout) {
+            this.requestTimeout = Optional.of(requirePositive("requestTimeout", requestTimeout));
+            return this;
+        }
     }
 }
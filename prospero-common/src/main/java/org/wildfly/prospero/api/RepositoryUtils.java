@@ -17,31 +17,40 @@
 
 package org.wildfly.prospero.api;
 
-import org.apache.commons.io.IOUtils;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.jboss.galleon.util.ZipUtils;
 import org.jboss.logging.Logger;
 import org.wildfly.channel.Repository;
 import org.wildfly.prospero.ProsperoLogger;
 import org.wildfly.prospero.api.exceptions.InvalidRepositoryArchiveException;
+import org.wildfly.prospero.wfchannel.ArchiveRepositoryTransporterFactory;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.wildfly.channel.maven.VersionResolverFactory.DEFAULT_REPOSITORY_POLICY;
 
 public class RepositoryUtils {
     private static final Logger LOG = Logger.getLogger(RepositoryUtils.class.getName());
+
+    /**
+     * if set to {@code true}, the repository archives are not extracted. Instead, the artifacts are resolved directly
+     * from the archive using {@link ArchiveRepositoryTransporterFactory}.
+     */
+    public static final String IN_PLACE_ARCHIVES_PROPERTY = "org.wildfly.prospero.archive.in-place";
+
     public static Repository toChannelRepository(RemoteRepository r) {
         return new Repository(r.getId(), r.getUrl());
     }
@@ -65,12 +74,28 @@ public class RepositoryUtils {
      * @throws InvalidRepositoryArchiveException - if the archive does not contain a valid repository.
      */
     public static List<Repository> unzipArchives(List<Repository> repositories, TemporaryFilesManager temporaryFiles) throws InvalidRepositoryArchiveException {
+        return unzipArchives(repositories, temporaryFiles, null);
+    }
+
+    /**
+     * extracts repositories provided as ZIP archives and produces a list of {@code Repositories} pointing to extracted folders.
+     * Remote archives are downloaded using {@link ArchiveDownloader}.
+     *
+     * @param repositories - list of repositories. Some of them might contain archives
+     * @param temporaryFiles - {@link TemporaryFilesManager} responsible for temporary files
+     * @param console - {@link Console} to report the download progress to, can be {@code null}
+     * @return - list of repositories with extracted archives
+     * @throws InvalidRepositoryArchiveException - if the archive does not contain a valid repository.
+     */
+    public static List<Repository> unzipArchives(List<Repository> repositories, TemporaryFilesManager temporaryFiles,
+                                                 Console console) throws InvalidRepositoryArchiveException {
         Objects.requireNonNull(repositories);
 
         if (repositories.isEmpty()) {
             return repositories;
         }
 
+        ArchiveDownloader downloader = null;
         final ArrayList<Repository> mappedRepositories = new ArrayList<>();
         for (Repository repository : repositories) {
             try {
@@ -79,24 +104,26 @@ public class RepositoryUtils {
                         LOG.debug("Treating " + repository.getUrl() + " as a local archive.");
                     }
                     final Path archivePath = Path.of(URI.create(repository.getUrl()));
-                    final String newUrl = extractArchive(archivePath, temporaryFiles);
+                    final String newUrl = mapArchive(archivePath, temporaryFiles);
                     if (LOG.isDebugEnabled()) {
-                        LOG.debug("Extracted " + repository.getUrl() + " to " + newUrl);
+                        LOG.debug("Using " + newUrl + " for " + repository.getUrl());
                     }
                     mappedRepositories.add(new Repository(repository.getId(), newUrl));
                 } else if (isRemoteZipFile(repository)) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Treating " + repository.getUrl() + " as a remote archive.");
                     }
-                    final Path archivePath = temporaryFiles.createTempFile("prospero-repository", ".zip");
+                    if (downloader == null) {
+                        downloader = ArchiveDownloader.fromSystemProperties(console);
+                    }
+                    final Path archivePath = downloader.download(repository.getUrl());
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Downloaded " + repository.getUrl() + " to " + archivePath);
                     }
-                    IOUtils.copy(new URL(repository.getUrl()), archivePath.toFile());
 
-                    final String newUrl = extractArchive(archivePath, temporaryFiles);
+                    final String newUrl = mapArchive(archivePath, temporaryFiles);
                     if (LOG.isDebugEnabled()) {
-                        LOG.debug("Extracted " + repository.getUrl() + " to " + newUrl);
+                        LOG.debug("Using " + newUrl + " for " + repository.getUrl());
                     }
                     mappedRepositories.add(new Repository(repository.getId(), newUrl));
                 } else {
@@ -112,6 +139,14 @@ public class RepositoryUtils {
         return mappedRepositories;
     }
 
+    private static String mapArchive(Path archivePath, TemporaryFilesManager temporaryFiles) throws IOException, InvalidRepositoryArchiveException {
+        if (Boolean.getBoolean(IN_PLACE_ARCHIVES_PROPERTY)) {
+            return openArchive(archivePath, temporaryFiles);
+        } else {
+            return extractArchive(archivePath, temporaryFiles);
+        }
+    }
+
     private static String extractArchive(Path archivePath, TemporaryFilesManager temporaryFiles) throws IOException, InvalidRepositoryArchiveException {
         final Path tempRepo = temporaryFiles.createTempDirectory("prospero-repository");
         ZipUtils.unzip(archivePath, tempRepo);
@@ -120,16 +155,26 @@ public class RepositoryUtils {
         return mavenRepositoryFolder.toUri().toURL().toString();
     }
 
-    private static Path findRepositoryFolder(Path tempRepo) throws InvalidRepositoryArchiveException {
-        final File[] repoChildren = tempRepo.toFile().listFiles(File::isDirectory);
-        if (repoChildren == null || repoChildren.length != 1) {
+    private static String openArchive(Path archivePath, TemporaryFilesManager temporaryFiles) throws IOException, InvalidRepositoryArchiveException {
+        final FileSystem archive = ArchiveRepositoryTransporterFactory.openArchive(archivePath);
+        temporaryFiles.addResource(archive);
+
+        final Path mavenRepositoryFolder = findRepositoryFolder(archive.getPath("/"));
+        return ArchiveRepositoryTransporterFactory.toRepositoryUrl(archivePath, mavenRepositoryFolder);
+    }
+
+    private static Path findRepositoryFolder(Path repositoryRoot) throws IOException, InvalidRepositoryArchiveException {
+        final List<Path> repoChildren;
+        try (Stream<Path> children = Files.list(repositoryRoot)) {
+            repoChildren = children.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+        if (repoChildren.size() != 1) {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("The repository archive has to contain a single root folder. " + tempRepo);
+                LOG.debug("The repository archive has to contain a single root folder. " + repositoryRoot);
             }
             throw ProsperoLogger.ROOT_LOGGER.invalidRepositoryArchive();
         }
-        File rootFile = repoChildren[0];
-        final Path mavenRepositoryFolder = rootFile.toPath().resolve("maven-repository");
+        final Path mavenRepositoryFolder = repoChildren.get(0).resolve("maven-repository");
         if (!Files.exists(mavenRepositoryFolder) || !Files.isDirectory(mavenRepositoryFolder)) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Sub-folder maven-repository not found under the root of the archive " + mavenRepositoryFolder.getParent());
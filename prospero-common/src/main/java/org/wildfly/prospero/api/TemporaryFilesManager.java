@@ -18,11 +18,15 @@
 package org.wildfly.prospero.api;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -31,6 +35,7 @@ import java.util.Set;
 public class TemporaryFilesManager implements AutoCloseable {
 
     private final Set<Path> temporaryFiles = new HashSet<>();
+    private final List<Closeable> resources = new ArrayList<>();
 
     TemporaryFilesManager() {
 
@@ -54,8 +59,19 @@ public class TemporaryFilesManager implements AutoCloseable {
         return tempFile;
     }
 
+    /**
+     * registers a resource (e.g. an opened archive) that should be closed together with the temporary files.
+     *
+     * @param resource - resource to be closed when {@code close()} is called
+     */
+    public void addResource(Closeable resource) {
+        resources.add(resource);
+    }
+
     @Override
     public void close() {
+        resources.forEach(IOUtils::closeQuietly);
+        resources.clear();
         temporaryFiles.stream()
                 .map(Path::toFile)
                 .forEach(FileUtils::deleteQuietly);
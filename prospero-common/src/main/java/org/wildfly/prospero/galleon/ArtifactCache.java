@@ -32,29 +32,55 @@ import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 
 /**
  * Manages artifact cache located in {@code installationDir}/{@code CACHE_FOLDER}.
  *
  * Cached artifacts are listed in {@code CACHE_FOLDER}/{@code CACHE_FILENAME}. Each artifact is identified by its {@code GAV}
  * and specifies an SHA-1 hash of the file and a relative path were the artifact can be found within {@code installationDir}.
+ * Optionally the record is followed by the size, last modified time and file key of the file at the time it was recorded.
+ * If the file still matches those, the SHA-1 hash is not re-calculated on lookup, unless {@code PARANOID_MODE_PROPERTY}
+ * is set to {@code true}.
  *
  * If the artifact cannot be found within Galleon-provisioned {@code installationDir}, the artifact can be added to the
  * {@code CACHE_FOLDER}.
  *
+ * New records are appended to {@code CACHE_FOLDER}/{@code JOURNAL_FILENAME} and merged into the cache descriptor when
+ * the cache is compacted at the end of a session. Records found in the journal are replayed when the cache is opened.
+ * When compacted, a binary {@link ArtifactCacheIndex} of the descriptor is written to {@code CACHE_FOLDER}/{@code INDEX_FILENAME}.
+ * If the index matches the descriptor, it is used to look up the records instead of parsing the descriptor.
+ *
+ * If a {@link SharedArtifactStore} is configured, the files added to the {@code CACHE_FOLDER} are linked to the content
+ * of the shared store instead of being copied.
+ *
  * The cache is rebuild during update and only current artifacts are stored.
  */
 public class ArtifactCache {
@@ -62,14 +88,30 @@ public class ArtifactCache {
 
     static final String CACHE_LINE_SEPARATOR = "::";
     static final String CACHE_FILENAME = "artifacts.txt";
+    static final String JOURNAL_FILENAME = "artifacts.journal";
+    static final String INDEX_FILENAME = "artifacts.idx";
+    private static final int JOURNAL_SYNC_INTERVAL = 64;
+    private static final int CACHE_PARALLELISM = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
     public static final Path CACHE_FOLDER = Path.of(ProsperoMetadataUtils.METADATA_DIR, ".cache");
+    /**
+     * if set to {@code true}, the SHA-1 hash of cached artifacts is always re-calculated on lookup, even if the file
+     * fingerprint has not changed.
+     */
+    public static final String PARANOID_MODE_PROPERTY = "org.wildfly.prospero.cache.paranoid";
 
     private final Path cacheDir;
     private final Path installationDir;
+    private final SharedArtifactStore sharedStore;
 
-    private final Map<String, Path> paths = new TreeMap<>();
-    private final Map<String, String> hashes = new TreeMap<>();
+    // records that are not available in the index
+    private final Map<String, CacheRecord> records = new TreeMap<>();
+    // fingerprints of files verified on lookup, can be updated under the read lock
+    private final Map<String, FileFingerprint> verifiedFingerprints = new ConcurrentHashMap<>();
+    private ArtifactCacheIndex index;
     private ReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by the write lock
+    private FileChannel journal;
+    private int unsyncedRecords;
 
     private static final HashMap<Path, ArtifactCache> instances = new HashMap<>();
 
@@ -91,6 +133,16 @@ public class ArtifactCache {
 
     public static void cleanInstancesCache() {
         synchronized (instances) {
+            for (ArtifactCache cache : instances.values()) {
+                try {
+                    cache.lock.writeLock().lock();
+                    cache.closeJournal();
+                } catch (IOException e) {
+                    LOG.debug("Unable to close the artifact cache journal", e);
+                } finally {
+                    cache.lock.writeLock().unlock();
+                }
+            }
             instances.clear();
         }
     }
@@ -98,8 +150,9 @@ public class ArtifactCache {
     private ArtifactCache(Path installationDir) throws IOException {
         this.installationDir = installationDir;
         this.cacheDir = installationDir.resolve(CACHE_FOLDER);
+        this.sharedStore = SharedArtifactStore.fromSystemProperties().orElse(null);
 
-        init();
+        init(true);
     }
 
     /**
@@ -117,14 +170,22 @@ public class ArtifactCache {
         final String key = asKey(groupId, artifactId, extension, classifier, version);
         try {
             lock.readLock().lock();
-            if (paths.containsKey(key)) {
-                final Path path = paths.get(key);
+            final CacheRecord record = findRecord(key);
+            if (record != null) {
+                final Path path = record.path;
                 try {
+                    final FileFingerprint fingerprint = FileFingerprint.of(path);
+                    if (!Boolean.getBoolean(PARANOID_MODE_PROPERTY) && fingerprint.equals(fingerprintOf(record))) {
+                        return Optional.of(path.toFile());
+                    }
+
                     final String hash = HashUtils.hashFile(path);
-                    if (!hash.equals(hashes.get(key))) {
+                    if (!hash.equals(record.hash)) {
                         LOG.debug("Hashes don't match for " + key);
                         return Optional.empty();
                     }
+                    // the content is verified, no need to re-calculate the hash until the file changes
+                    verifiedFingerprints.put(key, fingerprint);
                     return Optional.of(path.toFile());
                 } catch (IOException e) {
                     LOG.debug("Unable to calculate cached artifact hash " + key, e);
@@ -140,44 +201,61 @@ public class ArtifactCache {
     /**
      * records file in the cache descriptor. The recorded path is relative to {@code installationDir}
      *
+     * The record is appended to the cache journal, it's merged into the cache descriptor when {@link #compact()} is called.
+     *
      * @param artifact - artifact to be recorded
      * @param pathToArtifact - location in the installation where the artifact can be found
      * @throws IOException
      */
     public void record(MavenArtifact artifact, Path pathToArtifact) throws IOException {
+        recordAll(List.of(prepareRecord(artifact, pathToArtifact)));
+    }
+
+    /**
+     * merges the journaled records into the cache descriptor and removes the journal. The records in the descriptor
+     * are written in alphabetic order.
+     *
+     * Should be called once all the artifacts in the current session have been recorded.
+     *
+     * @throws IOException
+     */
+    public void compact() throws IOException {
         try {
             lock.writeLock().lock();
 
-            final Path cacheList = cacheDir.resolve(CACHE_FILENAME);
+            closeJournal();
 
-            final String hash = HashUtils.hashFile(artifact.getFile().toPath());
+            final Path journalFile = cacheDir.resolve(JOURNAL_FILENAME);
+            if (!Files.exists(journalFile)) {
+                // nothing has been recorded since the last compaction
+                return;
+            }
 
             // make sure the latest version of the cache list is read
-            init();
-
-            // add the file to the paths/hashes
-            paths.put(
-                    asKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), artifact.getVersion()),
-                    pathToArtifact
-            );
-            hashes.put(
-                    asKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), artifact.getVersion()),
-                    hash
-            );
-
-            if (Files.exists(cacheList)) {
-                Files.delete(cacheList);
+            init(false);
+
+            final Map<String, String> cacheLines = new LinkedHashMap<>();
+            for (CacheRecord record : records.values()) {
+                cacheLines.put(record.key, asCacheLine(record));
             }
 
-            // write all the paths/hashes to make sure they are in alphabetic order
-            try (BufferedWriter writer = Files.newBufferedWriter(cacheList, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW)) {
-                for (String key: paths.keySet()) {
-                    final Path relativePath = installationDir.relativize(paths.get(key));
-                    final String recordedPath = relativePath.toString().replace(File.separatorChar, '/');
-                    String cacheLine = key + CACHE_LINE_SEPARATOR + hashes.get(key) + CACHE_LINE_SEPARATOR + recordedPath + "\n";
-                    writer.write(cacheLine);
+            final Path cacheList = cacheDir.resolve(CACHE_FILENAME);
+            final Path tempCacheList = cacheDir.resolve(CACHE_FILENAME + ".tmp");
+            try (FileChannel channel = FileChannel.open(tempCacheList, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                for (String cacheLine : cacheLines.values()) {
+                    writer.write(cacheLine + "\n");
                 }
+                writer.flush();
+                channel.force(false);
             }
+            Files.move(tempCacheList, cacheList, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // the text descriptor is kept as the interchange format, the index is only used to speed up opening the cache
+            ArtifactCacheIndex.write(cacheDir.resolve(INDEX_FILENAME), cacheList, cacheLines);
+
+            Files.delete(journalFile);
         } finally {
             lock.writeLock().unlock();
         }
@@ -190,9 +268,63 @@ public class ArtifactCache {
      * @throws IOException
      */
     public void cache(MavenArtifact artifact) throws IOException {
-        IoUtils.copy(artifact.getFile().toPath(), cacheDir.resolve(artifact.getFile().getName()), false);
+        final Path target = cacheDir.resolve(artifact.getFile().getName());
+        final String hash = HashUtils.hashFile(artifact.getFile().toPath());
+        copyToCache(artifact, target, hash);
+
+        recordAll(List.of(prepareRecord(artifact, target, hash)));
+    }
+
+    /**
+     * caches all the {@code artifacts} in {@code CACHE_FOLDER}. The artifacts are copied and hashed in parallel and
+     * recorded in the cache list in a single batch.
+     *
+     * @param artifacts
+     * @throws IOException
+     */
+    public void cacheAll(Collection<MavenArtifact> artifacts) throws IOException {
+        if (artifacts.isEmpty()) {
+            return;
+        }
+
+        // artifacts copied to the same file have to be processed in order
+        final Map<String, List<MavenArtifact>> byFileName = artifacts.stream()
+                .collect(Collectors.groupingBy(a -> a.getFile().getName(), LinkedHashMap::new, Collectors.toList()));
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(CACHE_PARALLELISM, byFileName.size()));
+        try {
+            final List<Future<List<CacheRecord>>> futures = new ArrayList<>(byFileName.size());
+            for (Map.Entry<String, List<MavenArtifact>> entry : byFileName.entrySet()) {
+                futures.add(executorService.submit(() -> {
+                    final Path target = cacheDir.resolve(entry.getKey());
+                    final List<CacheRecord> records = new ArrayList<>(entry.getValue().size());
+                    for (MavenArtifact artifact : entry.getValue()) {
+                        final String hash = HashUtils.hashFile(artifact.getFile().toPath());
+                        copyToCache(artifact, target, hash);
+                        records.add(prepareRecord(artifact, target, hash));
+                    }
+                    return records;
+                }));
+            }
+
+            final List<CacheRecord> records = new ArrayList<>(artifacts.size());
+            for (Future<List<CacheRecord>> future : futures) {
+                records.addAll(future.get());
+            }
 
-        record(artifact, cacheDir.resolve(artifact.getFile().getName()));
+            recordAll(records);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else {
+                throw new IOException("Unable to cache artifacts", e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while caching artifacts");
+        } finally {
+            executorService.shutdownNow();
+        }
     }
 
     /**
@@ -208,6 +340,7 @@ public class ArtifactCache {
         Objects.requireNonNull(manifestRecord);
         Objects.requireNonNull(localRepositoryManager);
 
+        final List<MavenArtifact> manifests = new ArrayList<>();
         for (ManifestVersionRecord.MavenManifest manifest : manifestRecord.getMavenManifests()) {
             final MavenArtifact record = mapToFile(manifestRecord, localRepositoryManager, manifest.getGroupId(), manifest.getArtifactId());
             if (record != null && record.getVersion().equals(manifest.getVersion())) {
@@ -217,10 +350,13 @@ public class ArtifactCache {
                 final File cachedManifest = record.getFile();
 
                 if (cachedManifest.exists()) {
-                    cache(record);
+                    manifests.add(record);
                 }
             }
         }
+
+        cacheAll(manifests);
+        compact();
     }
 
     private MavenArtifact mapToFile(ManifestVersionRecord manifestRecord, LocalRepositoryManager localRepositoryManager,
@@ -236,28 +372,169 @@ public class ArtifactCache {
                 .orElse(null);
     }
 
-    private void init() throws IOException {
+    private void init(boolean useIndex) throws IOException {
         Path artifactLog = cacheDir.resolve(CACHE_FILENAME);
 
+        index = null;
         if (Files.exists(artifactLog)) {
-            int row = 0;
-            final List<String> lines = Files.readAllLines(artifactLog);
-            try {
-                for ( ; row < lines.size(); row++) {
-                    final String[] splitLine = lines.get(row).split(CACHE_LINE_SEPARATOR);
-                    if (splitLine.length < 3) {
-                        throw new IOException("Not enough segments, expected format is <GAV>::<hash>::<path>");
-                    }
-                    String gav = splitLine[0];
-                    String hash = splitLine[1];
-                    Path path = Paths.get(splitLine[2]);
-                    final org.jboss.galleon.universe.maven.MavenArtifact mavenArtifact = org.jboss.galleon.universe.maven.MavenArtifact.fromString(gav);
-                    final String key = asKey(mavenArtifact.getGroupId(), mavenArtifact.getArtifactId(), mavenArtifact.getExtension(), mavenArtifact.getClassifier(), mavenArtifact.getVersion());
-                    paths.put(key, installationDir.resolve(path));
-                    hashes.put(key, hash);
+            if (useIndex) {
+                index = ArtifactCacheIndex.open(cacheDir.resolve(INDEX_FILENAME), artifactLog);
+                if (index != null && LOG.isDebugEnabled()) {
+                    LOG.debugf("Using artifact cache index with %d records", index.size());
                 }
-            } catch (MavenUniverseException | IOException e) {
-                throw ProsperoLogger.ROOT_LOGGER.unableToReadArtifactCache(row + 1, lines.get(row), e);
+            }
+            if (index == null) {
+                readRecords(Files.readAllLines(artifactLog));
+            }
+        }
+
+        // replay records that have not been compacted yet, e.g. if the previous session was interrupted
+        final Path journalFile = cacheDir.resolve(JOURNAL_FILENAME);
+        if (Files.exists(journalFile)) {
+            final byte[] bytes = Files.readAllBytes(journalFile);
+            int length = bytes.length;
+            while (length > 0 && bytes[length - 1] != '\n') {
+                length--;
+            }
+            if (length < bytes.length) {
+                // the last record was not fully written, discard it so that new records are not appended to it
+                LOG.debugf("Discarding incomplete record at the end of %s", journalFile);
+                try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(length);
+                }
+            }
+            readRecords(new String(bytes, 0, length, StandardCharsets.UTF_8).lines().collect(Collectors.toList()));
+        }
+    }
+
+    private void readRecords(List<String> lines) throws IOException {
+        int row = 0;
+        try {
+            for ( ; row < lines.size(); row++) {
+                put(parseRecord(lines.get(row)));
+            }
+        } catch (MavenUniverseException | IOException e) {
+            throw ProsperoLogger.ROOT_LOGGER.unableToReadArtifactCache(row + 1, lines.get(row), e);
+        }
+    }
+
+    private CacheRecord parseRecord(String line) throws IOException, MavenUniverseException {
+        final String[] splitLine = line.split(CACHE_LINE_SEPARATOR);
+        if (splitLine.length < 3) {
+            throw new IOException("Not enough segments, expected format is <GAV>::<hash>::<path>[::<size>::<mtime>::<fileKey>]");
+        }
+        String gav = splitLine[0];
+        String hash = splitLine[1];
+        Path path = Paths.get(splitLine[2]);
+        final org.jboss.galleon.universe.maven.MavenArtifact mavenArtifact = org.jboss.galleon.universe.maven.MavenArtifact.fromString(gav);
+        final String key = asKey(mavenArtifact.getGroupId(), mavenArtifact.getArtifactId(), mavenArtifact.getExtension(), mavenArtifact.getClassifier(), mavenArtifact.getVersion());
+        // records written by older versions or by Galleon plugins don't have a fingerprint
+        final FileFingerprint fingerprint = splitLine.length >= 6 ? FileFingerprint.parse(splitLine[3], splitLine[4], splitLine[5]) : null;
+        return new CacheRecord(key, installationDir.resolve(path), hash, fingerprint);
+    }
+
+    private CacheRecord findRecord(String key) {
+        final CacheRecord record = records.get(key);
+        if (record != null || index == null) {
+            return record;
+        }
+
+        final String line = index.find(key);
+        if (line == null) {
+            return null;
+        }
+        try {
+            return parseRecord(line);
+        } catch (MavenUniverseException | IOException e) {
+            LOG.debug("Unable to parse indexed cache record " + line, e);
+            return null;
+        }
+    }
+
+    private void put(CacheRecord record) {
+        final CacheRecord previous = records.put(record.key, record);
+        // a fingerprint verified on lookup is only valid as long as the record points to the same content
+        if (record.fingerprint != null || previous == null
+                || !previous.path.equals(record.path) || !previous.hash.equals(record.hash)) {
+            verifiedFingerprints.remove(record.key);
+        }
+    }
+
+    private FileFingerprint fingerprintOf(CacheRecord record) {
+        return verifiedFingerprints.getOrDefault(record.key, record.fingerprint);
+    }
+
+    private String asCacheLine(CacheRecord record) {
+        final Path relativePath = installationDir.relativize(record.path);
+        final String recordedPath = relativePath.toString().replace(File.separatorChar, '/');
+        String cacheLine = record.key + CACHE_LINE_SEPARATOR + record.hash + CACHE_LINE_SEPARATOR + recordedPath;
+        final FileFingerprint fingerprint = fingerprintOf(record);
+        if (fingerprint != null) {
+            cacheLine += CACHE_LINE_SEPARATOR + fingerprint.asString();
+        }
+        return cacheLine;
+    }
+
+    private void copyToCache(MavenArtifact artifact, Path target, String hash) throws IOException {
+        if (sharedStore != null) {
+            // keep only one copy of the file on the host and link it into the cache
+            sharedStore.link(sharedStore.store(artifact, hash), target);
+        } else {
+            IoUtils.copy(artifact.getFile().toPath(), target, false);
+        }
+    }
+
+    private CacheRecord prepareRecord(MavenArtifact artifact, Path pathToArtifact) throws IOException {
+        return prepareRecord(artifact, pathToArtifact, HashUtils.hashFile(artifact.getFile().toPath()));
+    }
+
+    private CacheRecord prepareRecord(MavenArtifact artifact, Path pathToArtifact, String hash) throws IOException {
+        final FileFingerprint fingerprint = Files.exists(pathToArtifact) ? FileFingerprint.of(pathToArtifact) : null;
+        final String key = asKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), artifact.getVersion());
+        return new CacheRecord(key, pathToArtifact, hash, fingerprint);
+    }
+
+    private void recordAll(List<CacheRecord> newRecords) throws IOException {
+        try {
+            lock.writeLock().lock();
+
+            final StringBuilder cacheLines = new StringBuilder();
+            for (CacheRecord record : newRecords) {
+                put(record);
+                cacheLines.append(asCacheLine(record)).append('\n');
+            }
+
+            appendToJournal(cacheLines.toString(), newRecords.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void appendToJournal(String cacheLines, int recordCount) throws IOException {
+        if (journal == null) {
+            journal = FileChannel.open(cacheDir.resolve(JOURNAL_FILENAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        final ByteBuffer buffer = StandardCharsets.UTF_8.encode(cacheLines);
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        // the journal is synced in batches, an interrupted session can lose at most JOURNAL_SYNC_INTERVAL records
+        unsyncedRecords += recordCount;
+        if (unsyncedRecords >= JOURNAL_SYNC_INTERVAL) {
+            journal.force(false);
+            unsyncedRecords = 0;
+        }
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            try {
+                journal.force(false);
+            } finally {
+                journal.close();
+                journal = null;
+                unsyncedRecords = 0;
             }
         }
     }
@@ -276,4 +553,68 @@ public class ArtifactCache {
         }
         return buf.append(':').append(version).toString();
     }
+
+    private static final class CacheRecord {
+        private final String key;
+        private final Path path;
+        private final String hash;
+        private final FileFingerprint fingerprint;
+
+        private CacheRecord(String key, Path path, String hash, FileFingerprint fingerprint) {
+            this.key = key;
+            this.path = path;
+            this.hash = hash;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Cheap to obtain identity of a file - size, last modified time and file key (e.g. inode), used to detect
+     * if a cached file might have been changed since it was recorded.
+     */
+    static final class FileFingerprint {
+        private static final String NO_FILE_KEY = "-";
+
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+
+        private FileFingerprint(long size, long lastModified, String fileKey) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+        }
+
+        static FileFingerprint of(Path path) throws IOException {
+            final BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            final Object fileKey = attrs.fileKey();
+            return new FileFingerprint(attrs.size(), attrs.lastModifiedTime().toMillis(),
+                    fileKey == null ? NO_FILE_KEY : fileKey.toString().replace(CACHE_LINE_SEPARATOR, ":"));
+        }
+
+        static FileFingerprint parse(String size, String lastModified, String fileKey) throws IOException {
+            try {
+                return new FileFingerprint(Long.parseLong(size), Long.parseLong(lastModified), fileKey);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid file fingerprint, expected format is <size>::<mtime>::<fileKey>", e);
+            }
+        }
+
+        String asString() {
+            return size + CACHE_LINE_SEPARATOR + lastModified + CACHE_LINE_SEPARATOR + fileKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            FileFingerprint that = (FileFingerprint) o;
+            return size == that.size && lastModified == that.lastModified && Objects.equals(fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, fileKey);
+        }
+    }
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary index of the {@link ArtifactCache} descriptor, allowing to look up cached records without parsing the whole
+ * descriptor.
+ *
+ * The index consists of a header identifying the descriptor the index was built from (size, last modified time and CRC32),
+ * an array of {@code <GAV hash, offset>} entries sorted by the hash and a string table containing the descriptor lines.
+ * The index is memory-mapped and the entries are binary-searched on lookup.
+ *
+ * The index is only used if it matches the current descriptor, otherwise the descriptor has to be parsed.
+ */
+final class ArtifactCacheIndex {
+    private static final Logger LOG = Logger.getLogger(ArtifactCacheIndex.class);
+
+    private static final int MAGIC = 0x50525358;
+    private static final int FORMAT_VERSION = 1;
+    // magic, version, descriptor size, descriptor mtime, descriptor crc, entry count
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4;
+    // GAV hash, offset into the string table
+    private static final int ENTRY_SIZE = 8 + 4;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int stringTableStart;
+
+    private ArtifactCacheIndex(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+        this.stringTableStart = HEADER_SIZE + count * ENTRY_SIZE;
+    }
+
+    /**
+     * opens the index if it exists and matches the {@code descriptor}.
+     *
+     * @return the index or {@code null} if the index cannot be used
+     */
+    static ArtifactCacheIndex open(Path indexFile, Path descriptor) {
+        if (!Files.exists(indexFile) || !Files.exists(descriptor)) {
+            return null;
+        }
+        try {
+            final ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                if (isWindows()) {
+                    // mapped files cannot be replaced on Windows until the mapping is garbage collected
+                    buffer = ByteBuffer.allocate((int) channel.size());
+                    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                        // keep reading
+                    }
+                    buffer.flip();
+                } else {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                LOG.debugf("Ignoring artifact cache index %s with unknown format", indexFile);
+                return null;
+            }
+
+            final long size = buffer.getLong(8);
+            final long lastModified = buffer.getLong(16);
+            final long crc = buffer.getLong(24);
+            final int count = buffer.getInt(32);
+            final BasicFileAttributes attrs = Files.readAttributes(descriptor, BasicFileAttributes.class);
+            if (attrs.size() != size) {
+                LOG.debugf("Ignoring artifact cache index %s, the descriptor has changed", indexFile);
+                return null;
+            }
+            // the descriptor might have been copied with the installation, check the content
+            if (attrs.lastModifiedTime().toMillis() != lastModified && crc(descriptor) != crc) {
+                LOG.debugf("Ignoring artifact cache index %s, the descriptor has changed", indexFile);
+                return null;
+            }
+            if (count < 0 || HEADER_SIZE + (long) count * ENTRY_SIZE > buffer.limit()) {
+                LOG.debugf("Ignoring corrupted artifact cache index %s", indexFile);
+                return null;
+            }
+
+            return new ArtifactCacheIndex(buffer, count);
+        } catch (IOException e) {
+            LOG.debugf(e, "Unable to read artifact cache index %s", indexFile);
+            return null;
+        }
+    }
+
+    /**
+     * writes an index of {@code records} built from {@code descriptor}.
+     *
+     * @param indexFile - file to write the index into
+     * @param descriptor - the descriptor file, has to be already written
+     * @param records - map of record keys to the descriptor lines. Each line has to start with its key.
+     * @throws IOException
+     */
+    static void write(Path indexFile, Path descriptor, Map<String, String> records) throws IOException {
+        final List<Map.Entry<Long, String>> entries = new ArrayList<>(records.size());
+        for (Map.Entry<String, String> record : records.entrySet()) {
+            entries.add(Map.entry(hash(record.getKey()), record.getValue()));
+        }
+        entries.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+
+        final List<byte[]> lines = new ArrayList<>(entries.size());
+        int stringTableSize = 0;
+        for (Map.Entry<Long, String> entry : entries) {
+            final byte[] bytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            lines.add(bytes);
+            stringTableSize += 4 + bytes.length;
+        }
+
+        final BasicFileAttributes attrs = Files.readAttributes(descriptor, BasicFileAttributes.class);
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + entries.size() * ENTRY_SIZE + stringTableSize);
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(attrs.size())
+                .putLong(attrs.lastModifiedTime().toMillis())
+                .putLong(crc(descriptor))
+                .putInt(entries.size());
+        int offset = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            buffer.putLong(entries.get(i).getKey()).putInt(offset);
+            offset += 4 + lines.get(i).length;
+        }
+        for (byte[] line : lines) {
+            buffer.putInt(line.length).put(line);
+        }
+        buffer.flip();
+
+        final Path tempIndex = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempIndex, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(tempIndex, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * finds the descriptor line recorded for the {@code key}
+     *
+     * @return the descriptor line or {@code null} if the {@code key} is not present in the index
+     */
+    String find(String key) {
+        final String prefix = key + ArtifactCache.CACHE_LINE_SEPARATOR;
+        final long hash = hash(key);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midHash = entryHash(mid);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else if (midHash > hash) {
+                high = mid - 1;
+            } else {
+                // several keys can share the same hash, check all the neighbours
+                int first = mid;
+                while (first > 0 && entryHash(first - 1) == hash) {
+                    first--;
+                }
+                for (int i = first; i < count && entryHash(i) == hash; i++) {
+                    final String line = line(i);
+                    if (line.startsWith(prefix)) {
+                        return line;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return count;
+    }
+
+    private long entryHash(int i) {
+        return buffer.getLong(HEADER_SIZE + i * ENTRY_SIZE);
+    }
+
+    private String line(int i) {
+        final int position = stringTableStart + buffer.getInt(HEADER_SIZE + i * ENTRY_SIZE + 8);
+        final int length = buffer.getInt(position);
+        final byte[] bytes = new byte[length];
+        buffer.slice(position + 4, length).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the key
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long crc(Path file) throws IOException {
+        final CRC32 crc = new CRC32();
+        final byte[] buf = new byte[8192];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buf)) >= 0) {
+                crc.update(buf, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase(Locale.ENGLISH).contains("windows");
+    }
+}
@@ -17,42 +17,82 @@
 
 package org.wildfly.prospero.galleon;
 
+import org.apache.maven.artifact.ArtifactUtils;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.installation.InstallRequest;
 import org.eclipse.aether.installation.InstallationException;
+import org.eclipse.aether.repository.LocalArtifactRegistration;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
+import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.jboss.logging.Logger;
 import org.wildfly.channel.ArtifactCoordinate;
 import org.wildfly.channel.ArtifactTransferException;
 import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
 import org.wildfly.channel.UnresolvedMavenArtifactException;
 import org.wildfly.channel.spi.MavenVersionsResolver;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
- * Attempts to resolve artifact from local installation cache first. If that's not possible
- * falls back onto {@code fallback} {@code MavenVersionsResolver}.
+ * Attempts to resolve artifact from local installation cache first, then from the {@link SharedArtifactStore} if one
+ * is configured. If that's not possible falls back onto {@code fallback} {@code MavenVersionsResolver}.
  *
- * Installs locally resolved artifacts in LRM to allow galleon to start thin servers.
+ * Installs locally resolved artifacts in LRM to allow galleon to start thin servers. Depending on
+ * {@code LOCAL_INSTALL_MODE_PROPERTY}, the artifacts are either copied or linked into the LRM.
+ *
+ * If {@code OFFLINE_FIRST_PROPERTY} is enabled, release artifacts already present in the local Maven repository are used
+ * without contacting the remote repositories. The versions requested from this resolver have already been resolved by
+ * the channel, and a released version of an artifact never changes, so there is no need to verify them remotely.
  */
 public class CachedVersionResolver implements MavenVersionsResolver {
     private static final Logger LOG = Logger.getLogger(CachedVersionResolver.class.getName());
+    private static final int VERIFICATION_PARALLELISM = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    private static final int FALLBACK_BATCH_SIZE = 50;
+    /**
+     * defines how cached artifacts are made available in the local Maven repository, see {@link LocalInstallMode}.
+     * Defaults to {@code copy}.
+     */
+    public static final String LOCAL_INSTALL_MODE_PROPERTY = "org.wildfly.prospero.cache.install-mode";
+    /**
+     * if set to {@code true}, release artifacts found in the local Maven repository are used without checking the remote
+     * repositories. Only missing artifacts are downloaded.
+     */
+    public static final String OFFLINE_FIRST_PROPERTY = "org.wildfly.prospero.resolve.offline-first";
     private final MavenVersionsResolver fallbackResolver;
     private final RepositorySystem system;
     private final RepositorySystemSession session;
     private final ArtifactCache artifactCache;
+    private final SharedArtifactStore sharedStore;
+    private final LocalInstallMode installMode;
+    private final boolean offlineFirst;
 
     private final Logger log = Logger.getLogger(CachedVersionResolver.class);
     private final Function<ArtifactCoordinate, String> manifestVersionProvider;
@@ -60,11 +100,20 @@ public class CachedVersionResolver implements MavenVersionsResolver {
     public CachedVersionResolver(MavenVersionsResolver fallbackResolver, ArtifactCache cache, RepositorySystem system,
                                  RepositorySystemSession session,
                                  Function<ArtifactCoordinate, String> manifestVersionProvider) {
+        this(fallbackResolver, cache, null, system, session, manifestVersionProvider);
+    }
+
+    public CachedVersionResolver(MavenVersionsResolver fallbackResolver, ArtifactCache cache, SharedArtifactStore sharedStore,
+                                 RepositorySystem system, RepositorySystemSession session,
+                                 Function<ArtifactCoordinate, String> manifestVersionProvider) {
         this.fallbackResolver = fallbackResolver;
         this.system = system;
         this.session = session;
         this.artifactCache = cache;
+        this.sharedStore = sharedStore;
         this.manifestVersionProvider = manifestVersionProvider;
+        this.installMode = LocalInstallMode.fromSystemProperties();
+        this.offlineFirst = Boolean.getBoolean(OFFLINE_FIRST_PROPERTY);
     }
 
     @Override
@@ -93,7 +142,7 @@ public class CachedVersionResolver implements MavenVersionsResolver {
 
     @Override
     public File resolveArtifact(String groupId, String artifactId, String extension, String classifier, String version) throws UnresolvedMavenArtifactException {
-        Optional<File> path = artifactCache.getArtifact(groupId, artifactId, extension, classifier, version);
+        Optional<File> path = findCachedArtifact(groupId, artifactId, extension, classifier, version);
         if (path.isEmpty()) {
             return fallbackResolver.resolveArtifact(groupId, artifactId, extension, classifier, version);
         } else {
@@ -108,32 +157,151 @@ public class CachedVersionResolver implements MavenVersionsResolver {
 
     @Override
     public List<File> resolveArtifacts(List<ArtifactCoordinate> coordinates) throws UnresolvedMavenArtifactException {
-        final List<Function<List<File>, File>> res = new ArrayList<>(coordinates.size());
-        final List<ArtifactCoordinate> missingArtifacts = new ArrayList<>();
-        int index = 0;
-        for (ArtifactCoordinate coordinate : coordinates) {
-            Optional<File> path = artifactCache.getArtifact(coordinate.getGroupId(), coordinate.getArtifactId(),
-                    coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion());
-            if (path.isEmpty()) {
-                int i = index++;
-                res.add((list)->list.get(i));
-                missingArtifacts.add(coordinate);
-            } else {
-                // we need to install the artifact locally so that galleon can start embedded server to generate configurations
-                if (installArtifactLocally(coordinate.getGroupId(), coordinate.getArtifactId(),
-                        coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion(), path.get())) {
-                    res.add((list) -> path.get());
+        if (coordinates.size() <= 1) {
+            return resolveArtifactsSerially(coordinates);
+        }
+
+        // verify the cached artifacts in parallel and pass the missing artifacts on to the fallback resolver in batches,
+        // so that the local verification overlaps with the download of missing artifacts
+        final File[] resolved = new File[coordinates.size()];
+        final ExecutorService verificationExecutor = Executors.newFixedThreadPool(Math.min(VERIFICATION_PARALLELISM, coordinates.size()));
+        final ExecutorService fallbackExecutor = Executors.newSingleThreadExecutor();
+        try {
+            final CompletionService<Map.Entry<Integer, Optional<File>>> verification = new ExecutorCompletionService<>(verificationExecutor);
+            for (int i = 0; i < coordinates.size(); i++) {
+                final int index = i;
+                final ArtifactCoordinate coordinate = coordinates.get(i);
+                verification.submit(() -> Map.entry(index, findCachedArtifact(coordinate)));
+            }
+
+            final List<List<Integer>> batchIndexes = new ArrayList<>();
+            final List<Future<List<File>>> batchResults = new ArrayList<>();
+            final List<Integer> cached = new ArrayList<>();
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < coordinates.size(); i++) {
+                final Map.Entry<Integer, Optional<File>> result = verification.take().get();
+                if (result.getValue().isPresent()) {
+                    resolved[result.getKey()] = result.getValue().get();
+                    cached.add(result.getKey());
                 } else {
-                    int i = index++;
-                    res.add((list)->list.get(i));
-                    missingArtifacts.add(coordinate);
+                    missing.add(result.getKey());
+                    if (missing.size() >= FALLBACK_BATCH_SIZE) {
+                        batchIndexes.add(missing);
+                        batchResults.add(submitToFallback(fallbackExecutor, coordinates, missing));
+                        missing = new ArrayList<>();
+                    }
                 }
             }
+            // artifacts that cannot be installed locally have to be resolved by the fallback resolver
+            missing.addAll(installCachedArtifacts(coordinates, resolved, cached));
+            Collections.sort(missing);
+            if (!missing.isEmpty()) {
+                batchIndexes.add(missing);
+                batchResults.add(submitToFallback(fallbackExecutor, coordinates, missing));
+            }
+
+            UnresolvedMavenArtifactException failure = null;
+            for (int batch = 0; batch < batchIndexes.size(); batch++) {
+                try {
+                    final List<File> files = batchResults.get(batch).get();
+                    final List<Integer> indexes = batchIndexes.get(batch);
+                    for (int i = 0; i < indexes.size(); i++) {
+                        resolved[indexes.get(i)] = files.get(i);
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof UnresolvedMavenArtifactException) {
+                        failure = merge(failure, (UnresolvedMavenArtifactException) e.getCause());
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            return Arrays.asList(resolved);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while resolving artifacts", e);
+        } finally {
+            verificationExecutor.shutdownNow();
+            fallbackExecutor.shutdownNow();
+        }
+    }
+
+    private List<File> resolveArtifactsSerially(List<ArtifactCoordinate> coordinates) {
+        final File[] resolved = new File[coordinates.size()];
+        final List<Integer> cached = new ArrayList<>();
+        final List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < coordinates.size(); i++) {
+            final Optional<File> path = findCachedArtifact(coordinates.get(i));
+            if (path.isPresent()) {
+                resolved[i] = path.get();
+                cached.add(i);
+            } else {
+                missing.add(i);
+            }
         }
+        missing.addAll(installCachedArtifacts(coordinates, resolved, cached));
+        Collections.sort(missing);
 
-        final List<File> resolvedFromMaven = fallbackResolver.resolveArtifacts(missingArtifacts);
+        final List<File> resolvedFromMaven = fallbackResolver.resolveArtifacts(
+                missing.stream().map(coordinates::get).collect(Collectors.toList()));
+        for (int i = 0; i < missing.size(); i++) {
+            resolved[missing.get(i)] = resolvedFromMaven.get(i);
+        }
+        return Arrays.asList(resolved);
+    }
 
-        return res.stream().map(f->f.apply(resolvedFromMaven)).collect(Collectors.toList());
+    private Optional<File> findCachedArtifact(ArtifactCoordinate coordinate) {
+        return findCachedArtifact(coordinate.getGroupId(), coordinate.getArtifactId(),
+                coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion());
+    }
+
+    /**
+     * installs all cached artifacts in a single request.
+     *
+     * @return indexes of artifacts that could not be installed. The corresponding {@code resolved} entries are cleared.
+     */
+    private List<Integer> installCachedArtifacts(List<ArtifactCoordinate> coordinates, File[] resolved, List<Integer> cached) {
+        final List<Artifact> artifacts = new ArrayList<>(cached.size());
+        for (Integer i : cached) {
+            final ArtifactCoordinate c = coordinates.get(i);
+            artifacts.add(new DefaultArtifact(c.getGroupId(), c.getArtifactId(), c.getClassifier(), c.getExtension(), c.getVersion(), null, resolved[i]));
+        }
+        // we need to install the artifacts locally so that galleon can start embedded server to generate configurations
+        final List<Artifact> notInstalled = installArtifactsLocally(artifacts);
+
+        final List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < artifacts.size(); i++) {
+            if (notInstalled.contains(artifacts.get(i))) {
+                resolved[cached.get(i)] = null;
+                failed.add(cached.get(i));
+            }
+        }
+        return failed;
+    }
+
+    private Future<List<File>> submitToFallback(ExecutorService executor, List<ArtifactCoordinate> coordinates, List<Integer> indexes) {
+        final List<ArtifactCoordinate> batch = indexes.stream().map(coordinates::get).collect(Collectors.toList());
+        return executor.submit(() -> fallbackResolver.resolveArtifacts(batch));
+    }
+
+    private static UnresolvedMavenArtifactException merge(UnresolvedMavenArtifactException first, UnresolvedMavenArtifactException next) {
+        if (first == null) {
+            return next;
+        }
+        final Set<ArtifactCoordinate> unresolved = new HashSet<>(first.getUnresolvedArtifacts());
+        unresolved.addAll(next.getUnresolvedArtifacts());
+        final Set<Repository> repositories = new HashSet<>(first.getAttemptedRepositories());
+        repositories.addAll(next.getAttemptedRepositories());
+        return new ArtifactTransferException(first.getMessage(), first, unresolved, repositories);
     }
 
     @Override
@@ -228,15 +396,170 @@ public class CachedVersionResolver implements MavenVersionsResolver {
         return fallbackResolver.getMetadataLatestVersion(groupId, artifactId);
     }
 
+    private Optional<File> findCachedArtifact(String groupId, String artifactId, String extension, String classifier, String version) {
+        final Optional<File> cached = artifactCache.getArtifact(groupId, artifactId, extension, classifier, version);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        if (sharedStore != null) {
+            final Optional<File> stored = sharedStore.getArtifact(groupId, artifactId, extension, classifier, version);
+            if (stored.isPresent()) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Found %s:%s:%s in the shared artifact store", groupId, artifactId, version);
+                }
+                return stored;
+            }
+        }
+        if (offlineFirst) {
+            return findLocalArtifact(groupId, artifactId, extension, classifier, version);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * looks up a release artifact in the local Maven repository, regardless of which remote repository it has been
+     * downloaded from.
+     */
+    private Optional<File> findLocalArtifact(String groupId, String artifactId, String extension, String classifier, String version) {
+        if (version == null || ArtifactUtils.isSnapshot(version)) {
+            return Optional.empty();
+        }
+        final DefaultArtifact artifact = new DefaultArtifact(groupId, artifactId, classifier, extension, version);
+        final LocalArtifactResult result = session.getLocalRepositoryManager()
+                .find(session, new LocalArtifactRequest(artifact, null, null));
+        if (result.getFile() == null || !result.getFile().isFile()) {
+            return Optional.empty();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Found %s in the local repository, skipping remote resolution", artifact);
+        }
+        return Optional.of(result.getFile());
+    }
+
     private boolean installArtifactLocally(String groupId, String artifactId, String extension, String classifier, String version, File path) {
+        return installArtifactsLocally(List.of(new DefaultArtifact(groupId, artifactId, classifier, extension, version, null, path))).isEmpty();
+    }
+
+    /**
+     * makes the {@code artifacts} available in the local repository, using a single {@code InstallRequest} if possible.
+     *
+     * @return list of artifacts that could not be installed
+     */
+    private List<Artifact> installArtifactsLocally(List<Artifact> artifacts) {
+        if (offlineFirst) {
+            // artifacts found in the local repository don't need to be installed again
+            artifacts = artifacts.stream().filter(a -> !isInstalledLocally(a)).collect(Collectors.toList());
+        }
+        if (artifacts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Artifact> toInstall = artifacts;
+        if (installMode != LocalInstallMode.COPY) {
+            toInstall = new ArrayList<>();
+            for (Artifact artifact : artifacts) {
+                if (!linkArtifactLocally(artifact)) {
+                    toInstall.add(artifact);
+                }
+            }
+            if (toInstall.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
         try {
             final InstallRequest request = new InstallRequest();
-            request.setArtifacts(List.of(new DefaultArtifact(groupId, artifactId, classifier, extension, version, null, path)));
+            request.setArtifacts(toInstall);
             system.install(session, request);
-            return true;
+            return Collections.emptyList();
         } catch (InstallationException e) {
-            log.debug("Unable to install cached artifact into LRM, falling back to resolver.", e);
+            if (toInstall.size() == 1) {
+                log.debug("Unable to install cached artifact into LRM, falling back to resolver.", e);
+                return toInstall;
+            }
+        }
+
+        // find out which of the artifacts cannot be installed
+        final List<Artifact> failed = new ArrayList<>();
+        for (Artifact artifact : toInstall) {
+            try {
+                final InstallRequest request = new InstallRequest();
+                request.setArtifacts(List.of(artifact));
+                system.install(session, request);
+            } catch (InstallationException e) {
+                log.debug("Unable to install cached artifact into LRM, falling back to resolver.", e);
+                failed.add(artifact);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * checks if the {@code artifact} file is the file the local repository resolves the artifact to. The file might be
+     * located in any of the session's local repositories, including read-only shared repositories.
+     */
+    private boolean isInstalledLocally(Artifact artifact) {
+        final LocalArtifactResult result = session.getLocalRepositoryManager()
+                .find(session, new LocalArtifactRequest(artifact.setFile(null), null, null));
+        return result.getFile() != null
+                && artifact.getFile().toPath().toAbsolutePath().equals(result.getFile().toPath().toAbsolutePath());
+    }
+
+    private boolean linkArtifactLocally(Artifact artifact) {
+        final LocalRepositoryManager localRepositoryManager = session.getLocalRepositoryManager();
+        final Path source = artifact.getFile().toPath().toAbsolutePath();
+        final Path target = localRepositoryManager.getRepository().getBasedir().toPath()
+                .resolve(localRepositoryManager.getPathForLocalArtifact(artifact));
+        try {
+            if (!Files.exists(target) || !Files.isSameFile(source, target)) {
+                Files.createDirectories(target.getParent());
+                Files.deleteIfExists(target);
+                if (installMode == LocalInstallMode.HARDLINK) {
+                    Files.createLink(target, source);
+                } else {
+                    Files.createSymbolicLink(target, source);
+                }
+            }
+            // register the artifact as locally installed, the same way the RepositorySystem#install does
+            localRepositoryManager.add(session, new LocalArtifactRegistration(artifact));
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf(e, "Unable to link %s into the local repository, installing it instead.", artifact);
+            }
             return false;
         }
     }
+
+    /**
+     * Defines how the cached artifacts are made available in the local Maven repository.
+     */
+    public enum LocalInstallMode {
+        /**
+         * the cached files are copied into the local repository
+         */
+        COPY,
+        /**
+         * the cached files are hard linked into the local repository. If that's not possible, e.g. because the
+         * local repository is on a different filesystem, the files are copied.
+         */
+        HARDLINK,
+        /**
+         * the local repository contains symbolic links to the cached files. If that's not possible, the files are copied.
+         */
+        SYMLINK;
+
+        static LocalInstallMode fromSystemProperties() {
+            final String mode = System.getProperty(LOCAL_INSTALL_MODE_PROPERTY);
+            if (mode == null || mode.isBlank()) {
+                return COPY;
+            }
+            try {
+                return valueOf(mode.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                LOG.warnf("Unknown value of %s: %s, using %s", LOCAL_INSTALL_MODE_PROPERTY, mode, COPY);
+                return COPY;
+            }
+        }
+    }
 }
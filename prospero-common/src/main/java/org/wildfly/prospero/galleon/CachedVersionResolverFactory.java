@@ -50,7 +50,8 @@ public class CachedVersionResolverFactory implements MavenVersionsResolver.Facto
 
     @Override
     public MavenVersionsResolver create(Collection<Repository> repositories) {
-        return new CachedVersionResolver(factory.create(repositories), artifactCache, system, session,
+        return new CachedVersionResolver(factory.create(repositories), artifactCache,
+                SharedArtifactStore.fromSystemProperties().orElse(null), system, session,
                 (a)->getCurrentManifestVersion(a, installDir.resolve(ProsperoMetadataUtils.METADATA_DIR).resolve(ProsperoMetadataUtils.CURRENT_VERSION_FILE)));
     }
 
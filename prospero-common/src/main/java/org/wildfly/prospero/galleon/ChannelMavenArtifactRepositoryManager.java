@@ -32,6 +32,7 @@ import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.Stream;
 import org.wildfly.channel.UnresolvedMavenArtifactException;
 import org.wildfly.prospero.ProsperoLogger;
+import org.wildfly.prospero.utils.ExecutorUtils;
 
 import java.io.BufferedReader;
 import java.nio.file.FileSystem;
@@ -39,10 +40,17 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.jboss.galleon.api.MavenStreamResolver;
@@ -52,17 +60,37 @@ import org.wildfly.channel.VersionResult;
 public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager, ChannelResolvable, MavenStreamResolver{
     private static final Logger LOG = Logger.getLogger(ChannelMavenArtifactRepositoryManager.class);
     private static final String REQUIRE_CHANNEL_FOR_ALL_ARTIFACT = "org.wildfly.plugins.galleon.all.artifact.requires.channel.resolution";
+    /**
+     * maximum number of concurrently resolved chunks of artifacts in {@link #resolveAll(Collection)}. By default
+     * the artifacts are resolved sequentially.
+     */
+    public static final String RESOLVE_PARALLELISM_PROPERTY = "org.wildfly.prospero.resolve.parallelism";
+    /**
+     * maximum number of artifacts resolved in one chunk if {@code RESOLVE_PARALLELISM_PROPERTY} is greater than 1.
+     */
+    public static final String RESOLVE_CHUNK_SIZE_PROPERTY = "org.wildfly.prospero.resolve.chunk-size";
+    private static final int DEFAULT_RESOLVE_CHUNK_SIZE = 200;
     private final ChannelSession channelSession;
     private final ChannelManifest manifest;
+    private final StreamIndex manifestStreams;
+    private final ChannelResolutionPolicies resolutionPolicies;
 
     public ChannelMavenArtifactRepositoryManager(ChannelSession channelSession) {
+        this(channelSession, new ChannelResolutionPolicies());
+    }
+
+    ChannelMavenArtifactRepositoryManager(ChannelSession channelSession, ChannelResolutionPolicies resolutionPolicies) {
         this.channelSession = channelSession;
         this.manifest = null;
+        this.manifestStreams = null;
+        this.resolutionPolicies = resolutionPolicies;
     }
 
     public ChannelMavenArtifactRepositoryManager(ChannelSession channelSession, ChannelManifest manifest) {
         this.channelSession = channelSession;
         this.manifest = manifest;
+        this.manifestStreams = new StreamIndex(manifest);
+        this.resolutionPolicies = new ChannelResolutionPolicies();
     }
 
     @Override
@@ -110,6 +138,12 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
                 return true;
             }
 
+            // released feature packs are immutable, inspect each version only once
+            final Optional<Boolean> knownPolicy = resolutionPolicies.get(artifact);
+            if (knownPolicy.isPresent()) {
+                return knownPolicy.get();
+            }
+
             org.wildfly.channel.MavenArtifact mavenArtifact = channelSession.
                     resolveDirectMavenArtifact(artifact.getGroupId(),
                             artifact.getArtifactId(),
@@ -118,6 +152,7 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
                             artifact.getVersion());
             if (!Provisioning.isFeaturePack(mavenArtifact.getFile().toPath())) {
                 // Not a feature-pack
+                resolutionPolicies.put(artifact, requireChannel);
                 return requireChannel;
             }
             try (FileSystem fs = ZipUtils.newFileSystem(mavenArtifact.getFile().toPath())) {
@@ -135,13 +170,14 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
                     }
                 }
             }
+            resolutionPolicies.put(artifact, requireChannel);
         }
         return requireChannel;
     }
 
     private org.wildfly.channel.MavenArtifact resolveFromPreparedManifest(MavenArtifact artifact) throws MavenUniverseException {
         final org.wildfly.channel.MavenArtifact result;
-        Optional<DefaultArtifact> found = manifest.findStreamFor(artifact.getGroupId(), artifact.getArtifactId()).map(this::streamToArtifact);
+        Optional<DefaultArtifact> found = manifestStreams.findStreamFor(artifact.getGroupId(), artifact.getArtifactId()).map(this::streamToArtifact);
 
         if (found.isPresent()) {
             result = channelSession.resolveDirectMavenArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(),
@@ -173,12 +209,17 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
 
         if (manifest == null) {
             // split the artifacts into requiring channels and not requiring channels
-            final List<MavenArtifact> artifactsRequiringChannels = artifacts.stream()
-                    .filter(a -> requiresChannel(a))
-                    .collect(Collectors.toList());
-            final List<MavenArtifact> artifactsNotRequiringChannels = artifacts.stream()
-                    .filter(a -> !requiresChannel(a))
-                    .collect(Collectors.toList());
+            final Map<Boolean, List<MavenArtifact>> partitioned = artifacts.stream()
+                    .collect(Collectors.partitioningBy(this::requiresChannel));
+            final List<MavenArtifact> artifactsRequiringChannels = partitioned.get(true);
+            final List<MavenArtifact> artifactsNotRequiringChannels = partitioned.get(false);
+
+            final int parallelism = ExecutorUtils.getPositiveInteger(RESOLVE_PARALLELISM_PROPERTY, 1);
+            if (parallelism > 1) {
+                resolveConcurrently(artifactsRequiringChannels, artifactsNotRequiringChannels, parallelism);
+                return;
+            }
+
             // bulk resolve artifacts requiring channels - if any fail, throw exception
             MavenArtifactMapper mapper = new MavenArtifactMapper(artifactsRequiringChannels);
             List<org.wildfly.channel.MavenArtifact> channelArtifacts = channelSession.resolveMavenArtifacts(mapper.toChannelArtifacts());
@@ -211,6 +252,84 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
         }
     }
 
+    /**
+     * splits the artifacts into chunks and resolves the chunks concurrently. The artifacts requiring channels and
+     * the artifacts not requiring channels are never mixed in one chunk.
+     */
+    private void resolveConcurrently(List<MavenArtifact> artifactsRequiringChannels,
+                                     List<MavenArtifact> artifactsNotRequiringChannels,
+                                     int parallelism) throws MavenUniverseException {
+        final int chunkSize = ExecutorUtils.getPositiveInteger(RESOLVE_CHUNK_SIZE_PROPERTY, DEFAULT_RESOLVE_CHUNK_SIZE);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (List<MavenArtifact> chunk : chunks(artifactsRequiringChannels, chunkSize)) {
+            tasks.add(timed("channel", chunk.size(), () -> {
+                final MavenArtifactMapper mapper = new MavenArtifactMapper(chunk);
+                mapper.applyResolution(channelSession.resolveMavenArtifacts(mapper.toChannelArtifacts()));
+            }));
+        }
+        for (List<MavenArtifact> chunk : chunks(artifactsNotRequiringChannels, chunkSize)) {
+            tasks.add(timed("fallback", chunk.size(), () -> {
+                final MavenArtifactMapper mapper = new MavenArtifactMapper(chunk);
+                resolveArtifactsWithFallbackVersions(mapper, mapper.toChannelArtifacts());
+            }));
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executor = ExecutorUtils.newBoundedExecutor(Math.min(parallelism, tasks.size()));
+        try {
+            final List<Future<Void>> futures = new ArrayList<>(tasks.size());
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof MavenUniverseException) {
+                throw (MavenUniverseException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new MavenUniverseException(cause.getLocalizedMessage(), cause);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MavenUniverseException(ProsperoLogger.ROOT_LOGGER.unableToResolve(), e);
+        } finally {
+            // cancel remaining chunks if any of the chunks failed
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<List<MavenArtifact>> chunks(List<MavenArtifact> artifacts, int chunkSize) {
+        final List<List<MavenArtifact>> chunks = new ArrayList<>();
+        for (int i = 0; i < artifacts.size(); i += chunkSize) {
+            chunks.add(artifacts.subList(i, Math.min(i + chunkSize, artifacts.size())));
+        }
+        return chunks;
+    }
+
+    private static Callable<Void> timed(String type, int size, ResolutionTask task) {
+        return () -> {
+            final long start = System.nanoTime();
+            task.resolve();
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Resolved %s chunk of %d artifacts in %d ms", type, size,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return null;
+        };
+    }
+
+    private interface ResolutionTask {
+        void resolve() throws MavenUniverseException;
+    }
+
     private void resolveArtifactsWithFallbackVersions(MavenArtifactMapper mapperNotRequiringChannels, List<ArtifactCoordinate> coordinates) throws MavenUniverseException {
         List<org.wildfly.channel.MavenArtifact> channelArtifacts;
         try {
@@ -259,7 +378,7 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
         List<ArtifactCoordinate> coordinates = new ArrayList<>();
 
         for (ArtifactCoordinate coord : artifactCoordinates) {
-            Optional<DefaultArtifact> found = manifest.findStreamFor(coord.getGroupId(), coord.getArtifactId()).map(this::streamToArtifact);
+            Optional<DefaultArtifact> found = manifestStreams.findStreamFor(coord.getGroupId(), coord.getArtifactId()).map(this::streamToArtifact);
             if (found.isPresent()) {
                 coordinates.add(new ArtifactCoordinate(
                         coord.getGroupId(),
@@ -285,6 +404,40 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
         return new DefaultArtifact(s.getGroupId(), s.getArtifactId(), "jar", s.getVersion());
     }
 
+    /**
+     * Index of the manifest streams by {@code groupId:artifactId}, built once per manifest. Matches streams the same way
+     * as {@link ChannelManifest#findStreamFor(String, String)} - a stream with matching {@code artifactId} takes
+     * precedence over a wildcard ({@code *}) stream of the same {@code groupId}.
+     */
+    private static final class StreamIndex {
+        private static final String WILDCARD = "*";
+
+        private final Map<String, Stream> streams;
+        private final Map<String, Stream> wildcardStreams;
+
+        private StreamIndex(ChannelManifest manifest) {
+            final Map<String, Stream> streams = new HashMap<>();
+            final Map<String, Stream> wildcardStreams = new HashMap<>();
+            for (Stream stream : manifest.getStreams()) {
+                if (WILDCARD.equals(stream.getArtifactId())) {
+                    wildcardStreams.putIfAbsent(stream.getGroupId(), stream);
+                } else {
+                    streams.putIfAbsent(stream.getGroupId() + ":" + stream.getArtifactId(), stream);
+                }
+            }
+            this.streams = Map.copyOf(streams);
+            this.wildcardStreams = Map.copyOf(wildcardStreams);
+        }
+
+        private Optional<Stream> findStreamFor(String groupId, String artifactId) {
+            final Stream stream = streams.get(groupId + ":" + artifactId);
+            if (stream != null) {
+                return Optional.of(stream);
+            }
+            return Optional.ofNullable(wildcardStreams.get(groupId));
+        }
+    }
+
     @Override
     public boolean isResolved(MavenArtifact artifact) throws MavenUniverseException {
         throw new UnsupportedOperationException("Not yet implemented");
@@ -342,6 +495,15 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
         throw new UnsupportedOperationException("Not yet implemented");
     }
 
+    /**
+     * persists the channel resolution policies of the feature packs inspected during this session
+     *
+     * @param installationDir - installation to store the policies in
+     */
+    public void storeResolutionPolicies(Path installationDir) {
+        resolutionPolicies.save(installationDir);
+    }
+
     public ChannelManifest resolvedChannel() {
         return channelSession.getRecordedChannel();
     }
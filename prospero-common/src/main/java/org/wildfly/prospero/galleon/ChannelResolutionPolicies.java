@@ -0,0 +1,144 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.apache.maven.artifact.ArtifactUtils;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records whether a feature pack {@code GAV} requires its artifacts to be resolved from channels, as defined in
+ * the feature pack's {@code resources/wildfly/wildfly-channel.properties}.
+ *
+ * A released feature pack cannot change, so the policy has to be read only once per version. Snapshot feature packs
+ * can be re-deployed with different content, so their policies are never recorded. The policies are kept
+ * for the duration of the provisioning session and persisted in {@code ArtifactCache.CACHE_FOLDER}/{@code POLICIES_FILENAME}
+ * of the installation, so that the feature packs don't need to be inspected again in the following sessions.
+ */
+final class ChannelResolutionPolicies {
+    private static final Logger LOG = Logger.getLogger(ChannelResolutionPolicies.class);
+
+    static final String POLICIES_FILENAME = "channel-resolution.properties";
+
+    private final Map<String, Boolean> policies = new ConcurrentHashMap<>();
+    private volatile boolean modified = false;
+    private Path loadedFrom;
+
+    /**
+     * creates an empty session cache
+     */
+    ChannelResolutionPolicies() {
+    }
+
+    /**
+     * loads policies persisted in the {@code installationDir}. If the file cannot be read, the cache starts empty.
+     */
+    static ChannelResolutionPolicies load(Path installationDir) {
+        final ChannelResolutionPolicies cache = new ChannelResolutionPolicies();
+        final Path file = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(POLICIES_FILENAME);
+        if (Files.exists(file)) {
+            final Properties props = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(reader);
+                for (String key : props.stringPropertyNames()) {
+                    cache.policies.put(key, Boolean.parseBoolean(props.getProperty(key)));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.debugf(e, "Unable to read channel resolution policies from %s", file);
+                cache.policies.clear();
+            }
+        }
+        cache.loadedFrom = installationDir.toAbsolutePath();
+        return cache;
+    }
+
+    /**
+     * persists the policies in the {@code installationDir}. The policies are only written if the installation has
+     * been provisioned by Prospero and if they are not already stored there.
+     */
+    void save(Path installationDir) {
+        if (!modified && installationDir.toAbsolutePath().equals(loadedFrom)) {
+            return;
+        }
+        if (!Files.isDirectory(installationDir.resolve(ArtifactCache.CACHE_FOLDER).getParent())) {
+            return;
+        }
+        final Path cacheDir = installationDir.resolve(ArtifactCache.CACHE_FOLDER);
+        final Path file = cacheDir.resolve(POLICIES_FILENAME);
+        try {
+            Files.createDirectories(cacheDir);
+            final Path temp = Files.createTempFile(cacheDir, POLICIES_FILENAME, ".tmp");
+            try {
+                final Properties props = new Properties();
+                policies.forEach((k, v) -> props.setProperty(k, v.toString()));
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    props.store(writer, "Channel resolution policies of feature packs");
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            modified = false;
+            loadedFrom = installationDir.toAbsolutePath();
+        } catch (IOException e) {
+            LOG.debugf(e, "Unable to store channel resolution policies in %s", file);
+        }
+    }
+
+    Optional<Boolean> get(MavenArtifact artifact) {
+        if (isSnapshot(artifact)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(policies.get(asKey(artifact)));
+    }
+
+    void put(MavenArtifact artifact, boolean requireChannel) {
+        if (isSnapshot(artifact)) {
+            return;
+        }
+        final Boolean previous = policies.put(asKey(artifact), requireChannel);
+        if (previous == null || previous != requireChannel) {
+            modified = true;
+        }
+    }
+
+    int size() {
+        return policies.size();
+    }
+
+    private static boolean isSnapshot(MavenArtifact artifact) {
+        return ArtifactUtils.isSnapshot(artifact.getVersion());
+    }
+
+    private static String asKey(MavenArtifact artifact) {
+        return String.join(":", artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(),
+                artifact.getClassifier() == null ? "" : artifact.getClassifier(), artifact.getVersion());
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.wildfly.prospero.galleon;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.aether.transfer.AbstractTransferListener;
 import org.eclipse.aether.transfer.TransferEvent;
 import org.jboss.galleon.progresstracking.ProgressCallback;
@@ -28,6 +29,7 @@ import org.wildfly.prospero.api.ProvisioningProgressEvent;
 
 import java.io.File;
 import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
 
 import static org.wildfly.prospero.galleon.GalleonEnvironment.TRACK_JB_ARTIFACTS_RESOLVE;
 import static org.wildfly.prospero.galleon.GalleonEnvironment.TRACK_RESOLVING_VERSIONS;
@@ -36,7 +38,9 @@ import static org.wildfly.prospero.galleon.GalleonEnvironment.TRACK_RESOLVING_VE
  * Adapter combining Galleon ProgressCallback and Maven TransferListener to track number of already downloaded artifacts.
  *
  * It uses Galleon's TRACK_JB_ARTIFACTS_RESOLVE event to find number of artifacts and Maven's transferSucceeded to update completed
- * count.
+ * count. The aggregate size and throughput of the downloads is logged when the phase completes.
+ *
+ * The Maven resolver can download several artifacts in parallel, so the transfer events can be received concurrently.
  *
  * TODO: the total includes artifacts cached locally - find a way to exclude those or update when they are resolved.
  */
@@ -48,15 +52,21 @@ class DownloadsCallbackAdapter extends AbstractTransferListener implements Progr
     private long processed;
     private long versionUpdates;
     private boolean currentPhase = false;
+    private long transfers;
+    private long transferredBytes;
+    private long phaseStart;
 
     public DownloadsCallbackAdapter(Console console) {
         this.console = console;
     }
 
     @Override
-    public void starting(ProgressTracker<MavenArtifact> tracker) {
+    public synchronized void starting(ProgressTracker<MavenArtifact> tracker) {
         this.totalVolume = tracker.getTotalVolume();
         this.processed = 0;
+        this.transfers = 0;
+        this.transferredBytes = 0;
+        this.phaseStart = System.nanoTime();
         this.currentPhase = true;
         this.resolvedVersionKeys = new HashSet<>();
         final ProvisioningProgressEvent progress = new ProvisioningProgressEvent(TRACK_JB_ARTIFACTS_RESOLVE, ProvisioningProgressEvent.EventType.STARTING,
@@ -73,13 +83,14 @@ class DownloadsCallbackAdapter extends AbstractTransferListener implements Progr
     }
 
     @Override
-    public void complete(ProgressTracker<MavenArtifact> tracker) {
+    public synchronized void complete(ProgressTracker<MavenArtifact> tracker) {
         final ProvisioningProgressEvent progress = new ProvisioningProgressEvent(TRACK_JB_ARTIFACTS_RESOLVE, ProvisioningProgressEvent.EventType.COMPLETED,
                 tracker.getProcessedVolume(), tracker.getTotalVolume());
         if (console != null) {
             this.console.progressUpdate(progress);
         }
         ProsperoLogger.ROOT_LOGGER.completedPhase("download artifacts", "" + processed);
+        logThroughput();
         this.totalVolume = 0;
         this.processed = 0;
         this.currentPhase = false;
@@ -87,10 +98,12 @@ class DownloadsCallbackAdapter extends AbstractTransferListener implements Progr
     }
 
     @Override
-    public void transferSucceeded(TransferEvent event) {
+    public synchronized void transferSucceeded(TransferEvent event) {
         if (!currentPhase) {
             return;
         }
+        transfers++;
+        transferredBytes += event.getTransferredBytes();
 
         String item = event.getResource().getResourceName();
         if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
@@ -117,4 +130,14 @@ class DownloadsCallbackAdapter extends AbstractTransferListener implements Progr
             }
         }
     }
+
+    private void logThroughput() {
+        if (transfers == 0) {
+            return;
+        }
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStart));
+        final long bytesPerSecond = transferredBytes * 1000 / millis;
+        ProsperoLogger.ROOT_LOGGER.downloadThroughput(transfers, FileUtils.byteCountToDisplaySize(transferredBytes), millis,
+                FileUtils.byteCountToDisplaySize(bytesPerSecond));
+    }
 }
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.diff.FsEntry;
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
+import org.wildfly.prospero.utils.ExecutorUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Finds changes made to a provisioned installation by comparing the hashes recorded by Galleon in {@code .galleon/hashes}
+ * with the files on disk.
+ *
+ * Produces the same {@code FsDiff} as {@code Provisioning#getFsDiff()}, but doesn't need to load the provisioning
+ * configuration or resolve the feature packs. The files are hashed concurrently and the hashes are cached in
+ * {@code .installation/prospero-hashes.cache} together with the size, modification time and file key of each file. Files
+ * that were not modified since the previous run are not hashed again. The cache is kept outside of the {@code .galleon}
+ * folder, because that folder is replaced when a candidate is applied. The file key makes sure records of files in
+ * another tree never match.
+ */
+public class FsDiffCalculator {
+    private static final Logger LOG = Logger.getLogger(FsDiffCalculator.class);
+
+    /**
+     * maximum number of files hashed at the same time. Defaults to the number of available processors.
+     */
+    public static final String PARALLELISM_PROPERTY = "org.wildfly.prospero.diff.parallelism";
+    /**
+     * name of the hash cache file in the installation metadata folder
+     */
+    public static final String HASH_CACHE_FILE = "prospero-hashes.cache";
+    private static final String HASH_CACHE_VERSION = "v2";
+    private static final String NO_FILE_KEY = "-";
+    // files modified within this interval before the cache was written might have changed without changing the mtime
+    private static final long TIMESTAMP_GRANULARITY_MILLIS = 2000;
+    private static final String GLNEW_SUFFIX = ".glnew";
+
+    private final Path root;
+    private final int parallelism;
+
+    public FsDiffCalculator(Path root) {
+        this(root, ExecutorUtils.getPositiveInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    FsDiffCalculator(Path root, int parallelism) {
+        this.root = root.toAbsolutePath();
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * checks if Galleon recorded hashes of the provisioned files in the installation.
+     */
+    public static boolean hasRecordedHashes(Path root) {
+        return Files.isDirectory(hashesDir(root)) && Files.exists(root.resolve(Constants.PROVISIONED_STATE_DIR)
+                .resolve(Constants.PROVISIONING_XML));
+    }
+
+    /**
+     * compares the files in the installation with the hashes recorded by Galleon
+     *
+     * @return changes made to the installation since it was provisioned
+     * @throws ProvisioningException if the recorded hashes or the installation cannot be read
+     */
+    public FsDiff calculate() throws ProvisioningException {
+        final FsEntry recorded = readRecordedHashes(root);
+
+        final long scanStart = System.currentTimeMillis();
+        final Path cacheFile = root.resolve(ProsperoMetadataUtils.METADATA_DIR).resolve(HASH_CACHE_FILE);
+        final Map<String, CachedHash> cache = readCache(cacheFile);
+        final List<StatFsEntry> files = new ArrayList<>();
+        final FsEntry current = readInstallation(files, cacheFile);
+
+        final List<StatFsEntry> modified = new ArrayList<>();
+        for (StatFsEntry file : files) {
+            final CachedHash cached = cache.get(file.getRelativePath());
+            if (cached != null && cached.size == file.size && cached.mtime == file.mtime && cached.fileKey.equals(file.fileKey)) {
+                file.hash = cached.hash;
+            } else {
+                modified.add(file);
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Hashing %d of %d files in %s", modified.size(), files.size(), root);
+        }
+        hashAll(modified);
+
+        writeCache(cacheFile, files, scanStart);
+        return FsDiff.diff(recorded, current);
+    }
+
+    /**
+     * reads the hashes recorded by Galleon when the installation was provisioned. The files are not read, so the hashes
+     * reflect the provisioned state even if the installation was modified since.
+     *
+     * @param root - installation with recorded hashes, see {@link #hasRecordedHashes(Path)}
+     * @return root entry of the recorded files
+     * @throws ProvisioningException if the recorded hashes cannot be read
+     */
+    public static FsEntry readRecordedHashes(Path root) throws ProvisioningException {
+        // mirrors the format written by Galleon - each directory has a "hashes" file with pairs of lines: file name and hash
+        final FsEntry recorded = new FsEntry(null, hashesDir(root));
+        final Deque<FsEntry> dirs = new ArrayDeque<>();
+        dirs.add(recorded);
+        while (!dirs.isEmpty()) {
+            final FsEntry dir = dirs.poll();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir.getPath())) {
+                for (Path child : children) {
+                    if (child.getFileName().toString().equals(Constants.HASHES)) {
+                        try (BufferedReader reader = Files.newBufferedReader(child, StandardCharsets.UTF_8)) {
+                            String name;
+                            while ((name = reader.readLine()) != null) {
+                                new FsEntry(dir, name, HashUtils.hexStringToByteArray(reader.readLine()));
+                            }
+                        }
+                    } else {
+                        dirs.add(new FsEntry(dir, child));
+                    }
+                }
+            } catch (IOException e) {
+                throw new ProvisioningException("Failed to read hashes", e);
+            }
+        }
+        return recorded;
+    }
+
+    private FsEntry readInstallation(List<StatFsEntry> files, Path cacheFile) throws ProvisioningException {
+        final FsEntry current = new FsEntry(null, root);
+        final Deque<FsEntry> dirs = new ArrayDeque<>();
+        dirs.add(current);
+        while (!dirs.isEmpty()) {
+            final FsEntry dir = dirs.poll();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir.getPath())) {
+                for (Path child : children) {
+                    final String name = child.getFileName().toString();
+                    if ((dir == current && name.equals(Constants.PROVISIONED_STATE_DIR)) || name.endsWith(GLNEW_SUFFIX)
+                            || child.equals(cacheFile)) {
+                        continue;
+                    }
+                    final BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                    if (attrs.isDirectory()) {
+                        final FsEntry entry = new FsEntry(dir, child);
+                        if (Files.isReadable(child)) {
+                            dirs.add(entry);
+                        }
+                    } else {
+                        files.add(new StatFsEntry(dir, child, attrs.size(), attrs.lastModifiedTime().toMillis(),
+                                fileKey(attrs)));
+                    }
+                }
+            } catch (IOException e) {
+                throw new ProvisioningException("Failed to read the installation " + root, e);
+            }
+        }
+        return current;
+    }
+
+    private void hashAll(List<StatFsEntry> files) throws ProvisioningException {
+        if (parallelism == 1 || files.size() < 2) {
+            for (StatFsEntry file : files) {
+                file.hash = hash(file.getPath());
+            }
+            return;
+        }
+
+        final ExecutorService executor = ExecutorUtils.newBoundedExecutor(parallelism);
+        try {
+            final List<Future<byte[]>> hashes = new ArrayList<>(files.size());
+            for (StatFsEntry file : files) {
+                hashes.add(executor.submit(() -> hash(file.getPath())));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                files.get(i).hash = hashes.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProvisioningException) {
+                throw (ProvisioningException) e.getCause();
+            }
+            throw new ProvisioningException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] hash(Path file) throws ProvisioningException {
+        try {
+            return HashUtils.hashPath(file);
+        } catch (IOException e) {
+            throw new ProvisioningException("Failed to hash " + file, e);
+        }
+    }
+
+    private static Map<String, CachedHash> readCache(Path cacheFile) {
+        final Map<String, CachedHash> cache = new HashMap<>();
+        if (!Files.exists(cacheFile)) {
+            return cache;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            final String[] header = String.valueOf(reader.readLine()).split("\t");
+            if (header.length != 2 || !header[0].equals(HASH_CACHE_VERSION)) {
+                return cache;
+            }
+            final long cacheTime = Long.parseLong(header[1]);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] record = line.split("\t", 5);
+                if (record.length != 5) {
+                    continue;
+                }
+                final long mtime = Long.parseLong(record[1]);
+                // racily clean files could have been modified after being hashed, don't trust their hashes
+                if (mtime < cacheTime - TIMESTAMP_GRANULARITY_MILLIS) {
+                    cache.put(record[4], new CachedHash(Long.parseLong(record[0]), mtime, record[2],
+                            HashUtils.hexStringToByteArray(record[3])));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debugf(e, "Ignoring invalid hash cache %s", cacheFile);
+            cache.clear();
+        }
+        return cache;
+    }
+
+    private static void writeCache(Path cacheFile, List<StatFsEntry> files, long scanStart) {
+        if (!Files.isDirectory(cacheFile.getParent())) {
+            // not an installation managed by Prospero
+            return;
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(cacheFile.getParent(), HASH_CACHE_FILE, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(HASH_CACHE_VERSION + "\t" + scanStart);
+                writer.newLine();
+                for (StatFsEntry file : files) {
+                    writer.write(file.size + "\t" + file.mtime + "\t" + file.fileKey + "\t"
+                            + HashUtils.bytesToHexString(file.hash) + "\t" + file.getRelativePath());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the cache is only an optimization, the installation might be read-only
+            LOG.debugf(e, "Unable to write hash cache %s", cacheFile);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    LOG.debugf(e, "Unable to remove %s", temp);
+                }
+            }
+        }
+    }
+
+    private static String fileKey(BasicFileAttributes attrs) {
+        final Object fileKey = attrs.fileKey();
+        return fileKey == null ? NO_FILE_KEY : fileKey.toString().replace('\t', ' ').replace('\n', ' ');
+    }
+
+    private static Path hashesDir(Path root) {
+        return root.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASHES);
+    }
+
+    /**
+     * file entry with a hash computed up-front, or read from the cache
+     */
+    private static final class StatFsEntry extends FsEntry {
+        private final long size;
+        private final long mtime;
+        private final String fileKey;
+        private byte[] hash;
+
+        StatFsEntry(FsEntry parent, Path path, long size, long mtime, String fileKey) {
+            super(parent, path);
+            this.size = size;
+            this.mtime = mtime;
+            this.fileKey = fileKey;
+        }
+
+        @Override
+        public byte[] getHash() throws ProvisioningException {
+            if (hash == null) {
+                hash = super.getHash();
+            }
+            return hash;
+        }
+    }
+
+    private static final class CachedHash {
+        private final long size;
+        private final long mtime;
+        private final String fileKey;
+        private final byte[] hash;
+
+        CachedHash(long size, long mtime, String fileKey, byte[] hash) {
+            this.size = size;
+            this.mtime = mtime;
+            this.fileKey = fileKey;
+            this.hash = hash;
+        }
+    }
+}
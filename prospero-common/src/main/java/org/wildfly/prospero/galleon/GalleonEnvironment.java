@@ -77,12 +77,14 @@ public class GalleonEnvironment implements AutoCloseable {
     private final MavenRepoManager repositoryManager;
     private final ChannelSession channelSession;
     private final List<Channel> channels;
+    private final Path installDir;
     private Path restoreManifestPath = null;
 
     private boolean resetGalleonLineEndings = true;
 
     private GalleonEnvironment(Builder builder) throws ProvisioningException, MetadataException, ChannelDefinitionException, UnresolvedChannelMetadataException {
         Optional<Console> console = Optional.ofNullable(builder.console);
+        installDir = builder.installDir;
         Optional<ChannelManifest> restoreManifest = Optional.ofNullable(builder.manifest);
         if (restoreManifest.isPresent()) {
             if (LOG.isDebugEnabled()) {
@@ -124,7 +126,8 @@ public class GalleonEnvironment implements AutoCloseable {
             repositoryManager = new MavenArtifactDirectResolverRepositoryManager(channelSession);
         } else {
             if (restoreManifest.isEmpty()) {
-                repositoryManager = new ChannelMavenArtifactRepositoryManager(channelSession);
+                repositoryManager = new ChannelMavenArtifactRepositoryManager(channelSession,
+                        ChannelResolutionPolicies.load(sourceServerPath));
             } else {
                 repositoryManager = new ChannelMavenArtifactRepositoryManager(channelSession, restoreManifest.get());
             }
@@ -258,6 +261,9 @@ public class GalleonEnvironment implements AutoCloseable {
         if (restoreManifestPath != null) {
             FileUtils.deleteQuietly(restoreManifestPath.toFile());
         }
+        if (repositoryManager instanceof ChannelMavenArtifactRepositoryManager) {
+            ((ChannelMavenArtifactRepositoryManager) repositoryManager).storeResolutionPolicies(installDir);
+        }
         provisioning.close();
     }
 
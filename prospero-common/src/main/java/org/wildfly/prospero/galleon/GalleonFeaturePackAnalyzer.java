@@ -32,6 +32,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -67,12 +68,13 @@ public class GalleonFeaturePackAnalyzer {
 
         try (GalleonEnvironment galleonEnv = galleonEnvWithFpMapper(tempInstallationPath, installedDir, fps, provisioningConfig)) {
             final ArtifactCache artifactCache = ArtifactCache.getInstance(installedDir);
+            final List<MavenArtifact> artifacts = new ArrayList<>();
             try (Provisioning pm = galleonEnv.getProvisioning()) {
                 final Set<String> pluginGavs = pm.getOrderedFeaturePackPluginLocations(provisioningConfig);
                 for (String pluginGav : pluginGavs) {
                     final String[] pluginLoc = pluginGav.split(":");
                     final MavenArtifact jar = galleonEnv.getChannelSession().resolveMavenArtifact(pluginLoc[0], pluginLoc[1], "jar", null, null);
-                    artifactCache.cache(jar);
+                    artifacts.add(jar);
                 }
             }
 
@@ -80,20 +82,23 @@ public class GalleonFeaturePackAnalyzer {
                 // resolve the artifact
                 final String[] fpLoc = fp.split(":");
                 final MavenArtifact mavenArtifact = galleonEnv.getChannelSession().resolveMavenArtifact(fpLoc[0], fpLoc[1], "zip", null, null);
-                // cache it in the
-                artifactCache.cache(mavenArtifact);
+                artifacts.add(mavenArtifact);
             }
 
             try {
                 // cache wildfly-config-gen as it's not added in galleon-plugin - TODO: remove when fixed in galleon-plugins
                 final MavenArtifact mavenArtifact = galleonEnv.getChannelSession().resolveMavenArtifact("org.wildfly.galleon-plugins", "wildfly-config-gen", "jar", null, null);
-                artifactCache.cache(mavenArtifact);
+                artifacts.add(mavenArtifact);
             } catch (UnresolvedMavenArtifactException e) {
                 // ignore - wildfly-config-gen has not been defined
                 LOG.isDebugEnabled();
                 LOG.debug("Unable to find wildfly-config-get artifact", e);
             }
 
+            // cache all the artifacts in the installation
+            artifactCache.cacheAll(artifacts);
+            artifactCache.compact();
+
             updateHashes(installedDir);
         } finally {
             FileUtils.deleteQuietly(tempInstallationPath.toFile());
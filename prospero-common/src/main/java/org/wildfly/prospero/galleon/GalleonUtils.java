@@ -298,6 +298,10 @@ public class GalleonUtils {
      * @throws OperationException
      */
     public static FsDiff findChanges(Path root) throws ProvisioningException, OperationException {
+        if (FsDiffCalculator.hasRecordedHashes(root)) {
+            return new FsDiffCalculator(root).calculate();
+        }
+
         // offline is enough - we just need to read the configuration
         final MavenOptions mavenOptions = MavenOptions.builder()
                 .setOffline(true)
@@ -31,7 +31,7 @@ import java.util.Optional;
 
 import static org.wildfly.channel.maven.VersionResolverFactory.DEFAULT_REPOSITORY_POLICY;
 
-class MavenProxyHandler {
+public class MavenProxyHandler {
     private static final Logger LOG = Logger.getLogger(GalleonEnvironment.class.getName());
 
     public static RemoteRepository addProxySettings(Repository r) {
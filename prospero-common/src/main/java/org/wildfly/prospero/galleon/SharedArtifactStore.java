@@ -0,0 +1,198 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.MavenArtifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Host-wide, content-addressed store of artifacts shared between installations.
+ *
+ * The store is enabled by setting {@code SHARED_STORE_PROPERTY} to a directory. The content of the artifacts is stored
+ * in {@code <store>/content/<first two characters of SHA-1>/<SHA-1>} and the SHA-1 of each stored {@code GAV} is recorded
+ * in {@code <store>/gavs/<groupId>/<artifactId>/<artifactId>-<version>[-<classifier>].<extension>}.
+ *
+ * The {@link ArtifactCache} of each installation links cached files to the stored content, so that the same artifacts
+ * are not duplicated on disk, and {@link CachedVersionResolver} uses the store to resolve artifacts cached by other
+ * installations.
+ *
+ * All files are written to a temporary file and moved into place, so the store can be used by concurrent processes.
+ */
+public class SharedArtifactStore {
+    private static final Logger LOG = Logger.getLogger(SharedArtifactStore.class);
+
+    /**
+     * location of the shared store. If not set, the shared store is not used.
+     */
+    public static final String SHARED_STORE_PROPERTY = "org.wildfly.prospero.cache.shared-store";
+    static final String CONTENT_FOLDER = "content";
+    static final String GAVS_FOLDER = "gavs";
+
+    private final Path storeDir;
+
+    /**
+     * returns the shared store configured by {@code SHARED_STORE_PROPERTY}
+     *
+     * @return empty {@code Optional} if the shared store is not configured
+     */
+    public static Optional<SharedArtifactStore> fromSystemProperties() {
+        final String location = System.getProperty(SHARED_STORE_PROPERTY);
+        if (location == null || location.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SharedArtifactStore(Path.of(location)));
+    }
+
+    public SharedArtifactStore(Path storeDir) {
+        this.storeDir = storeDir.toAbsolutePath();
+    }
+
+    /**
+     * adds the content of the {@code artifact} to the store, unless it is already present, and records the artifact's
+     * {@code GAV}. Stored content that doesn't match the {@code hash} is replaced.
+     *
+     * @param artifact - resolved artifact to be stored
+     * @param hash - SHA-1 hash of the artifact's file
+     * @return path to the stored content
+     * @throws IOException
+     */
+    public Path store(MavenArtifact artifact, String hash) throws IOException {
+        final Path content = contentPath(hash);
+        if (!isStored(content, artifact.getFile().toPath(), hash)) {
+            Files.createDirectories(content.getParent());
+            final Path temp = Files.createTempFile(content.getParent(), hash, ".tmp");
+            try {
+                Files.copy(artifact.getFile().toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, content, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        final Optional<Path> gavRecord = gavPath(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(),
+                artifact.getClassifier(), artifact.getVersion());
+        if (gavRecord.isPresent()) {
+            Files.createDirectories(gavRecord.get().getParent());
+            final Path temp = Files.createTempFile(gavRecord.get().getParent(), gavRecord.get().getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temp, hash, StandardCharsets.UTF_8);
+                Files.move(temp, gavRecord.get(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return content;
+    }
+
+    // the stored content might have been truncated or modified through a link in one of the installations
+    private static boolean isStored(Path content, Path source, String hash) throws IOException {
+        if (!Files.exists(content)) {
+            return false;
+        }
+        if (Files.size(content) == Files.size(source) && hash.equals(HashUtils.hashFile(content))) {
+            return true;
+        }
+        LOG.debug("Replacing stored content not matching the hash " + content);
+        return false;
+    }
+
+    /**
+     * replaces {@code target} with a hard link to the {@code content}. If the link cannot be created, e.g. because
+     * the {@code target} is on a different filesystem, the {@code content} is copied instead.
+     *
+     * @param content - path to the stored content
+     * @param target - file to be created
+     * @throws IOException
+     */
+    public void link(Path content, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, content);
+        } catch (IOException | UnsupportedOperationException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf(e, "Unable to link %s to %s, copying the file instead", target, content);
+            }
+            Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * finds a stored file associated with the {@code GAV}. The file is only matched if its content still matches
+     * the recorded hash.
+     *
+     * @return empty {@code Optional} if the file has not been matched, otherwise the matching {@code File}
+     */
+    public Optional<File> getArtifact(String groupId, String artifactId, String extension, String classifier, String version) {
+        final Optional<Path> gavRecord = gavPath(groupId, artifactId, extension, classifier, version);
+        if (gavRecord.isEmpty() || !Files.exists(gavRecord.get())) {
+            return Optional.empty();
+        }
+
+        try {
+            final String hash = Files.readString(gavRecord.get(), StandardCharsets.UTF_8).trim();
+            final Path content = contentPath(hash);
+            if (!Files.exists(content)) {
+                return Optional.empty();
+            }
+            // the store is shared with other installations, always verify the content
+            if (!hash.equals(HashUtils.hashFile(content))) {
+                LOG.debug("Hashes don't match for stored " + gavRecord.get());
+                return Optional.empty();
+            }
+            return Optional.of(content.toFile());
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.debug("Unable to read stored artifact " + gavRecord.get(), e);
+            return Optional.empty();
+        }
+    }
+
+    private Path contentPath(String hash) {
+        if (hash.length() < 3 || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Invalid SHA-1 hash: " + hash);
+        }
+        return storeDir.resolve(CONTENT_FOLDER).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Optional<Path> gavPath(String groupId, String artifactId, String extension, String classifier, String version) {
+        if (!isValidSegment(groupId) || !isValidSegment(artifactId) || !isValidSegment(extension) || !isValidSegment(version)
+                || (classifier != null && !classifier.isEmpty() && !isValidSegment(classifier))) {
+            return Optional.empty();
+        }
+        final StringBuilder fileName = new StringBuilder(artifactId).append('-').append(version);
+        if (classifier != null && !classifier.isEmpty()) {
+            fileName.append('-').append(classifier);
+        }
+        fileName.append('.').append(extension);
+        return Optional.of(storeDir.resolve(GAVS_FOLDER).resolve(groupId).resolve(artifactId).resolve(fileName.toString()));
+    }
+
+    private static boolean isValidSegment(String segment) {
+        return segment != null && !segment.isEmpty() && !segment.equals(".") && !segment.equals("..")
+                && segment.indexOf('/') < 0 && segment.indexOf('\\') < 0;
+    }
+}
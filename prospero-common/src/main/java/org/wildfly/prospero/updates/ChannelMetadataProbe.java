@@ -0,0 +1,190 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.updates;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.MetadataRequest;
+import org.eclipse.aether.resolution.MetadataResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.prospero.galleon.MavenProxyHandler;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Checks if a channel metadata file (e.g. {@code maven-metadata.xml} of a manifest or a manifest URL) has changed since
+ * it was last seen.
+ *
+ * Files in Maven repositories are resolved with the {@code RepositorySystem}, using the same repository mapping and
+ * the session's mirror, proxy, authentication and connector settings as the channel resolution. The metadata is always
+ * re-downloaded, and the SHA-1 of the resolved file is compared with the previously seen content. Manifests referenced
+ * by URL are read the same way the channel reads them.
+ *
+ * If the file cannot be checked, e.g. because the repository is not reachable, the state is unknown and the caller
+ * has to resolve the channels.
+ */
+final class ChannelMetadataProbe {
+    private static final Logger LOG = Logger.getLogger(ChannelMetadataProbe.class);
+
+    static final String MISSING = "missing";
+    private static final String MAVEN_METADATA_FILE = "maven-metadata.xml";
+
+    private final RepositorySystem system;
+    private final RepositorySystemSession session;
+
+    ChannelMetadataProbe(RepositorySystem system, RepositorySystemSession session) {
+        this.system = system;
+        final DefaultRepositorySystemSession probeSession = new DefaultRepositorySystemSession(session);
+        // the metadata has to be checked even if it was recently downloaded
+        probeSession.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS);
+        this.session = probeSession;
+    }
+
+    /**
+     * checks the state of a channel metadata file.
+     *
+     * @param url - location of the file, used to identify the file
+     * @param coordinate - coordinate of the manifest or blocklist
+     * @param repository - Maven repository containing the file or {@code null} if the file is referenced by its URL
+     * @return current state of the file, or empty {@code Optional} if the state cannot be determined
+     */
+    Optional<State> probe(String url, ChannelMetadataCoordinate coordinate, Repository repository) {
+        try {
+            if (repository == null) {
+                return Optional.of(probeUrl(url));
+            }
+            final RemoteRepository remote = system.newResolutionRepositories(session,
+                    List.of(MavenProxyHandler.addProxySettings(repository))).get(0);
+            if (coordinate.getVersion() == null) {
+                return probeMetadata(url, coordinate, remote);
+            } else {
+                return probeArtifact(url, coordinate, remote);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debugf(e, "Unable to check %s", url);
+            return Optional.empty();
+        }
+    }
+
+    private static State probeUrl(String url) throws IOException {
+        try (InputStream is = new URL(url).openStream()) {
+            return new State(url, sha1(is));
+        } catch (FileNotFoundException e) {
+            return new State(url, MISSING);
+        }
+    }
+
+    private Optional<State> probeMetadata(String url, ChannelMetadataCoordinate coordinate, RemoteRepository remote) throws IOException {
+        final Metadata metadata = new DefaultMetadata(coordinate.getGroupId(), coordinate.getArtifactId(),
+                MAVEN_METADATA_FILE, Metadata.Nature.RELEASE_OR_SNAPSHOT);
+        final MetadataResult result = system.resolveMetadata(session, List.of(new MetadataRequest(metadata, remote, null)))
+                .get(0);
+        if (result.getException() instanceof MetadataNotFoundException) {
+            return Optional.of(new State(url, MISSING));
+        } else if (result.getException() != null || !result.isResolved()) {
+            LOG.debugf(result.getException(), "Unable to check %s", url);
+            return Optional.empty();
+        }
+        return Optional.of(new State(url, sha1(result.getMetadata().getFile())));
+    }
+
+    private Optional<State> probeArtifact(String url, ChannelMetadataCoordinate coordinate, RemoteRepository remote) throws IOException {
+        final DefaultArtifact artifact = new DefaultArtifact(coordinate.getGroupId(), coordinate.getArtifactId(),
+                coordinate.getClassifier(), coordinate.getExtension(), coordinate.getVersion());
+        try {
+            final ArtifactResult result = system.resolveArtifact(session, new ArtifactRequest(artifact, List.of(remote), null));
+            return Optional.of(new State(url, sha1(result.getArtifact().getFile())));
+        } catch (ArtifactResolutionException e) {
+            if (e.getResult() != null && !e.getResult().getExceptions().isEmpty()
+                    && e.getResult().getExceptions().stream().allMatch(ArtifactNotFoundException.class::isInstance)) {
+                return Optional.of(new State(url, MISSING));
+            }
+            LOG.debugf(e, "Unable to check %s", url);
+            return Optional.empty();
+        }
+    }
+
+    private static String sha1(File file) throws IOException {
+        return HashUtils.hashFile(file.toPath());
+    }
+
+    private static String sha1(InputStream is) throws IOException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            try (DigestInputStream dis = new DigestInputStream(is, digest)) {
+                dis.transferTo(OutputStream.nullOutputStream());
+            }
+            return HashUtils.bytesToHexString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Recorded state of a metadata file.
+     */
+    static final class State {
+        private final String url;
+        private final String sha1;
+
+        State(String url, String sha1) {
+            this.url = url;
+            this.sha1 = sha1;
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        String getSha1() {
+            return sha1;
+        }
+
+        /**
+         * @return true if the content of the file is the same as the content recorded in {@code other}
+         */
+        boolean isSameContent(State other) {
+            return other != null && url.equals(other.url) && Objects.equals(sha1, other.sha1);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.updates;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.prospero.api.ArtifactChange;
+import org.wildfly.prospero.galleon.ArtifactCache;
+import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
+import org.wildfly.prospero.wfchannel.MavenSessionManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Records the result of the last update check of an installation, together with the state of the channel metadata
+ * the result was based on.
+ *
+ * Before the next check, the channel metadata is resolved again and compared with the recorded state (see {@link ChannelMetadataProbe}).
+ * If neither the channel metadata, the channel definitions nor the installed artifacts have changed, the recorded result
+ * is still valid and the artifacts don't need to be resolved again.
+ *
+ * The result can only be reused if it is fully defined by the channel manifests - channels without manifests,
+ * streams with version patterns and manifests requiring other manifests always require a full check.
+ *
+ * The check is enabled by setting {@code INCREMENTAL_CHECK_PROPERTY} to {@code true}. The result is stored
+ * in {@code ArtifactCache.CACHE_FOLDER}/{@code CACHE_FILENAME}.
+ */
+public class UpdateCheckCache {
+    private static final Logger LOG = Logger.getLogger(UpdateCheckCache.class);
+
+    /**
+     * if set to {@code true}, the result of an update check is reused if the channels have not changed since.
+     */
+    public static final String INCREMENTAL_CHECK_PROPERTY = "org.wildfly.prospero.updates.incremental";
+    static final String CACHE_FILENAME = "update-check.properties";
+    private static final String SEPARATOR = "::";
+    private static final String MAVEN_METADATA_FILE = "maven-metadata.xml";
+
+    private final Path installationDir;
+    private final ChannelMetadataProbe probe;
+    private String recordedState;
+    private List<ChannelMetadataProbe.State> recordedProbes = new ArrayList<>();
+    private List<ArtifactChange> recordedUpdates;
+    private List<ChannelMetadataProbe.State> currentProbes;
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(INCREMENTAL_CHECK_PROPERTY);
+    }
+
+    /**
+     * loads the result of the last update check of {@code installationDir}. If the result cannot be read, a full check
+     * will be required.
+     */
+    public static UpdateCheckCache load(Path installationDir, MavenSessionManager mavenSessionManager) {
+        final RepositorySystem system = mavenSessionManager.newRepositorySystem();
+        return load(installationDir, new ChannelMetadataProbe(system, mavenSessionManager.newRepositorySystemSession(system)));
+    }
+
+    static UpdateCheckCache load(Path installationDir, ChannelMetadataProbe probe) {
+        final UpdateCheckCache cache = new UpdateCheckCache(installationDir, probe);
+        final Path file = cache.getCacheFile();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                final Properties props = new Properties();
+                props.load(reader);
+                cache.read(props);
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.debugf(e, "Unable to read the last update check result from %s", file);
+                cache.recordedState = null;
+                cache.recordedUpdates = null;
+                cache.recordedProbes = new ArrayList<>();
+            }
+        }
+        return cache;
+    }
+
+    private UpdateCheckCache(Path installationDir, ChannelMetadataProbe probe) {
+        this.installationDir = installationDir;
+        this.probe = probe;
+    }
+
+    /**
+     * checks if the result of the last update check can be reused. Probes the metadata of all {@code channels} - the
+     * probed state is kept and stored by the following {@link #record(List, List, List, UpdateSet)}.
+     *
+     * @param channels - channels used to find the updates
+     * @param installedArtifacts - artifacts currently installed
+     * @return the result of the last check if nothing has changed since, otherwise empty {@code Optional}
+     */
+    public Optional<UpdateSet> findUnchangedUpdates(List<Channel> channels, List<Artifact> installedArtifacts) {
+        final Optional<List<MetadataFile>> metadataFiles = getMetadataFiles(channels);
+        if (metadataFiles.isEmpty()) {
+            currentProbes = null;
+            return Optional.empty();
+        }
+
+        boolean unchanged;
+        try {
+            unchanged = recordedUpdates != null && stateOf(channels, installedArtifacts).equals(recordedState)
+                    && metadataFiles.get().size() == recordedProbes.size();
+        } catch (IOException e) {
+            LOG.debug("Unable to compare the channels with the last update check", e);
+            currentProbes = null;
+            return Optional.empty();
+        }
+
+        currentProbes = new ArrayList<>();
+        for (int i = 0; i < metadataFiles.get().size(); i++) {
+            final String url = metadataFiles.get().get(i).url;
+            final ChannelMetadataProbe.State previous = i < recordedProbes.size() && recordedProbes.get(i).getUrl().equals(url)
+                    ? recordedProbes.get(i) : null;
+            final Optional<ChannelMetadataProbe.State> current = probe.probe(url, metadataFiles.get().get(i).coordinate,
+                    metadataFiles.get().get(i).repository);
+            if (current.isEmpty()) {
+                // the state is unknown, a full check is needed now and next time
+                currentProbes = null;
+                return Optional.empty();
+            }
+            currentProbes.add(current.get());
+            if (!current.get().isSameContent(previous)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Channel metadata %s has changed since the last update check", url);
+                }
+                unchanged = false;
+            }
+        }
+
+        if (unchanged) {
+            return Optional.of(new UpdateSet(recordedUpdates));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * stores the result of an update check. The result is only stored if it can be reused by the following check.
+     *
+     * @param channels - channels used to find the updates
+     * @param installedArtifacts - artifacts currently installed
+     * @param manifests - manifests resolved during the check
+     * @param updates - the found updates
+     */
+    public void record(List<Channel> channels, List<Artifact> installedArtifacts, List<ChannelManifest> manifests, UpdateSet updates) {
+        final Path file = getCacheFile();
+        try {
+            if (currentProbes == null || !UpdateFinder.isDefinedByManifests(manifests)) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            if (!Files.isDirectory(installationDir.resolve(ProsperoMetadataUtils.METADATA_DIR))) {
+                return;
+            }
+
+            final Properties props = new Properties();
+            props.setProperty("state", stateOf(channels, installedArtifacts));
+            props.setProperty("probes", Integer.toString(currentProbes.size()));
+            for (int i = 0; i < currentProbes.size(); i++) {
+                final ChannelMetadataProbe.State state = currentProbes.get(i);
+                props.setProperty("probe." + i + ".url", state.getUrl());
+                props.setProperty("probe." + i + ".sha1", state.getSha1());
+            }
+            final List<ArtifactChange> changes = updates.getArtifactUpdates();
+            props.setProperty("updates", Integer.toString(changes.size()));
+            for (int i = 0; i < changes.size(); i++) {
+                final ArtifactChange change = changes.get(i);
+                props.setProperty("update." + i, String.join(SEPARATOR, change.getArtifactName(),
+                        change.getOldVersion().orElse(""), change.getNewVersion().orElse(""),
+                        change.getChannelName().orElse("")));
+                props.setProperty("update." + i + ".extension", change.getExtension());
+                props.setProperty("update." + i + ".classifier", change.getClassifier());
+            }
+
+            Files.createDirectories(file.getParent());
+            final Path temp = Files.createTempFile(file.getParent(), CACHE_FILENAME, ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    props.store(writer, "Last update check");
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            LOG.debugf(e, "Unable to store the update check result in %s", file);
+        }
+    }
+
+    private Path getCacheFile() {
+        return installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(CACHE_FILENAME);
+    }
+
+    private void read(Properties props) {
+        recordedState = props.getProperty("state");
+        final int probeCount = Integer.parseInt(props.getProperty("probes", "0"));
+        for (int i = 0; i < probeCount; i++) {
+            recordedProbes.add(new ChannelMetadataProbe.State(
+                    required(props, "probe." + i + ".url"),
+                    required(props, "probe." + i + ".sha1")));
+        }
+        final int updateCount = Integer.parseInt(required(props, "updates"));
+        final List<ArtifactChange> updates = new ArrayList<>(updateCount);
+        for (int i = 0; i < updateCount; i++) {
+            updates.add(parseChange(required(props, "update." + i), required(props, "update." + i + ".extension"),
+                    required(props, "update." + i + ".classifier")));
+        }
+        recordedUpdates = updates;
+    }
+
+    private static String required(Properties props, String key) {
+        final String value = props.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value of " + key);
+        }
+        return value;
+    }
+
+    private static ArtifactChange parseChange(String line, String extension, String classifier) {
+        final String[] parts = line.split(SEPARATOR, -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid update record: " + line);
+        }
+        final String[] name = parts[0].split(":");
+        if (name.length < 2 || name.length > 3) {
+            throw new IllegalArgumentException("Invalid artifact name: " + parts[0]);
+        }
+        final String channelName = parts[3].isEmpty() ? null : parts[3];
+        if (parts[1].isEmpty()) {
+            return ArtifactChange.added(new DefaultArtifact(name[0], name[1], classifier, extension, parts[2]), channelName);
+        }
+        final Artifact oldArtifact = new DefaultArtifact(name[0], name[1], classifier, extension, parts[1]);
+        if (parts[2].isEmpty()) {
+            return ArtifactChange.removed(oldArtifact);
+        }
+        return ArtifactChange.updated(oldArtifact, new DefaultArtifact(name[0], name[1], classifier, extension, parts[2]), channelName);
+    }
+
+    /**
+     * lists the metadata files defining the channels' manifests and blocklists
+     *
+     * @return list of the files or empty {@code Optional} if one of the channels is not defined by metadata files
+     */
+    private static Optional<List<MetadataFile>> getMetadataFiles(List<Channel> channels) {
+        final List<MetadataFile> files = new ArrayList<>();
+        for (Channel channel : channels) {
+            if (channel.getManifestCoordinate() == null) {
+                // versions in channels without manifest are defined by the repositories' content
+                return Optional.empty();
+            }
+            addMetadataFiles(files, channel.getManifestCoordinate(), channel.getRepositories());
+            if (channel.getBlocklistCoordinate() != null) {
+                addMetadataFiles(files, channel.getBlocklistCoordinate(), channel.getRepositories());
+            }
+        }
+        return Optional.of(files);
+    }
+
+    private static void addMetadataFiles(List<MetadataFile> files, ChannelMetadataCoordinate coordinate, List<Repository> repositories) {
+        if (coordinate.getUrl() != null) {
+            files.add(new MetadataFile(coordinate.getUrl().toExternalForm(), coordinate, null));
+            return;
+        }
+        final String gaPath = coordinate.getGroupId().replace('.', '/') + "/" + coordinate.getArtifactId();
+        for (Repository repository : repositories) {
+            final String base = repository.getUrl().endsWith("/") ? repository.getUrl() : repository.getUrl() + "/";
+            if (coordinate.getVersion() == null) {
+                files.add(new MetadataFile(base + gaPath + "/" + MAVEN_METADATA_FILE, coordinate, repository));
+            } else {
+                files.add(new MetadataFile(base + gaPath + "/" + coordinate.getVersion() + "/" + coordinate.getArtifactId() + "-"
+                        + coordinate.getVersion() + "-" + coordinate.getClassifier() + "." + coordinate.getExtension(),
+                        coordinate, repository));
+            }
+        }
+    }
+
+    private static String stateOf(List<Channel> channels, List<Artifact> installedArtifacts) throws IOException {
+        final String artifacts = installedArtifacts.stream()
+                .map(a -> String.join(":", a.getGroupId(), a.getArtifactId(), a.getExtension(), a.getClassifier(), a.getVersion()))
+                .sorted()
+                .collect(Collectors.joining("\n"));
+        return HashUtils.hash(ChannelMapper.toYaml(channels) + "\n" + artifacts);
+    }
+
+    private static final class MetadataFile {
+        private final String url;
+        private final ChannelMetadataCoordinate coordinate;
+        // repository containing the file, or null if the file is referenced by its URL
+        private final Repository repository;
+
+        private MetadataFile(String url, ChannelMetadataCoordinate coordinate, Repository repository) {
+            this.url = url;
+            this.coordinate = coordinate;
+            this.repository = repository;
+        }
+    }
+}
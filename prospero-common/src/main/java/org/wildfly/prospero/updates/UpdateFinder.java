@@ -19,51 +19,71 @@ package org.wildfly.prospero.updates;
 
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
+import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.UnresolvedMavenArtifactException;
 import org.wildfly.channel.VersionResult;
 import org.wildfly.prospero.api.ArtifactChange;
 import org.wildfly.prospero.api.exceptions.ArtifactResolutionException;
+import org.wildfly.prospero.utils.ExecutorUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class UpdateFinder implements AutoCloseable {
 
+    /**
+     * default number of concurrent version lookups
+     */
     public static final int UPDATES_SEARCH_PARALLELISM = 10;
+    /**
+     * overrides the number of concurrent version lookups
+     */
+    public static final String UPDATES_SEARCH_PARALLELISM_PROPERTY = "org.wildfly.prospero.updates.parallelism";
 
     private final ChannelSession channelSession;
     private final ExecutorService executorService;
 
     public UpdateFinder(ChannelSession channelSession) {
         this.channelSession = channelSession;
-        this.executorService = Executors.newWorkStealingPool(UPDATES_SEARCH_PARALLELISM);
+        this.executorService = ExecutorUtils.newBoundedExecutor(
+                ExecutorUtils.getPositiveInteger(UPDATES_SEARCH_PARALLELISM_PROPERTY, UPDATES_SEARCH_PARALLELISM));
     }
 
     public UpdateSet findUpdates(List<Artifact> artifacts) throws ArtifactResolutionException {
-        // use parallel executor to speed up the artifact resolution
-        List<CompletableFuture<Optional<ArtifactChange>>> allPackages = new ArrayList<>();
+        // the version of an artifact is defined per groupId:artifactId, look up each GA only once
+        final Map<String, CompletableFuture<Optional<VersionResult>>> latestVersions = new HashMap<>();
         for (Artifact artifact : artifacts) {
-            final CompletableFuture<Optional<ArtifactChange>> cf = new CompletableFuture<>();
+            final String ga = artifact.getGroupId() + ":" + artifact.getArtifactId();
+            if (latestVersions.containsKey(ga)) {
+                continue;
+            }
+            // use parallel executor to speed up the artifact resolution
+            final CompletableFuture<Optional<VersionResult>> cf = new CompletableFuture<>();
             executorService.submit(() -> {
                 try {
-                    final Optional<ArtifactChange> found = findUpdates(artifact);
-                    cf.complete(found);
+                    cf.complete(findLatestVersion(artifact));
                 } catch (Exception e) {
                     cf.completeExceptionally(e);
                 }
             });
-            allPackages.add(cf);
+            latestVersions.put(ga, cf);
         }
 
         try {
-            CompletableFuture.allOf(allPackages.toArray(new CompletableFuture[]{})).join();
+            CompletableFuture.allOf(latestVersions.values().toArray(new CompletableFuture[]{})).join();
         } catch (CompletionException e) {
             if (e.getCause() instanceof ArtifactResolutionException) {
                 throw (ArtifactResolutionException) e.getCause();
@@ -72,27 +92,97 @@ public class UpdateFinder implements AutoCloseable {
             }
         }
 
-        final List<ArtifactChange> updates = allPackages.stream()
-                .map(cf ->cf.getNow(Optional.empty()))
+        final List<ArtifactChange> updates = artifacts.stream()
+                .map(a -> toChange(a, latestVersions.get(a.getGroupId() + ":" + a.getArtifactId()).join()))
                 .flatMap(Optional::stream)
                 .collect(Collectors.toList());
 
         return new UpdateSet(updates);
     }
 
-    private Optional<ArtifactChange> findUpdates(Artifact artifact) throws ArtifactResolutionException {
+    /**
+     * checks if any of the {@code artifacts} has an update available. Stops looking up the remaining artifacts as soon
+     * as the first update is found.
+     *
+     * @param artifacts - installed artifacts
+     * @return true if any of the artifacts can be updated or removed
+     * @throws ArtifactResolutionException
+     */
+    public boolean hasUpdates(List<Artifact> artifacts) throws ArtifactResolutionException {
+        final Map<String, List<Artifact>> artifactsByGa = new LinkedHashMap<>();
+        for (Artifact artifact : artifacts) {
+            artifactsByGa.computeIfAbsent(artifact.getGroupId() + ":" + artifact.getArtifactId(), k -> new ArrayList<>())
+                    .add(artifact);
+        }
+
+        final CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executorService);
+        final List<Future<Boolean>> tasks = new ArrayList<>(artifactsByGa.size());
+        for (List<Artifact> gaArtifacts : artifactsByGa.values()) {
+            tasks.add(completionService.submit(() -> {
+                final Optional<VersionResult> latestVersion = findLatestVersion(gaArtifacts.get(0));
+                return gaArtifacts.stream().anyMatch(a -> toChange(a, latestVersion).isPresent());
+            }));
+        }
 
-        final String latestVersion;
-        final Optional<String> channelName;
         try {
-            final VersionResult versionResult = channelSession.findLatestMavenArtifactVersion(artifact.getGroupId(),
-                    artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), null);
-            latestVersion = versionResult.getVersion();
-            channelName = versionResult.getChannelName();
+            for (int i = 0; i < tasks.size(); i++) {
+                if (completionService.take().get()) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ArtifactResolutionException) {
+                throw (ArtifactResolutionException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new CompletionException(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            // the result is known, no need to look up remaining artifacts
+            tasks.forEach(t -> t.cancel(true));
+        }
+    }
+
+    /**
+     * checks if the versions of all artifacts are defined by the {@code manifests}, rather than by the content of
+     * the channel repositories.
+     */
+    public static boolean isDefinedByManifests(List<ChannelManifest> manifests) {
+        for (ChannelManifest manifest : manifests) {
+            if (manifest.getManifestRequirements() != null && !manifest.getManifestRequirements().isEmpty()) {
+                return false;
+            }
+            if (manifest.getStreams().stream().anyMatch(s -> s.getVersion() == null)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    /**
+     * @return the latest version of the artifact's stream, or empty {@code Optional} if the stream was not found
+     */
+    private Optional<VersionResult> findLatestVersion(Artifact artifact) throws ArtifactResolutionException {
+        try {
+            return Optional.of(channelSession.findLatestMavenArtifactVersion(artifact.getGroupId(),
+                    artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), null));
         } catch (UnresolvedMavenArtifactException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<ArtifactChange> toChange(Artifact artifact, Optional<VersionResult> versionResult) {
+        if (versionResult.isEmpty()) {
             return Optional.of(ArtifactChange.removed(artifact));
         }
+
+        final String latestVersion = versionResult.get().getVersion();
+        final Optional<String> channelName = versionResult.get().getChannelName();
         final Artifact latest = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(), latestVersion);
 
         if (latestVersion == null || latest.getVersion().equals(artifact.getVersion())) {
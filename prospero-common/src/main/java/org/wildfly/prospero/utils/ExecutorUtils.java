@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.utils;
+
+import org.jboss.logging.Logger;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates executors used to run blocking resolution tasks concurrently.
+ */
+public final class ExecutorUtils {
+    private static final Logger LOG = Logger.getLogger(ExecutorUtils.class);
+
+    /**
+     * if set to {@code true}, the resolution tasks are executed on virtual threads if the JVM supports them.
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = "org.wildfly.prospero.virtual-threads";
+
+    private ExecutorUtils() {
+    }
+
+    /**
+     * creates an executor running at most {@code parallelism} tasks at the same time. If {@code VIRTUAL_THREADS_PROPERTY}
+     * is enabled and the JVM supports virtual threads, the tasks are executed on virtual threads.
+     *
+     * @param parallelism - maximum number of concurrently running tasks
+     * @return new executor. The caller is responsible for shutting it down.
+     */
+    public static ExecutorService newBoundedExecutor(int parallelism) {
+        final Optional<ThreadFactory> virtualThreads = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)
+                ? virtualThreadFactory() : Optional.empty();
+        return Executors.newFixedThreadPool(parallelism, virtualThreads.orElse(ExecutorUtils::newDaemonThread));
+    }
+
+    private static Thread newDaemonThread(Runnable task) {
+        final Thread thread = Executors.defaultThreadFactory().newThread(task);
+        // don't prevent the JVM from exiting if the executor is not shut down
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * reads a positive integer from system property {@code name}.
+     *
+     * @return value of the property or {@code defaultValue} if the property is not set or is not a positive number
+     */
+    public static int getPositiveInteger(String name, int defaultValue) {
+        final String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            final int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        LOG.warnf("Ignoring invalid value of %s: %s, using %d", name, value, defaultValue);
+        return defaultValue;
+    }
+
+    private static Optional<ThreadFactory> virtualThreadFactory() {
+        // Thread.ofVirtual() is only available since Java 21
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Virtual threads are not supported by the JVM, using platform threads");
+            }
+            return Optional.empty();
+        }
+    }
+}
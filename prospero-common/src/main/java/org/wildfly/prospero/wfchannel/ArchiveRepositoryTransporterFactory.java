@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.transport.AbstractTransporter;
+import org.eclipse.aether.spi.connector.transport.GetTask;
+import org.eclipse.aether.spi.connector.transport.PeekTask;
+import org.eclipse.aether.spi.connector.transport.PutTask;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.transfer.NoTransporterException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Serves Maven repositories stored in ZIP archives without extracting them.
+ *
+ * The repositories are addressed by {@code jar:file:/path/to/archive.zip!/path/in/archive/} URLs. The archive is opened
+ * as a {@code ZipFileSystem}, so only the central directory is read up-front and the requested artifacts are copied
+ * into the local repository by the resolver as they are needed.
+ *
+ * The archive file systems are shared by all the transporters and stay open until closed by the caller of
+ * {@link #openArchive(Path)}.
+ */
+public class ArchiveRepositoryTransporterFactory implements TransporterFactory {
+
+    public static final String PROTOCOL = "jar";
+    private static final String SEPARATOR = "!/";
+
+    @Override
+    public Transporter newInstance(RepositorySystemSession session, RemoteRepository repository) throws NoTransporterException {
+        Objects.requireNonNull(session, "session cannot be null");
+        Objects.requireNonNull(repository, "repository cannot be null");
+        return new ArchiveRepositoryTransporter(repository);
+    }
+
+    @Override
+    public float getPriority() {
+        return 5.0f;
+    }
+
+    /**
+     * opens {@code archive} as a file system, or returns the already opened file system.
+     *
+     * @param archive - path to the ZIP archive
+     * @return the archive's file system. The caller is responsible for closing it when it's not needed anymore.
+     */
+    public static FileSystem openArchive(Path archive) throws IOException {
+        final URI uri = archiveUri(archive);
+        try {
+            return FileSystems.getFileSystem(uri);
+        } catch (FileSystemNotFoundException e) {
+            try {
+                return FileSystems.newFileSystem(uri, Map.of());
+            } catch (FileSystemAlreadyExistsException ex) {
+                return FileSystems.getFileSystem(uri);
+            }
+        }
+    }
+
+    /**
+     * creates the repository URL for a folder inside an archive opened by {@link #openArchive(Path)}
+     *
+     * @param archive - path to the ZIP archive
+     * @param repositoryRoot - path of the repository root within the archive's file system
+     * @return URL of the repository that can be resolved by this factory's transporters
+     */
+    public static String toRepositoryUrl(Path archive, Path repositoryRoot) {
+        try {
+            // the entry path has to be URI-encoded, same as the archive's file URI, to form a valid jar: URL
+            final String entry = new URI(null, null, repositoryRoot.toAbsolutePath() + "/", null).getRawPath();
+            return archiveUri(archive) + "!" + entry;
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid path " + repositoryRoot, e);
+        }
+    }
+
+    private static URI archiveUri(Path archive) {
+        return URI.create(PROTOCOL + ":" + archive.toAbsolutePath().toFile().toURI());
+    }
+
+    static final class ArchiveRepositoryTransporter extends AbstractTransporter {
+        private final Path archive;
+        private final String basePath;
+
+        ArchiveRepositoryTransporter(RemoteRepository repository) throws NoTransporterException {
+            if (!PROTOCOL.equalsIgnoreCase(repository.getProtocol())) {
+                throw new NoTransporterException(repository);
+            }
+            final String url = repository.getUrl();
+            final int separator = url.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new NoTransporterException(repository, "The URL has to point to a folder inside the archive");
+            }
+            try {
+                this.archive = Path.of(new URI(url.substring(PROTOCOL.length() + 1, separator)));
+                this.basePath = new URI(url.substring(separator + 1)).getPath();
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new NoTransporterException(repository, e);
+            }
+        }
+
+        @Override
+        public int classify(Throwable error) {
+            if (error instanceof NoSuchFileException) {
+                return ERROR_NOT_FOUND;
+            }
+            return ERROR_OTHER;
+        }
+
+        @Override
+        protected void implPeek(PeekTask task) throws Exception {
+            final Path path = resolve(task.getLocation());
+            if (!Files.isRegularFile(path)) {
+                throw new NoSuchFileException(path.toString());
+            }
+        }
+
+        @Override
+        protected void implGet(GetTask task) throws Exception {
+            final Path path = resolve(task.getLocation());
+            final long size = Files.size(path);
+            utilGet(task, Files.newInputStream(path), true, size, false);
+        }
+
+        @Override
+        protected void implPut(PutTask task) throws Exception {
+            throw new IOException("Repository archive " + archive + " is read-only");
+        }
+
+        @Override
+        protected void implClose() {
+            // the archive file system is shared with other transporters
+        }
+
+        private Path resolve(URI location) throws IOException {
+            if (!Files.exists(archive)) {
+                throw new NoSuchFileException(archive.toString());
+            }
+            final FileSystem fs;
+            try {
+                // the file system is owned by the caller of openArchive, don't re-open it once it was closed
+                fs = FileSystems.getFileSystem(archiveUri(archive));
+            } catch (FileSystemNotFoundException e) {
+                throw new IOException("Repository archive " + archive + " is not open", e);
+            }
+            return fs.getPath(basePath).resolve(location.getPath());
+        }
+    }
+}
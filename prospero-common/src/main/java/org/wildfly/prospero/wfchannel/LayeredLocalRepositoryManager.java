@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.LocalArtifactRegistration;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
+import org.eclipse.aether.repository.LocalMetadataRegistration;
+import org.eclipse.aether.repository.LocalMetadataRequest;
+import org.eclipse.aether.repository.LocalMetadataResult;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.repository.RemoteRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Local repository manager searching read-only base repositories before a writable overlay repository.
+ *
+ * Unlike {@code ChainedLocalRepositoryManager}, which always prefers the writable repository, the base repositories are
+ * consulted first, so artifacts available in the pre-populated repositories are never read from, or downloaded into,
+ * the overlay. All new artifacts and metadata are stored in the overlay.
+ *
+ * Metadata downloaded from remote repositories is the exception - it is refreshed according to the update policy and
+ * stored in the overlay, so the overlay copy is preferred and the base repositories are only used if it is missing.
+ *
+ * The base repositories are pre-populated and don't track which remote repository an artifact came from, so any artifact
+ * found in them is treated as available.
+ */
+class LayeredLocalRepositoryManager implements LocalRepositoryManager {
+
+    private final List<LocalRepositoryManager> base;
+    private final LocalRepositoryManager overlay;
+
+    LayeredLocalRepositoryManager(List<LocalRepositoryManager> base, LocalRepositoryManager overlay) {
+        this.base = List.copyOf(base);
+        this.overlay = overlay;
+    }
+
+    @Override
+    public LocalRepository getRepository() {
+        return overlay.getRepository();
+    }
+
+    @Override
+    public String getPathForLocalArtifact(Artifact artifact) {
+        return overlay.getPathForLocalArtifact(artifact);
+    }
+
+    @Override
+    public String getPathForRemoteArtifact(Artifact artifact, RemoteRepository repository, String context) {
+        return overlay.getPathForRemoteArtifact(artifact, repository, context);
+    }
+
+    @Override
+    public String getPathForLocalMetadata(Metadata metadata) {
+        return overlay.getPathForLocalMetadata(metadata);
+    }
+
+    @Override
+    public String getPathForRemoteMetadata(Metadata metadata, RemoteRepository repository, String context) {
+        return overlay.getPathForRemoteMetadata(metadata, repository, context);
+    }
+
+    @Override
+    public LocalArtifactResult find(RepositorySystemSession session, LocalArtifactRequest request) {
+        for (LocalRepositoryManager manager : base) {
+            final LocalArtifactResult result = manager.find(session, request);
+            if (result.getFile() != null) {
+                result.setAvailable(true);
+                return result;
+            }
+        }
+        return overlay.find(session, request);
+    }
+
+    @Override
+    public void add(RepositorySystemSession session, LocalArtifactRegistration request) {
+        overlay.add(session, request);
+    }
+
+    @Override
+    public LocalMetadataResult find(RepositorySystemSession session, LocalMetadataRequest request) {
+        if (request.getRepository() != null) {
+            // remote metadata is downloaded into the overlay, a copy in the base repositories is likely outdated
+            final LocalMetadataResult result = overlay.find(session, request);
+            if (result.getFile() != null) {
+                return result;
+            }
+            return findInBase(session, request).orElse(result);
+        }
+        return findInBase(session, request).orElseGet(() -> overlay.find(session, request));
+    }
+
+    private Optional<LocalMetadataResult> findInBase(RepositorySystemSession session, LocalMetadataRequest request) {
+        for (LocalRepositoryManager manager : base) {
+            final LocalMetadataResult result = manager.find(session, request);
+            if (result.getFile() != null) {
+                return Optional.of(result);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void add(RepositorySystemSession session, LocalMetadataRegistration request) {
+        overlay.add(session, request);
+    }
+
+    @Override
+    public String toString() {
+        return "Layered(" + base + " -> " + overlay + ")";
+    }
+}
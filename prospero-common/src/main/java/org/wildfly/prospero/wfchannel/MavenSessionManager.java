@@ -21,15 +21,25 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.aether.repository.LocalRepository;
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositoryCache;
 import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryCache;
+import org.eclipse.aether.RepositoryListener;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
 import org.eclipse.aether.impl.DefaultServiceLocator;
+import org.eclipse.aether.impl.RemoteRepositoryFilterManager;
+import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.transport.TransporterFactory;
 import org.eclipse.aether.transport.file.FileTransporterFactory;
@@ -42,8 +52,13 @@ public class MavenSessionManager {
 
     public static final Path LOCAL_MAVEN_REPO = Paths.get(System.getProperty("user.home"), ".m2", "repository");
     private static final String AETHER_OFFLINE_PROTOCOLS_PROPERTY = "aether.offline.protocols";
-    public static final String AETHER_OFFLINE_PROTOCOLS_VALUE = "file";
+    public static final String AETHER_OFFLINE_PROTOCOLS_VALUE = "file," + ArchiveRepositoryTransporterFactory.PROTOCOL;
+    private static final String AETHER_DOWNLOAD_THREADS_PROPERTY = "aether.connector.basic.threads";
     private final Path provisioningRepo;
+    private final List<Path> sharedRepos;
+    private final SharedRepositorySystem sharedSystem;
+    private final Map<String, Object> connectorConfig;
+    private final NotFoundCache notFoundCache;
     private boolean offline;
 
     public MavenSessionManager(MavenOptions mavenOptions) throws ProvisioningException {
@@ -64,37 +79,82 @@ public class MavenSessionManager {
         } else {
             this.provisioningRepo = mavenOptions.getLocalCache().toAbsolutePath();
         }
+        this.sharedRepos = mavenOptions.getSharedLocalCaches();
+        this.sharedSystem = new SharedRepositorySystem();
+        this.connectorConfig = connectorConfig(mavenOptions);
+        // the temporary local repository is removed on exit, keep the not-found records in a stable location
+        this.notFoundCache = NotFoundCache.fromSystemProperties(mavenOptions.isNoLocalCache()
+                ? NotFoundCache.userDirectory() : provisioningRepo);
     }
 
     public MavenSessionManager(MavenSessionManager base) {
         this.offline = base.isOffline();
         this.provisioningRepo = base.provisioningRepo;
+        this.sharedRepos = base.sharedRepos;
+        // both managers use the same local repository, so the resolver caches can be shared
+        this.sharedSystem = base.sharedSystem;
+        this.connectorConfig = base.connectorConfig;
+        this.notFoundCache = base.notFoundCache;
     }
 
     public MavenSessionManager() throws ProvisioningException {
         this(MavenOptions.DEFAULT_OPTIONS);
     }
 
+    /**
+     * Returns the {@code RepositorySystem} used by this manager. The system is created on first use and shared by all
+     * the callers, so that the Maven components don't need to be initialized repeatedly.
+     *
+     * @return shared {@code RepositorySystem}
+     */
     public RepositorySystem newRepositorySystem() {
-        final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
-        locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
-        locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
-        locator.addService(TransporterFactory.class, FileTransporterFactory.class);
-        locator.setErrorHandler(new DefaultServiceLocator.ErrorHandler() {
-            @Override
-            public void serviceCreationFailed(Class<?> type, Class<?> impl, Throwable exception) {
-                throw ProsperoLogger.ROOT_LOGGER.failedToInitMaven(exception);
-            }
-        });
-        return locator.getService(RepositorySystem.class);
+        return sharedSystem.get();
     }
 
+    /**
+     * Creates a new session using the shared {@code RepositorySystem}.
+     *
+     * @see #newRepositorySystemSession(RepositorySystem)
+     */
+    public DefaultRepositorySystemSession newRepositorySystemSession() {
+        return newRepositorySystemSession(newRepositorySystem());
+    }
+
+    /**
+     * Creates a new session using the local repository and offline mode of this manager.
+     *
+     * If shared local repositories are configured, they are searched for artifacts before the local repository.
+     * The shared repositories are never modified, any downloaded artifacts are stored in the local repository.
+     *
+     * All sessions created by the manager share the same {@code RepositoryCache}. The cache holds the HTTP connection pools
+     * and the resolver's internal caches, so the connections and resolved data are re-used between the sessions.
+     *
+     * If enabled by {@link NotFoundCache#TTL_PROPERTY}, artifacts and metadata recently not found in a remote repository
+     * are not requested from that repository again.
+     *
+     * @param system - {@code RepositorySystem} used to create the local repository manager
+     * @return new session
+     */
     public DefaultRepositorySystemSession newRepositorySystemSession(RepositorySystem system) {
         final DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
 
         final LocalRepository localRepo = new LocalRepository(provisioningRepo.toAbsolutePath().toFile());
-        session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo));
+        final LocalRepositoryManager localRepositoryManager = system.newLocalRepositoryManager(session, localRepo);
+        if (sharedRepos.isEmpty()) {
+            session.setLocalRepositoryManager(localRepositoryManager);
+        } else {
+            final List<LocalRepositoryManager> sharedRepositoryManagers = new ArrayList<>();
+            for (Path sharedRepo : sharedRepos) {
+                sharedRepositoryManagers.add(system.newLocalRepositoryManager(session, new LocalRepository(sharedRepo.toFile())));
+            }
+            session.setLocalRepositoryManager(new LayeredLocalRepositoryManager(sharedRepositoryManagers, localRepositoryManager));
+        }
         session.setConfigProperty(AETHER_OFFLINE_PROTOCOLS_PROPERTY, AETHER_OFFLINE_PROTOCOLS_VALUE);
+        connectorConfig.forEach(session::setConfigProperty);
+        session.setCache(sharedSystem.cache);
+        if (notFoundCache != null) {
+            NotFoundRepositoryFilter.attach(session, notFoundCache);
+        }
         session.setOffline(offline);
         return session;
     }
@@ -103,6 +163,13 @@ public class MavenSessionManager {
         return provisioningRepo;
     }
 
+    /**
+     * @return read-only local repositories searched in addition to the {@link #getProvisioningRepo()}
+     */
+    public List<Path> getSharedRepos() {
+        return sharedRepos;
+    }
+
     public void setOffline(boolean offline) {
         this.offline = offline;
     }
@@ -110,4 +177,63 @@ public class MavenSessionManager {
     public boolean isOffline() {
         return offline;
     }
+
+    private static Map<String, Object> connectorConfig(MavenOptions mavenOptions) {
+        final Map<String, Object> config = new HashMap<>();
+        if (mavenOptions.getDownloadThreads() != null) {
+            config.put(AETHER_DOWNLOAD_THREADS_PROPERTY, mavenOptions.getDownloadThreads());
+        }
+        if (mavenOptions.getMaxConnectionsPerRoute() != null) {
+            config.put(ConfigurationProperties.HTTP_MAX_CONNECTIONS_PER_ROUTE, mavenOptions.getMaxConnectionsPerRoute());
+        }
+        if (mavenOptions.getConnectionTtl() != null) {
+            config.put(ConfigurationProperties.HTTP_CONNECTION_MAX_TTL, mavenOptions.getConnectionTtl());
+        }
+        if (mavenOptions.getConnectTimeout() != null) {
+            config.put(ConfigurationProperties.CONNECT_TIMEOUT, mavenOptions.getConnectTimeout());
+        }
+        if (mavenOptions.getRequestTimeout() != null) {
+            config.put(ConfigurationProperties.REQUEST_TIMEOUT, mavenOptions.getRequestTimeout());
+        }
+        return Map.copyOf(config);
+    }
+
+    private static RepositorySystem createRepositorySystem() {
+        final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
+        locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
+        locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
+        locator.addService(TransporterFactory.class, FileTransporterFactory.class);
+        locator.addService(TransporterFactory.class, ArchiveRepositoryTransporterFactory.class);
+        // the filter and the recorder are only active in sessions with a NotFoundCache attached
+        locator.setServices(RemoteRepositoryFilterManager.class, new NotFoundRepositoryFilter());
+        locator.setServices(RepositoryListener.class, new NotFoundRepositoryFilter.Recorder());
+        locator.setErrorHandler(new DefaultServiceLocator.ErrorHandler() {
+            @Override
+            public void serviceCreationFailed(Class<?> type, Class<?> impl, Throwable exception) {
+                throw ProsperoLogger.ROOT_LOGGER.failedToInitMaven(exception);
+            }
+        });
+        return locator.getService(RepositorySystem.class);
+    }
+
+    /**
+     * Lazily created {@code RepositorySystem} and the {@code RepositoryCache} shared by the sessions.
+     */
+    private static final class SharedRepositorySystem {
+        private final RepositoryCache cache = new DefaultRepositoryCache();
+        private volatile RepositorySystem system;
+
+        RepositorySystem get() {
+            RepositorySystem result = system;
+            if (result == null) {
+                synchronized (this) {
+                    result = system;
+                    if (result == null) {
+                        system = result = createRepositorySystem();
+                    }
+                }
+            }
+            return result;
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+import org.jboss.logging.Logger;
+import org.wildfly.prospero.utils.ExecutorUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records artifacts and metadata that were not found in a remote repository, so that the repository is not queried
+ * for them again until the record expires.
+ *
+ * The records are kept per repository URL and persisted in {@code NOT_FOUND_FILENAME} in the local Maven repository,
+ * so they are shared by all the installations using the same local repository. If the local repository is a temporary
+ * one, the records are persisted in the user's {@code .m2} folder instead.
+ *
+ * Each record is appended to the file as it is made. Expired and duplicated records are removed when the file is loaded.
+ */
+public final class NotFoundCache {
+    private static final Logger LOG = Logger.getLogger(NotFoundCache.class);
+
+    /**
+     * number of minutes a not-found record is valid for. If not set, the not-found results are not cached.
+     */
+    public static final String TTL_PROPERTY = "org.wildfly.prospero.resolve.not-found-ttl";
+    /**
+     * if set to {@code true}, the previously recorded not-found results are discarded.
+     */
+    public static final String REFRESH_PROPERTY = "org.wildfly.prospero.resolve.not-found-refresh";
+
+    static final String NOT_FOUND_FILENAME = ".prospero-not-found";
+    private static final String KEY_SEPARATOR = "|";
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private final Map<String, Long> expirations = new ConcurrentHashMap<>();
+    private final Path file;
+    private final Duration ttl;
+    private final Clock clock;
+
+    NotFoundCache(Path file, Duration ttl, Clock clock) {
+        this.file = file;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * creates the cache persisted in {@code directory} if enabled by {@code TTL_PROPERTY}.
+     *
+     * @return the cache or {@code null} if the not-found results should not be cached
+     */
+    static NotFoundCache fromSystemProperties(Path directory) {
+        final int ttlMinutes = ExecutorUtils.getPositiveInteger(TTL_PROPERTY, 0);
+        if (ttlMinutes <= 0) {
+            return null;
+        }
+        final NotFoundCache cache = new NotFoundCache(directory.resolve(NOT_FOUND_FILENAME),
+                Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+        if (Boolean.getBoolean(REFRESH_PROPERTY)) {
+            cache.clear();
+        } else {
+            cache.load();
+        }
+        return cache;
+    }
+
+    /**
+     * @return the user's {@code .m2} folder, used to persist the records if the local repository is not kept
+     */
+    static Path userDirectory() {
+        return Path.of(System.getProperty("user.home"), ".m2");
+    }
+
+    /**
+     * @return {@code true} if the {@code key} has been recently recorded as not available in {@code repositoryUrl}
+     */
+    boolean isNotFound(String repositoryUrl, String key) {
+        final Long expiration = expirations.get(asKey(repositoryUrl, key));
+        return expiration != null && expiration > clock.millis();
+    }
+
+    /**
+     * records the {@code key} as not available in the {@code repositoryUrl}. Existing records are not extended.
+     */
+    void record(String repositoryUrl, String key) {
+        if (isNotFound(repositoryUrl, key)) {
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Recording %s as not found in %s", key, repositoryUrl);
+        }
+        final long expiration = clock.millis() + ttl.toMillis();
+        expirations.put(asKey(repositoryUrl, key), expiration);
+        append(asKey(repositoryUrl, key), expiration);
+    }
+
+    int size() {
+        return expirations.size();
+    }
+
+    void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        int stale = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            final long now = clock.millis();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] record = line.split(FIELD_SEPARATOR, 2);
+                if (record.length != 2) {
+                    stale++;
+                    continue;
+                }
+                final long expiration = Long.parseLong(record[0]);
+                if (expiration > now && expirations.put(record[1], expiration) == null) {
+                    continue;
+                }
+                stale++;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.debugf(e, "Unable to read not-found records from %s", file);
+            expirations.clear();
+            return;
+        }
+        if (stale > 0) {
+            compact();
+        }
+    }
+
+    private void clear() {
+        expirations.clear();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debugf(e, "Unable to remove not-found records %s", file);
+        }
+    }
+
+    private synchronized void append(String key, long expiration) {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, expiration + "\t" + key + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOG.debugf(e, "Unable to store not-found record in %s", file);
+        }
+    }
+
+    private synchronized void compact() {
+        try {
+            final Path temp = Files.createTempFile(file.getParent(), NOT_FOUND_FILENAME, ".tmp");
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    for (Map.Entry<String, Long> entry : expirations.entrySet()) {
+                        writer.write(entry.getValue() + "\t" + entry.getKey());
+                        writer.newLine();
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            LOG.debugf(e, "Unable to store not-found records in %s", file);
+        }
+    }
+
+    private static String asKey(String repositoryUrl, String key) {
+        return repositoryUrl + KEY_SEPARATOR + key;
+    }
+}
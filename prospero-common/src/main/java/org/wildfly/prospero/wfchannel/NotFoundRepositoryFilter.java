@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.impl.RemoteRepositoryFilterManager;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.filter.RemoteRepositoryFilter;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+
+/**
+ * Prevents the resolver from querying remote repositories for artifacts and metadata recorded in the session's
+ * {@link NotFoundCache}.
+ *
+ * The filter is registered in the shared {@code RepositorySystem} and is only active in sessions that have
+ * a {@code NotFoundCache} attached. The {@link Recorder} adds the not-found results reported by the resolver to the cache.
+ */
+class NotFoundRepositoryFilter implements RemoteRepositoryFilterManager {
+
+    private static final Result ACCEPTED = new Result(true, "not recorded as missing");
+    private static final Result REJECTED = new Result(false, "recorded as missing in the repository");
+
+    @Override
+    public RemoteRepositoryFilter getRemoteRepositoryFilter(RepositorySystemSession session) {
+        final NotFoundCache cache = getCache(session);
+        if (cache == null) {
+            return null;
+        }
+        return new RemoteRepositoryFilter() {
+            @Override
+            public Result acceptArtifact(RemoteRepository repository, Artifact artifact) {
+                return cache.isNotFound(repository.getUrl(), artifactKey(artifact)) ? REJECTED : ACCEPTED;
+            }
+
+            @Override
+            public Result acceptMetadata(RemoteRepository repository, Metadata metadata) {
+                return cache.isNotFound(repository.getUrl(), metadataKey(metadata)) ? REJECTED : ACCEPTED;
+            }
+        };
+    }
+
+    static void attach(RepositorySystemSession session, NotFoundCache cache) {
+        session.getData().set(NotFoundCache.class, cache);
+    }
+
+    private static NotFoundCache getCache(RepositorySystemSession session) {
+        return (NotFoundCache) session.getData().get(NotFoundCache.class);
+    }
+
+    static String artifactKey(Artifact artifact) {
+        return String.join(":", artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(),
+                artifact.getClassifier(), artifact.getBaseVersion());
+    }
+
+    static String metadataKey(Metadata metadata) {
+        final StringBuilder key = new StringBuilder()
+                .append(metadata.getGroupId()).append(':')
+                .append(metadata.getArtifactId()).append(':')
+                .append(metadata.getType());
+        if (!metadata.getVersion().isEmpty()) {
+            key.append(':').append(metadata.getVersion());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Records artifacts and metadata that the resolver failed to find in a remote repository.
+     */
+    static class Recorder extends AbstractRepositoryListener {
+
+        @Override
+        public void artifactDownloaded(RepositoryEvent event) {
+            final NotFoundCache cache = getCache(event.getSession());
+            if (cache != null && event.getException() instanceof ArtifactNotFoundException
+                    && event.getRepository() instanceof RemoteRepository) {
+                cache.record(((RemoteRepository) event.getRepository()).getUrl(), artifactKey(event.getArtifact()));
+            }
+        }
+
+        @Override
+        public void metadataDownloaded(RepositoryEvent event) {
+            final NotFoundCache cache = getCache(event.getSession());
+            if (cache != null && event.getException() instanceof MetadataNotFoundException
+                    && event.getRepository() instanceof RemoteRepository) {
+                cache.record(((RemoteRepository) event.getRepository()).getUrl(), metadataKey(event.getMetadata()));
+            }
+        }
+    }
+
+    private static final class Result implements RemoteRepositoryFilter.Result {
+        private final boolean accepted;
+        private final String reasoning;
+
+        private Result(boolean accepted, String reasoning) {
+            this.accepted = accepted;
+            this.reasoning = reasoning;
+        }
+
+        @Override
+        public boolean isAccepted() {
+            return accepted;
+        }
+
+        @Override
+        public String reasoning() {
+            return reasoning;
+        }
+    }
+}
@@ -21,10 +21,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
+import org.apache.commons.io.FileUtils;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.jboss.galleon.Constants;
 import org.jboss.galleon.ProvisioningException;
@@ -34,6 +38,7 @@ import org.jboss.galleon.repo.RepositoryArtifactResolver;
 import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.universe.maven.repo.SimplisticMavenRepoManager;
 import org.junit.Assert;
+import org.junit.Assume;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
@@ -54,6 +59,7 @@ import org.wildfly.prospero.api.FileConflict;
 import org.wildfly.prospero.api.SavedState;
 import org.wildfly.prospero.api.exceptions.InvalidUpdateCandidateException;
 import org.wildfly.prospero.galleon.ArtifactCache;
+import org.wildfly.prospero.galleon.FsDiffCalculator;
 import org.wildfly.prospero.installation.git.GitStorage;
 import org.wildfly.prospero.metadata.ManifestVersionRecord;
 import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
@@ -200,6 +206,151 @@ public class ApplyCandidateActionTest {
     }
 
 
+    @Test
+    public void testParallelUpdateWithUserChanges() throws Exception {
+        final DirState expectedState = dirBuilder
+                .addFile("prod1/p1.txt", "user prod1/p1")
+                .addFile("prod1/p1.txt.glnew", "prod1/p1 1.0.1")
+                .addFile("prod1/p2.txt", "prod1/p2 1.0.1")
+                .addFile("prod2/nested/p1.txt", "prod2/nested/p1 1.0.1")
+                .addFile("prod3/p1.txt", "prod3/p1 1.0.1")
+                .addFile("new.file", "user new file")
+                .build();
+
+        // build test packages
+        creator.newFeaturePack(FeaturePackLocation.fromString(FPL_100).getFPID())
+                .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod1/p1 1.0.0")
+                .writeContent("prod1/p2.txt", "prod1/p2 1.0.0")
+                .writeContent("prod2/nested/p1.txt", "prod2/nested/p1 1.0.0")
+                .writeContent("prod4/nested/p1.txt", "prod4/nested/p1 1.0.0") // removed by update
+                .writeContent("prod4/p1.txt", "prod4/p1 1.0.0") // removed by update
+                .getFeaturePack();
+        creator.newFeaturePack(FeaturePackLocation.fromString(FPL_101).getFPID())
+                .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod1/p1 1.0.1")
+                .writeContent("prod1/p2.txt", "prod1/p2 1.0.1")
+                .writeContent("prod2/nested/p1.txt", "prod2/nested/p1 1.0.1")
+                .writeContent("prod3/p1.txt", "prod3/p1 1.0.1")
+                .getFeaturePack();
+        creator.install();
+
+        install(installationPath, FPL_100);
+        writeContent("prod1/p1.txt", "user prod1/p1");
+        writeContent("new.file", "user new file");
+        prepareUpdate(updatePath, installationPath, FPL_101);
+
+        System.setProperty(ApplyCandidateAction.APPLY_PARALLELISM_PROPERTY, "4");
+        final List<FileConflict> conflicts;
+        try {
+            conflicts = new ApplyCandidateAction(installationPath, updatePath).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+        } finally {
+            System.clearProperty(ApplyCandidateAction.APPLY_PARALLELISM_PROPERTY);
+        }
+
+        // verify
+        expectedState.assertState(installationPath);
+        assertThat(conflicts).containsExactly(
+                FileConflict.userModified("prod1/p1.txt").updateModified().userPreserved()
+        );
+    }
+
+    @Test
+    public void updatedFilesAreLinkedFromCandidate() throws Exception {
+        createSimpleFeaturePacks();
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+
+        new ApplyCandidateAction(installationPath, updatePath, true).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+
+        assertThat(installationPath.resolve("prod1/p1.txt")).hasContent("p1 1.0.1");
+        assertTrue(Files.isSameFile(installationPath.resolve("prod1/p1.txt"), updatePath.resolve("prod1/p1.txt")));
+        assertThat(installationPath.resolve("prod1/p1.txt.prospero-link")).doesNotExist();
+    }
+
+    @Test
+    public void updatedFilesAreCopiedIfLinkingIsDisabled() throws Exception {
+        createSimpleFeaturePacks();
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+
+        System.setProperty(ApplyCandidateAction.APPLY_LINK_FILES_PROPERTY, "false");
+        try {
+            new ApplyCandidateAction(installationPath, updatePath, true).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+        } finally {
+            System.clearProperty(ApplyCandidateAction.APPLY_LINK_FILES_PROPERTY);
+        }
+
+        assertThat(installationPath.resolve("prod1/p1.txt")).hasContent("p1 1.0.1");
+        assertFalse(Files.isSameFile(installationPath.resolve("prod1/p1.txt"), updatePath.resolve("prod1/p1.txt")));
+    }
+
+    @Test
+    public void changesToExternalCandidateDontAffectInstallation() throws Exception {
+        createSimpleFeaturePacks();
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+
+        new ApplyCandidateAction(installationPath, updatePath).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+        Files.writeString(updatePath.resolve("prod1/p1.txt"), "modified candidate");
+
+        assertThat(installationPath.resolve("prod1/p1.txt")).hasContent("p1 1.0.1");
+    }
+
+    @Test
+    public void candidateDirectoryIsCreatedNextToInstallation() throws Exception {
+        final Path candidate = ApplyCandidateAction.createCandidateDirectory(installationPath, "update-candidate");
+
+        assertThat(candidate.getParent()).isEqualTo(installationPath.getParent());
+        assertThat(candidate.getFileName().toString()).startsWith(".update-candidate");
+        assertThat(candidate).isEmptyDirectory();
+    }
+
+    @Test
+    public void staleCandidateDirectoriesAreRemoved() throws Exception {
+        final Path stale = Files.createDirectory(installationPath.resolveSibling(".update-candidate-stale"));
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(2, ChronoUnit.DAYS)));
+        final Path recent = Files.createDirectory(installationPath.resolveSibling(".update-candidate-recent"));
+
+        ApplyCandidateAction.createCandidateDirectory(installationPath, "update-candidate");
+
+        assertThat(stale).doesNotExist();
+        assertThat(recent).exists();
+    }
+
+    @Test
+    public void candidateDirectoryIsCreatedInTemporaryFolderIfParentIsNotWritable() throws Exception {
+        final Path readOnly = temp.newFolder("read-only").toPath();
+        final Path installation = Files.createDirectory(readOnly.resolve("server"));
+        Assume.assumeTrue("Skipping test because OS doesn't support setting folders read-only",
+                readOnly.toFile().setWritable(false) && !Files.isWritable(readOnly));
+        Path candidate = null;
+        try {
+            candidate = ApplyCandidateAction.createCandidateDirectory(installation, "update-candidate");
+
+            assertThat(candidate.getParent()).isEqualTo(Path.of(System.getProperty("java.io.tmpdir")).toAbsolutePath());
+        } finally {
+            readOnly.toFile().setWritable(true);
+            if (candidate != null) {
+                FileUtils.deleteQuietly(candidate.toFile());
+            }
+        }
+    }
+
+    @Test
+    public void candidateDirectoryIsCreatedInConfiguredFolder() throws Exception {
+        final Path candidates = temp.getRoot().toPath().resolve("candidates");
+        System.setProperty(ApplyCandidateAction.CANDIDATE_DIR_PROPERTY, candidates.toString());
+        try {
+            final Path candidate = ApplyCandidateAction.createCandidateDirectory(installationPath, "update-candidate");
+
+            assertThat(candidate.getParent()).isEqualTo(candidates);
+            assertThat(candidate.getFileName().toString()).startsWith("update-candidate");
+        } finally {
+            System.clearProperty(ApplyCandidateAction.CANDIDATE_DIR_PROPERTY);
+        }
+    }
+
     @Test
     public void testUserChangesInSystemPaths() throws Exception {
         final DirState expectedState = dirBuilder
@@ -260,6 +411,7 @@ public class ApplyCandidateActionTest {
                         channel("channels " + FPL_100).trim())
                 .addFile(ArtifactCache.CACHE_FOLDER.toString().replace(File.separatorChar, '/') + "/" + "artifacts.txt" , FPL_101+"::abcd::foo/bar")
                 .skip(METADATA_DIR + "/" + ProsperoMetadataUtils.PROVISIONING_RECORD_XML)
+                .skip(METADATA_DIR + "/" + FsDiffCalculator.HASH_CACHE_FILE)
                 .build();
 
         // build test packages
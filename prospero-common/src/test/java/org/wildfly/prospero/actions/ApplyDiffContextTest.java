@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.actions;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.diff.FsEntry;
+import org.jboss.galleon.util.HashUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApplyDiffContextTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void diffsAreComputedOnce() throws Exception {
+        final Path server = mockServer();
+        final Path candidate = mockServer();
+        Files.writeString(server.resolve("user.txt"), "test");
+        final ApplyDiffContext context = new ApplyDiffContext(server, candidate);
+
+        context.computeAll();
+        final FsDiff serverDiff = context.getServerDiff();
+        final FsEntry candidateHashes = context.getCandidateHashes();
+
+        assertThat(serverDiff.getAddedPaths())
+                .containsExactly("user.txt");
+        assertThat(candidateHashes.hasChildren()).isFalse();
+
+        // further changes are not picked up as the diffs are already computed
+        Files.writeString(candidate.resolve("user.txt"), "test");
+        context.computeAll();
+        assertThat(context.getServerDiff()).isSameAs(serverDiff);
+        assertThat(context.getCandidateHashes()).isSameAs(candidateHashes);
+    }
+
+    @Test
+    public void fileHashesAreTakenFromDiffs() throws Exception {
+        final Path server = mockServer();
+        final Path candidate = mockServer();
+        Files.writeString(server.resolve("user.txt"), "test");
+        final ApplyDiffContext context = new ApplyDiffContext(server, candidate);
+        context.computeAll();
+
+        final byte[] hash = HashUtils.hashPath(server.resolve("user.txt"));
+        Files.writeString(candidate.resolve("other.txt"), "other");
+
+        // the file is not hashed again after the diff was computed
+        Files.writeString(server.resolve("user.txt"), "changed");
+        assertThat(context.getServerHash(Path.of("user.txt")))
+                .isEqualTo(hash);
+        // files not known to the recorded hashes are hashed
+        assertThat(context.getCandidateHash(Path.of("other.txt")))
+                .isEqualTo(HashUtils.hashPath(candidate.resolve("other.txt")));
+    }
+
+    @Test
+    public void candidateHashesAreTakenFromRecordedHashes() throws Exception {
+        final Path server = mockServer();
+        final Path candidate = mockServer();
+        provisionFile(candidate, "bin/run.sh", "run");
+        final byte[] recorded = HashUtils.hashPath(candidate.resolve("bin/run.sh"));
+        final ApplyDiffContext context = new ApplyDiffContext(server, candidate);
+        context.computeAll();
+
+        // the candidate files are not read
+        Files.writeString(candidate.resolve("bin/run.sh"), "changed");
+        assertThat(context.getCandidateHash(Path.of("bin", "run.sh")))
+                .isEqualTo(recorded);
+    }
+
+    @Test
+    public void unmodifiedServerHashesAreTakenFromRecordedHashes() throws Exception {
+        final Path server = mockServer();
+        final Path candidate = mockServer();
+        provisionFile(server, "bin/run.sh", "run");
+        provisionFile(server, "bin/config.txt", "config");
+        final byte[] recorded = HashUtils.hashPath(server.resolve("bin/run.sh"));
+        Files.writeString(server.resolve("bin/config.txt"), "user change");
+        final byte[] modified = HashUtils.hashPath(server.resolve("bin/config.txt"));
+        final ApplyDiffContext context = new ApplyDiffContext(server, candidate);
+        context.computeAll();
+
+        Files.writeString(server.resolve("bin/run.sh"), "changed");
+        Files.writeString(server.resolve("bin/config.txt"), "changed");
+        assertThat(context.getServerHash(Path.of("bin", "run.sh")))
+                .isEqualTo(recorded);
+        assertThat(context.getServerHash(Path.of("bin", "config.txt")))
+                .isEqualTo(modified);
+    }
+
+    private static void provisionFile(Path root, String relativePath, String content) throws IOException {
+        final Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+
+        final Path hashesDir = Files.createDirectories(root.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASHES)
+                .resolve(root.relativize(file).getParent().toString()));
+        final Path hashes = hashesDir.resolve(Constants.HASHES);
+        final String record = file.getFileName() + "\n" + HashUtils.bytesToHexString(HashUtils.hashPath(file)) + "\n";
+        Files.writeString(hashes, Files.exists(hashes) ? Files.readString(hashes) + record : record);
+    }
+
+    private Path mockServer() throws IOException {
+        final Path dir = temp.newFolder().toPath();
+        final Path hashes = Files.createDirectories(dir.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASHES));
+        Files.writeString(hashes.getParent().resolve(Constants.PROVISIONING_XML), "<installation xmlns=\"urn:jboss:galleon:provisioning:3.0\">\n" +
+                "    <feature-pack location=\"org.wildfly:wildfly-galleon-pack:zip\"/>\n" +
+                "</installation>");
+        return dir;
+    }
+}
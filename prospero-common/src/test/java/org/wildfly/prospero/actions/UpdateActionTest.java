@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.actions;
+
+import org.jboss.galleon.util.HashUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.api.InstallationMetadata;
+import org.wildfly.prospero.api.MavenOptions;
+import org.wildfly.prospero.metadata.ManifestVersionRecord;
+import org.wildfly.prospero.model.ProsperoConfig;
+import org.wildfly.prospero.test.MetadataTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UpdateActionTest {
+
+    private static final String MANIFEST_GROUP_ID = "org.test";
+    private static final String MANIFEST_ARTIFACT_ID = "test-manifest";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path installDir;
+    private Path repository;
+    private MavenOptions mavenOptions;
+
+    @Before
+    public void setUp() throws Exception {
+        installDir = temp.newFolder("installation").toPath();
+        repository = temp.newFolder("repository").toPath();
+        mavenOptions = MavenOptions.builder()
+                .setLocalCachePath(temp.newFolder("local").toPath())
+                .build();
+
+        final Channel channel = new Channel("test-channel", null, null,
+                List.of(new Repository("test", repository.toUri().toString())),
+                new ChannelManifestCoordinate(MANIFEST_GROUP_ID, MANIFEST_ARTIFACT_ID), null,
+                Channel.NoStreamStrategy.NONE);
+        try (InstallationMetadata metadata = InstallationMetadata.newInstallation(installDir,
+                MetadataTestUtils.createManifest(List.of(new Stream("org.foo", "bar", "1.0.0"))),
+                new ProsperoConfig(List.of(channel)),
+                Optional.of(manifestVersions("1.0.0")))) {
+            metadata.recordProvision(true);
+        }
+    }
+
+    @Test
+    public void artifactsAreNotComparedIfManifestVersionHasNotChanged() throws Exception {
+        // the installation was provisioned from the same manifest version, the streams are not looked up
+        deployManifest("1.0.0", new Stream("org.foo", "bar", "1.0.1"));
+
+        try (UpdateAction updateAction = new UpdateAction(installDir, mavenOptions, null, Collections.emptyList())) {
+            assertThat(updateAction.hasUpdates()).isFalse();
+        }
+    }
+
+    @Test
+    public void hasUpdatesIfNewManifestUpdatesArtifact() throws Exception {
+        deployManifest("1.0.0", new Stream("org.foo", "bar", "1.0.0"));
+        deployManifest("1.0.1", new Stream("org.foo", "bar", "1.0.1"));
+
+        try (UpdateAction updateAction = new UpdateAction(installDir, mavenOptions, null, Collections.emptyList())) {
+            assertThat(updateAction.hasUpdates()).isTrue();
+        }
+    }
+
+    @Test
+    public void noUpdatesIfNewManifestHasSameArtifacts() throws Exception {
+        deployManifest("1.0.0", new Stream("org.foo", "bar", "1.0.0"));
+        deployManifest("1.0.1", new Stream("org.foo", "bar", "1.0.0"));
+
+        try (UpdateAction updateAction = new UpdateAction(installDir, mavenOptions, null, Collections.emptyList())) {
+            assertThat(updateAction.hasUpdates()).isFalse();
+        }
+    }
+
+    @Test
+    public void sameManifestVersions() {
+        assertThat(UpdateAction.hasSameManifestVersions(manifestVersions("1.0.0"), manifestVersions("1.0.0"),
+                List.of(manifest(new Stream("org.foo", "bar", "1.0.0")))))
+                .isTrue();
+    }
+
+    @Test
+    public void differentManifestVersions() {
+        assertThat(UpdateAction.hasSameManifestVersions(manifestVersions("1.0.0"), manifestVersions("1.0.1"),
+                List.of(manifest(new Stream("org.foo", "bar", "1.0.0")))))
+                .isFalse();
+    }
+
+    @Test
+    public void channelWithoutManifestIsNeverSame() {
+        final ManifestVersionRecord current = new ManifestVersionRecord("1.0.0",
+                List.of(new ManifestVersionRecord.MavenManifest(MANIFEST_GROUP_ID, MANIFEST_ARTIFACT_ID, "1.0.0")),
+                Collections.emptyList(),
+                List.of(new ManifestVersionRecord.NoManifest(List.of("http://test.org"), "LATEST")));
+
+        assertThat(UpdateAction.hasSameManifestVersions(current, current,
+                List.of(manifest(new Stream("org.foo", "bar", "1.0.0")))))
+                .isFalse();
+    }
+
+    @Test
+    public void streamWithVersionPatternIsNeverSame() {
+        assertThat(UpdateAction.hasSameManifestVersions(manifestVersions("1.0.0"), manifestVersions("1.0.0"),
+                List.of(manifest(new Stream("org.foo", "bar", Pattern.compile("1\\..*"))))))
+                .isFalse();
+    }
+
+    private static ManifestVersionRecord manifestVersions(String version) {
+        return new ManifestVersionRecord("1.0.0",
+                List.of(new ManifestVersionRecord.MavenManifest(MANIFEST_GROUP_ID, MANIFEST_ARTIFACT_ID, version)),
+                Collections.emptyList(), Collections.emptyList());
+    }
+
+    private static ChannelManifest manifest(Stream... streams) {
+        return new ChannelManifest(null, null, null, List.of(streams));
+    }
+
+    private void deployManifest(String version, Stream... streams) throws Exception {
+        final Path artifactDir = repository.resolve(MANIFEST_GROUP_ID.replace('.', '/')).resolve(MANIFEST_ARTIFACT_ID);
+        final Path manifest = artifactDir.resolve(version)
+                .resolve(MANIFEST_ARTIFACT_ID + "-" + version + "-" + ChannelManifest.CLASSIFIER + "." + ChannelManifest.EXTENSION);
+        Files.createDirectories(manifest.getParent());
+        writeWithChecksum(manifest, ChannelManifestMapper.toYaml(manifest(streams)));
+
+        final StringBuilder versions = new StringBuilder();
+        try (java.util.stream.Stream<Path> dirs = Files.list(artifactDir)) {
+            dirs.filter(Files::isDirectory).map(d -> d.getFileName().toString()).sorted()
+                    .forEach(v -> versions.append("<version>").append(v).append("</version>"));
+        }
+        writeWithChecksum(artifactDir.resolve("maven-metadata.xml"), "<metadata><groupId>" + MANIFEST_GROUP_ID + "</groupId>"
+                + "<artifactId>" + MANIFEST_ARTIFACT_ID + "</artifactId><versioning><latest>" + version + "</latest>"
+                + "<release>" + version + "</release><versions>" + versions + "</versions></versioning></metadata>");
+    }
+
+    private static void writeWithChecksum(Path file, String content) throws Exception {
+        Files.writeString(file, content);
+        Files.writeString(file.resolveSibling(file.getFileName() + ".sha1"), HashUtils.hashFile(file));
+    }
+}
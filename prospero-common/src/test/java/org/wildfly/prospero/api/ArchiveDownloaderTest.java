@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ArchiveDownloaderTest {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private HttpServer server;
+    private byte[] content;
+    private volatile String etag = "\"v1\"";
+    private volatile boolean acceptRanges = true;
+    // if positive, each response is aborted after sending this many bytes
+    private volatile int abortAfter = -1;
+    private final AtomicInteger getRequests = new AtomicInteger();
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private Path cacheDir;
+    private String url;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new byte[4 * SEGMENT_SIZE + 123];
+        new Random(42).nextBytes(content);
+        cacheDir = temp.newFolder("cache").toPath();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/repo.zip", this::handle);
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/repo.zip";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void downloadArchiveInSegments() throws Exception {
+        final Path archive = downloader(null).download(url);
+
+        assertThat(archive).hasBinaryContent(content);
+        assertThat(rangeRequests.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void archivesAreKeptInUserDirectoryByDefault() throws Exception {
+        final String userHome = System.getProperty("user.home");
+        System.setProperty("user.home", temp.newFolder("home").toString());
+        try {
+            final Path archive = ArchiveDownloader.fromSystemProperties(null).download(url);
+
+            assertThat(archive).hasBinaryContent(content);
+            assertThat(archive).startsWith(ArchiveDownloader.defaultCacheDirectory());
+            assertThat(ArchiveDownloader.defaultCacheDirectory())
+                    .isEqualTo(temp.getRoot().toPath().resolve("home").resolve(".m2").resolve(ArchiveDownloader.DEFAULT_CACHE_DIR));
+            getRequests.set(0);
+
+            // a later run re-uses the archive
+            assertThat(ArchiveDownloader.fromSystemProperties(null).download(url)).isEqualTo(archive);
+            assertThat(getRequests.get()).isZero();
+        } finally {
+            System.setProperty("user.home", userHome);
+        }
+    }
+
+    @Test
+    public void cacheLocationCanBeOverridden() throws Exception {
+        System.setProperty(ArchiveDownloader.DOWNLOAD_CACHE_PROPERTY, cacheDir.toString());
+        try {
+            final Path archive = ArchiveDownloader.fromSystemProperties(null).download(url);
+
+            assertThat(archive).startsWith(cacheDir);
+        } finally {
+            System.clearProperty(ArchiveDownloader.DOWNLOAD_CACHE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void downloadArchiveWithoutRangeSupport() throws Exception {
+        acceptRanges = false;
+
+        final Path archive = downloader(null).download(url);
+
+        assertThat(archive).hasBinaryContent(content);
+        assertThat(getRequests.get()).isEqualTo(1);
+        assertThat(rangeRequests.get()).isZero();
+    }
+
+    @Test
+    public void reuseCachedArchiveIfEtagDidNotChange() throws Exception {
+        downloader(null).download(url);
+        getRequests.set(0);
+
+        final Path archive = downloader(null).download(url);
+
+        assertThat(archive).hasBinaryContent(content);
+        assertThat(getRequests.get()).isZero();
+    }
+
+    @Test
+    public void downloadAgainIfEtagChanged() throws Exception {
+        downloader(null).download(url);
+        getRequests.set(0);
+        new Random(7).nextBytes(content);
+        etag = "\"v2\"";
+
+        final Path archive = downloader(null).download(url);
+
+        assertThat(archive).hasBinaryContent(content);
+        assertThat(getRequests.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void resumeInterruptedDownload() throws Exception {
+        abortAfter = 1024;
+        assertThatThrownBy(() -> downloader(null).download(url))
+                .isInstanceOf(IOException.class);
+        assertThat(cacheDir.resolve(sha1Dir()).resolve(ArchiveDownloader.PART_FILENAME)).exists();
+
+        abortAfter = -1;
+        bytesSent.set(0);
+        final Path archive = downloader(null).download(url);
+
+        assertThat(archive).hasBinaryContent(content);
+        // the already downloaded ranges are not requested again
+        assertThat(bytesSent.get()).isLessThan(content.length);
+    }
+
+    @Test
+    public void restartDownloadIfContentChangedBeforeResuming() throws Exception {
+        abortAfter = 1024;
+        assertThatThrownBy(() -> downloader(null).download(url))
+                .isInstanceOf(IOException.class);
+
+        abortAfter = -1;
+        new Random(7).nextBytes(content);
+        etag = "\"v2\"";
+        final Path archive = downloader(null).download(url);
+
+        assertThat(archive).hasBinaryContent(content);
+    }
+
+    @Test
+    public void reportProgressToConsole() throws Exception {
+        final Console console = mock(Console.class);
+
+        downloader(console).download(url);
+
+        final ArgumentCaptor<ProvisioningProgressEvent> captor = ArgumentCaptor.forClass(ProvisioningProgressEvent.class);
+        verify(console, atLeastOnce()).progressUpdate(captor.capture());
+        final List<ProvisioningProgressEvent> events = captor.getAllValues();
+        assertThat(events).allMatch(e -> e.getStage().equals(ArchiveDownloader.TRACK_REPOSITORY_DOWNLOAD));
+        assertThat(events.get(0).getEventType()).isEqualTo(ProvisioningProgressEvent.EventType.STARTING);
+        final ProvisioningProgressEvent last = events.get(events.size() - 1);
+        assertThat(last.getEventType()).isEqualTo(ProvisioningProgressEvent.EventType.COMPLETED);
+        assertThat(last.getCompleted()).isEqualTo(content.length);
+        assertThat(last.getTotal()).isEqualTo(content.length);
+    }
+
+    private ArchiveDownloader downloader(Console console) {
+        return new ArchiveDownloader(cacheDir, 4, SEGMENT_SIZE, console);
+    }
+
+    private String sha1Dir() throws IOException {
+        try (var entries = Files.list(cacheDir)) {
+            return entries.findFirst().orElseThrow().getFileName().toString();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final byte[] body = content;
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (acceptRanges) {
+            exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Content-Length", Integer.toString(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        getRequests.incrementAndGet();
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        final String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        int from = 0;
+        int to = body.length - 1;
+        int status = 200;
+        if (acceptRanges && range != null && (ifRange == null || ifRange.equals(etag))) {
+            final Matcher matcher = RANGE.matcher(range);
+            if (matcher.matches()) {
+                rangeRequests.incrementAndGet();
+                from = Integer.parseInt(matcher.group(1));
+                to = Math.min(Integer.parseInt(matcher.group(2)), body.length - 1);
+                status = 206;
+                exchange.getResponseHeaders().add("Content-Range",
+                        "bytes " + from + "-" + to + "/" + body.length);
+            }
+        }
+
+        final int length = to - from + 1;
+        final int sent = abortAfter > 0 ? Math.min(abortAfter, length) : length;
+        // an incomplete response is sent as chunked, so the client only detects the missing bytes by the Content-Range
+        exchange.sendResponseHeaders(status, sent < length ? 0 : length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body, from, sent);
+            bytesSent.addAndGet(sent);
+        }
+    }
+}
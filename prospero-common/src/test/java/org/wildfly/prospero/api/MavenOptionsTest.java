@@ -21,11 +21,16 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MavenOptionsTest {
 
@@ -156,4 +161,89 @@ public class MavenOptionsTest {
         assertEquals(base, MavenOptions.read(target));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void mergeConnectionOptions() throws Exception {
+        MavenOptions base = MavenOptions.builder()
+                .setDownloadThreads(4)
+                .setMaxConnectionsPerRoute(10)
+                .setConnectTimeout(1000)
+                .build();
+
+        MavenOptions override = MavenOptions.builder()
+                .setDownloadThreads(8)
+                .setRequestTimeout(2000)
+                .build();
+
+        final MavenOptions merged = base.merge(override);
+        assertEquals(Integer.valueOf(8), merged.getDownloadThreads());
+        assertEquals(Integer.valueOf(10), merged.getMaxConnectionsPerRoute());
+        assertNull(merged.getConnectionTtl());
+        assertEquals(Integer.valueOf(1000), merged.getConnectTimeout());
+        assertEquals(Integer.valueOf(2000), merged.getRequestTimeout());
+    }
+
+    @Test
+    public void readWriteConnectionOptions() throws Exception {
+        Path target = temp.newFile().toPath();
+        MavenOptions.DEFAULT_OPTIONS.write(target);
+        assertFalse(Files.readString(target).contains("downloadThreads"));
+
+        final MavenOptions base = MavenOptions.builder()
+                .setOffline(false)
+                .setNoLocalCache(true)
+                .setDownloadThreads(8)
+                .setMaxConnectionsPerRoute(20)
+                .setConnectionTtl(60)
+                .setConnectTimeout(5000)
+                .setRequestTimeout(60000)
+                .build();
+        base.write(target);
+        assertEquals(base, MavenOptions.read(target));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void downloadThreadsHaveToBePositive() throws Exception {
+        MavenOptions.builder().setDownloadThreads(0);
+    }
+
+    @Test
+    public void readRejectsNonPositiveConnectionOptions() throws Exception {
+        Path target = temp.newFile().toPath();
+        for (String option : List.of("downloadThreads", "maxConnectionsPerRoute", "connectionTtl", "connectTimeout", "requestTimeout")) {
+            Files.writeString(target, "offline: false\n" + option + ": 0\n");
+            try {
+                MavenOptions.read(target);
+                fail("Expected " + option + " to be rejected");
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(option + " has to be a positive number: 0"));
+            }
+        }
+    }
+
+    @Test
+    public void readWriteSharedLocalCaches() throws Exception {
+        Path target = temp.newFile().toPath();
+
+        final MavenOptions base = MavenOptions.builder()
+                .setOffline(false)
+                .setNoLocalCache(true)
+                .setSharedLocalCaches(List.of(Path.of("foo"), Path.of("bar")))
+                .build();
+        base.write(target);
+
+        final MavenOptions read = MavenOptions.read(target);
+        assertEquals(base, read);
+        assertEquals(List.of(Path.of("foo").toAbsolutePath(), Path.of("bar").toAbsolutePath()), read.getSharedLocalCaches());
+    }
+
+    @Test
+    public void mergeSharedLocalCaches() throws Exception {
+        MavenOptions base = MavenOptions.builder()
+                .setSharedLocalCaches(List.of(Path.of("foo")))
+                .build();
+
+        assertEquals(List.of(Path.of("foo").toAbsolutePath()), base.merge(MavenOptions.DEFAULT_OPTIONS).getSharedLocalCaches());
+        assertEquals(List.of(Path.of("bar").toAbsolutePath()), base.merge(MavenOptions.builder()
+                .setSharedLocalCaches(List.of(Path.of("bar"))).build()).getSharedLocalCaches());
+    }
+}
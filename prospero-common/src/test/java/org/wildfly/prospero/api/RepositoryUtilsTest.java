@@ -110,6 +110,39 @@ public class RepositoryUtilsTest {
         }
     }
 
+    @Test
+    public void serveArchiveInPlace() throws Exception {
+        final Path repoRoot = temp.newFolder("repo").toPath();
+        final Path zipFile = createRepository(repoRoot);
+        System.setProperty(RepositoryUtils.IN_PLACE_ARCHIVES_PROPERTY, "true");
+        try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
+            final List<Repository> repositories = RepositoryUtils.unzipArchives(
+                    List.of(repo("temp-0", zipFile.toUri().toString())), temporaryFiles);
+
+            assertThat(repositories.get(0).getUrl())
+                    .isEqualTo("jar:" + zipFile.toFile().toURI() + "!/test-repository/maven-repository/");
+        } finally {
+            System.clearProperty(RepositoryUtils.IN_PLACE_ARCHIVES_PROPERTY);
+        }
+    }
+
+    @Test
+    public void failIfTheArchiveServedInPlaceHasNoMavenRepositoryDirectory() throws Exception {
+        final Path repoRoot = temp.newFolder("repo-root").toPath();
+        Files.createDirectory(repoRoot.resolve("test"));
+        Files.writeString(repoRoot.resolve("test").resolve("test.txt"), "test");
+        final Path repoZip = temp.newFile("repo.zip").toPath();
+        Files.delete(repoZip);
+        ZipUtils.zip(repoRoot, repoZip);
+        System.setProperty(RepositoryUtils.IN_PLACE_ARCHIVES_PROPERTY, "true");
+        try (TemporaryFilesManager temporaryFiles = TemporaryFilesManager.newInstance()) {
+            assertThatThrownBy(() -> RepositoryUtils.unzipArchives(List.of(repo("temp-0", repoZip.toUri().toString())), temporaryFiles))
+                    .isInstanceOf(InvalidRepositoryArchiveException.class);
+        } finally {
+            System.clearProperty(RepositoryUtils.IN_PLACE_ARCHIVES_PROPERTY);
+        }
+    }
+
     @Test
     public void failIfTheArchiveHasNoFiles() throws Exception {
         final Path repoRoot = temp.newFolder("repo-root").toPath();
@@ -27,6 +27,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,6 +53,7 @@ public class ArtifactCacheTest {
 
     @Before
     public void setUp() throws Exception {
+        ArtifactCache.cleanInstancesCache();
         anArtifact = new MavenArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION, temp.newFile("test.jar"));
         otherArtifact = new MavenArtifact(GROUP_ID + "Two", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION, temp.newFile("testTwo.jar"));
         installationDir = temp.newFolder().toPath();
@@ -85,6 +88,7 @@ public class ArtifactCacheTest {
     @Test
     public void recordCreatesCacheListIfNotPresent() throws Exception {
         cache.record(anArtifact, installationDir.resolve("target.jar"));
+        cache.compact();
 
         final String line = Files.readString(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
         assertThat(line)
@@ -98,6 +102,7 @@ public class ArtifactCacheTest {
         cache.record(anArtifact, installationDir.resolve("target.jar"));
         cache.record(otherArtifact, installationDir.resolve("target2.jar"));
         cache.record(anArtifact, installationDir.resolve("target3.jar"));
+        cache.compact();
 
         final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
         assertEquals(2, lines.size());
@@ -110,6 +115,7 @@ public class ArtifactCacheTest {
     @Test
     public void cacheAddsArtifactToCacheFolderAndRecordsIt() throws Exception {
         cache.cache(anArtifact);
+        cache.compact();
 
         final List<String> line = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
         assertEquals(1, line.size());
@@ -156,6 +162,7 @@ public class ArtifactCacheTest {
     public void cacheRecordsArtifactsInAlphabeticOrder() throws Exception {
         cache.cache(otherArtifact);
         cache.cache(anArtifact);
+        cache.compact();
 
         final List<String> line = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
         assertEquals(2, line.size());
@@ -164,4 +171,174 @@ public class ArtifactCacheTest {
         assertThat(line.get(1))
                 .contains(otherArtifact.getGroupId() + ":" + ARTIFACT_ID);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void cacheRecordsFileFingerprint() throws Exception {
+        cache.cache(anArtifact);
+        cache.compact();
+
+        final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
+        final Path cachedFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(anArtifact.getFile().getName());
+        assertThat(lines.get(0))
+                .endsWith(ArtifactCache.FileFingerprint.of(cachedFile).asString());
+    }
+
+    @Test
+    public void getArtifactDoesntRehashFileIfFingerprintMatches() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        cache.cache(anArtifact);
+        final Path cachedFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(anArtifact.getFile().getName());
+        final FileTime lastModified = Files.getLastModifiedTime(cachedFile);
+        // change content keeping the size and modification time
+        Files.writeString(cachedFile, "CONTENT");
+        Files.setLastModifiedTime(cachedFile, lastModified);
+
+        assertThat(cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+
+        System.setProperty(ArtifactCache.PARANOID_MODE_PROPERTY, "true");
+        try {
+            assertThat(cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                    .isEmpty();
+        } finally {
+            System.clearProperty(ArtifactCache.PARANOID_MODE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void getArtifactVerifiesHashOfRecordWithoutFingerprint() throws Exception {
+        ArtifactCache.cleanInstancesCache();
+        final Path newFolder = temp.newFolder().toPath();
+        Files.createDirectories(newFolder.resolve(ArtifactCache.CACHE_FOLDER));
+        Files.writeString(newFolder.resolve("test.jar"), "content");
+        final String hash = org.jboss.galleon.util.HashUtils.hashFile(newFolder.resolve("test.jar"));
+        Files.writeString(newFolder.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME),
+                String.join(":", GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION) + "::" + hash + "::test.jar");
+        final ArtifactCache legacyCache = ArtifactCache.getInstance(newFolder);
+
+        assertThat(legacyCache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+
+        Files.writeString(newFolder.resolve("test.jar"), "changed");
+        assertThat(legacyCache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isEmpty();
+    }
+
+    @Test
+    public void recordAppendsToJournalUntilCompacted() throws Exception {
+        final Path cacheList = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME);
+        final Path journal = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.JOURNAL_FILENAME);
+
+        cache.cache(otherArtifact);
+        cache.cache(anArtifact);
+
+        assertThat(cacheList).doesNotExist();
+        assertThat(Files.readAllLines(journal))
+                .hasSize(2);
+
+        cache.compact();
+
+        assertThat(journal).doesNotExist();
+        assertThat(Files.readAllLines(cacheList))
+                .hasSize(2);
+    }
+
+    @Test
+    public void journaledRecordsAreReplayedWhenCacheIsOpened() throws Exception {
+        cache.cache(anArtifact);
+        cache.compact();
+        cache.cache(otherArtifact);
+        ArtifactCache.cleanInstancesCache();
+
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertThat(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+        assertThat(reopened.getArtifact(GROUP_ID + "Two", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+    }
+
+    @Test
+    public void truncatedJournalRecordIsDiscarded() throws Exception {
+        final Path journal = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.JOURNAL_FILENAME);
+        cache.cache(anArtifact);
+        ArtifactCache.cleanInstancesCache();
+        Files.writeString(journal, "group:incompl", StandardOpenOption.APPEND);
+
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+        reopened.cache(otherArtifact);
+        reopened.compact();
+
+        final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
+        assertThat(lines)
+                .hasSize(2)
+                .noneMatch(l -> l.contains("incompl"));
+    }
+
+    @Test
+    public void cacheAllAddsAllArtifactsToCacheFolderAndRecordsThem() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "one");
+        Files.writeString(otherArtifact.getFile().toPath(), "two");
+
+        cache.cacheAll(List.of(otherArtifact, anArtifact));
+        cache.compact();
+
+        final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith(GROUP_ID + ":" + ARTIFACT_ID);
+        assertThat(lines.get(1)).startsWith(otherArtifact.getGroupId() + ":" + ARTIFACT_ID);
+        assertThat(cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .hasValueSatisfying(f -> assertThat(f).hasContent("one"));
+        assertThat(cache.getArtifact(otherArtifact.getGroupId(), ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .hasValueSatisfying(f -> assertThat(f).hasContent("two"));
+    }
+
+    @Test
+    public void compactWritesIndexUsedWhenCacheIsOpened() throws Exception {
+        cache.cache(anArtifact);
+        cache.cache(otherArtifact);
+        cache.compact();
+        ArtifactCache.cleanInstancesCache();
+
+        assertThat(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.INDEX_FILENAME))
+                .exists();
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+        assertThat(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+        assertThat(reopened.getArtifact(GROUP_ID + "Two", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+        assertThat(reopened.getArtifact(GROUP_ID + "Three", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isEmpty();
+    }
+
+    @Test
+    public void indexIsIgnoredIfDescriptorChanged() throws Exception {
+        cache.cache(anArtifact);
+        cache.compact();
+        ArtifactCache.cleanInstancesCache();
+        // descriptor re-written e.g. by Galleon plugins
+        final Path cacheList = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME);
+        Files.writeString(cacheList, Files.readString(cacheList).replace(GROUP_ID + ":", GROUP_ID + "Three:"));
+
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertThat(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isEmpty();
+        assertThat(reopened.getArtifact(GROUP_ID + "Three", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+    }
+
+    @Test
+    public void indexIsUsedIfDescriptorWasCopied() throws Exception {
+        cache.cache(anArtifact);
+        cache.compact();
+        ArtifactCache.cleanInstancesCache();
+        final Path cacheList = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME);
+        Files.setLastModifiedTime(cacheList, FileTime.fromMillis(Files.getLastModifiedTime(cacheList).toMillis() - 10_000));
+
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertThat(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+    }
+}
@@ -23,6 +23,11 @@ import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.installation.InstallRequest;
 import org.eclipse.aether.installation.InstallationException;
+import org.eclipse.aether.repository.LocalArtifactRegistration;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.jboss.galleon.universe.maven.MavenArtifact;
 import org.jboss.galleon.universe.maven.MavenUniverseException;
 import org.junit.Before;
@@ -42,17 +47,22 @@ import org.wildfly.channel.ChannelMetadataCoordinate;
 import org.wildfly.channel.spi.MavenVersionsResolver;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -106,6 +116,21 @@ public class CachedVersionResolverTest {
         verify(mockResolver).resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
     }
 
+    @Test
+    public void testSharedStoreMatchesCoordinatesResolverNotCalled() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        final SharedArtifactStore sharedStore = new SharedArtifactStore(temp.newFolder().toPath());
+        sharedStore.store(new org.wildfly.channel.MavenArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(),
+                ARTIFACT.getClassifier(), ARTIFACT.getVersion(), testJar), org.jboss.galleon.util.HashUtils.hashFile(testJar.toPath()));
+        when(artifactCache.getArtifact(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        resolver = new CachedVersionResolver(mockResolver, artifactCache, sharedStore, system, session, manifestVersionProvider);
+
+        File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+
+        verify(mockResolver, never()).resolveArtifact(any(), any(), any(), any(), any());
+        assertThat(resolved).hasSameBinaryContentAs(testJar);
+    }
+
     @Test
     public void testCacheMatchesCoordinatesResolverNotCalled() throws Exception {
         final File testJar = temp.newFile("test.jar");
@@ -198,6 +223,176 @@ public class CachedVersionResolverTest {
         assertEquals("artifactTwo", listCaptor.getValue().get(1).getArtifactId());
     }
 
+    @Test
+    public void testBulkResolveKeepsOrderOfCachedAndMissingArtifacts() throws Exception {
+        final List<ArtifactCoordinate> coordinates = new ArrayList<>();
+        final List<File> expected = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            final ArtifactCoordinate coordinate = new ArtifactCoordinate(ARTIFACT.getGroupId(), "artifact" + i, ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+            final File file = temp.newFile("test" + i + ".jar");
+            coordinates.add(coordinate);
+            expected.add(file);
+            when(artifactCache.getArtifact(ARTIFACT.getGroupId(), "artifact" + i, ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                    .thenReturn(i % 3 == 0 ? Optional.empty() : Optional.of(file));
+        }
+        when(mockResolver.resolveArtifacts(any())).thenAnswer(inv -> {
+            final List<ArtifactCoordinate> requested = inv.getArgument(0);
+            return requested.stream()
+                    .map(c -> expected.get(Integer.parseInt(c.getArtifactId().substring("artifact".length()))))
+                    .collect(Collectors.toList());
+        });
+
+        final List<File> resolved = resolver.resolveArtifacts(coordinates);
+
+        assertThat(resolved)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void testBulkResolveInstallsCachedArtifactsInSingleRequest() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        final File testJar2 = temp.newFile("test2.jar");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar2));
+
+        final List<File> resolved = resolver.resolveArtifacts(List.of(
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()),
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion())));
+
+        assertThat(resolved)
+                .containsExactly(testJar, testJar2);
+        verify(system, times(1)).install(eq(session), requestCaptor.capture());
+        assertThat(requestCaptor.getValue().getArtifacts())
+                .map(Artifact::getFile)
+                .containsExactlyInAnyOrder(testJar, testJar2);
+        verify(mockResolver, never()).resolveArtifacts(any());
+    }
+
+    @Test
+    public void testHardlinkModeLinksCachedArtifactIntoLocalRepository() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        final Path localRepository = temp.newFolder("local-repo").toPath();
+        final LocalRepositoryManager localRepositoryManager = mock(LocalRepositoryManager.class);
+        when(session.getLocalRepositoryManager()).thenReturn(localRepositoryManager);
+        when(localRepositoryManager.getRepository()).thenReturn(new LocalRepository(localRepository.toFile()));
+        when(localRepositoryManager.getPathForLocalArtifact(any())).thenReturn("group/artifact/1.0.0/artifact-1.0.0-classifier.jar");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        System.setProperty(CachedVersionResolver.LOCAL_INSTALL_MODE_PROPERTY, "hardlink");
+        try {
+            resolver = new CachedVersionResolver(mockResolver, artifactCache, system, session, manifestVersionProvider);
+        } finally {
+            System.clearProperty(CachedVersionResolver.LOCAL_INSTALL_MODE_PROPERTY);
+        }
+
+        final File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+
+        assertEquals(testJar, resolved);
+        assertThat(Files.isSameFile(testJar.toPath(), localRepository.resolve("group/artifact/1.0.0/artifact-1.0.0-classifier.jar")))
+                .isTrue();
+        verify(localRepositoryManager).add(eq(session), any(LocalArtifactRegistration.class));
+        verify(system, never()).install(any(), any());
+    }
+
+    @Test
+    public void testOfflineFirstUsesArtifactFromLocalRepository() throws Exception {
+        final Path localRepository = temp.newFolder("local-repo").toPath();
+        final Path localJar = localRepository.resolve("group/artifact/1.0.0/artifact-1.0.0-classifier.jar");
+        Files.createDirectories(localJar.getParent());
+        Files.writeString(localJar, "test");
+        mockLocalRepository(localJar);
+        when(artifactCache.getArtifact(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        resolver = createOfflineFirstResolver();
+
+        final File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+
+        assertEquals(localJar.toFile(), resolved);
+        verify(mockResolver, never()).resolveArtifact(any(), any(), any(), any(), any());
+        // the artifact is already in the local repository
+        verify(system, never()).install(any(), any());
+    }
+
+    @Test
+    public void testOfflineFirstUsesArtifactFromSharedLocalRepository() throws Exception {
+        // the artifact is found in a read-only shared repository, outside of the writable local repository
+        final Path sharedRepository = temp.newFolder("shared-repo").toPath();
+        final Path sharedJar = sharedRepository.resolve("group/artifact/1.0.0/artifact-1.0.0-classifier.jar");
+        Files.createDirectories(sharedJar.getParent());
+        Files.writeString(sharedJar, "test");
+        mockLocalRepository(sharedJar);
+        when(artifactCache.getArtifact(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        resolver = createOfflineFirstResolver();
+
+        final File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+
+        assertEquals(sharedJar.toFile(), resolved);
+        verify(mockResolver, never()).resolveArtifact(any(), any(), any(), any(), any());
+        verify(system, never()).install(any(), any());
+    }
+
+    @Test
+    public void testOfflineFirstResolvesMissingArtifactsRemotely() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        mockLocalRepository(null);
+        when(artifactCache.getArtifact(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(mockResolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(testJar);
+        resolver = createOfflineFirstResolver();
+
+        final File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+
+        assertEquals(testJar, resolved);
+    }
+
+    @Test
+    public void testOfflineFirstIgnoresSnapshots() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        when(artifactCache.getArtifact(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(mockResolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), "1.0.0-SNAPSHOT"))
+                .thenReturn(testJar);
+        resolver = createOfflineFirstResolver();
+
+        final File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), "1.0.0-SNAPSHOT");
+
+        assertEquals(testJar, resolved);
+        verify(session, never()).getLocalRepositoryManager();
+    }
+
+    @Test
+    public void testOfflineFirstIgnoresTimestampedSnapshots() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        when(artifactCache.getArtifact(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(mockResolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), "1.0.0-20240101.120000-1"))
+                .thenReturn(testJar);
+        resolver = createOfflineFirstResolver();
+
+        final File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), "1.0.0-20240101.120000-1");
+
+        assertEquals(testJar, resolved);
+        verify(session, never()).getLocalRepositoryManager();
+    }
+
+    private CachedVersionResolver createOfflineFirstResolver() {
+        System.setProperty(CachedVersionResolver.OFFLINE_FIRST_PROPERTY, "true");
+        try {
+            return new CachedVersionResolver(mockResolver, artifactCache, system, session, manifestVersionProvider);
+        } finally {
+            System.clearProperty(CachedVersionResolver.OFFLINE_FIRST_PROPERTY);
+        }
+    }
+
+    private void mockLocalRepository(Path localFile) {
+        final LocalRepositoryManager localRepositoryManager = mock(LocalRepositoryManager.class);
+        when(session.getLocalRepositoryManager()).thenReturn(localRepositoryManager);
+        final LocalArtifactResult result = new LocalArtifactResult(new LocalArtifactRequest());
+        if (localFile != null) {
+            result.setFile(localFile.toFile());
+        }
+        when(localRepositoryManager.find(eq(session), any(LocalArtifactRequest.class))).thenReturn(result);
+    }
+
     @Test
     public void testResolveChannelMetadata_FallbackFailsIfNoCurrentVersionFound() throws Exception {
         final ArtifactTransferException resolutionException = new ArtifactTransferException("",
@@ -20,19 +20,45 @@ package org.wildfly.prospero.galleon;
 import org.jboss.galleon.universe.maven.MavenArtifact;
 import org.jboss.galleon.universe.maven.MavenUniverseException;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.wildfly.channel.ArtifactCoordinate;
 import org.wildfly.channel.ArtifactTransferException;
+import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelSession;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ChannelMavenArtifactRepositoryManagerTest {
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Mock
     private ChannelSession session;
 
@@ -57,4 +83,169 @@ public class ChannelMavenArtifactRepositoryManagerTest {
         artifact.setExtension("zip");
         assertThrows(MavenUniverseException.class, ()->repositoryManager.resolve(artifact));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFeaturePackInspectedOnlyOnceInResolveAll() throws Exception {
+        final File zip = createZip();
+        when(session.resolveDirectMavenArtifact("foo", "bar", "zip", "", "1.0.0"))
+                .thenReturn(new org.wildfly.channel.MavenArtifact("foo", "bar", "zip", "", "1.0.0", zip));
+
+        repositoryManager.resolveAll(List.of(zipArtifact()));
+
+        verify(session, times(1)).resolveDirectMavenArtifact("foo", "bar", "zip", "", "1.0.0");
+    }
+
+    @Test
+    public void testResolutionPoliciesArePersisted() throws Exception {
+        final File zip = createZip();
+        when(session.resolveDirectMavenArtifact("foo", "bar", "zip", "", "1.0.0"))
+                .thenReturn(new org.wildfly.channel.MavenArtifact("foo", "bar", "zip", "", "1.0.0", zip));
+        final Path installDir = temp.newFolder("installation").toPath();
+        Files.createDirectories(installDir.resolve(ProsperoMetadataUtils.METADATA_DIR));
+
+        final ChannelMavenArtifactRepositoryManager firstSession = new ChannelMavenArtifactRepositoryManager(session,
+                ChannelResolutionPolicies.load(installDir));
+        firstSession.resolveAll(List.of(zipArtifact()));
+        firstSession.storeResolutionPolicies(installDir);
+
+        assertThat(installDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ChannelResolutionPolicies.POLICIES_FILENAME))
+                .exists();
+        final ChannelResolutionPolicies loaded = ChannelResolutionPolicies.load(installDir);
+        assertThat(loaded.get(zipArtifact())).contains(false);
+
+        final ChannelSession secondChannelSession = mock(ChannelSession.class);
+        new ChannelMavenArtifactRepositoryManager(secondChannelSession, loaded).resolveAll(List.of(zipArtifact()));
+
+        verify(secondChannelSession, never()).resolveDirectMavenArtifact(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testSnapshotFeaturePackIsInspectedEveryTime() throws Exception {
+        final File zip = createZip();
+        final String version = "1.0.0-20240101.120000-1";
+        when(session.resolveDirectMavenArtifact("foo", "bar", "zip", "", version))
+                .thenReturn(new org.wildfly.channel.MavenArtifact("foo", "bar", "zip", "", version, zip));
+        final MavenArtifact artifact = zipArtifact();
+        artifact.setVersion(version);
+
+        repositoryManager.resolveAll(List.of(artifact));
+        repositoryManager.resolveAll(List.of(artifact));
+
+        verify(session, times(2)).resolveDirectMavenArtifact("foo", "bar", "zip", "", version);
+    }
+
+    @Test
+    public void testSnapshotPoliciesAreNotRecorded() throws Exception {
+        final ChannelResolutionPolicies policies = new ChannelResolutionPolicies();
+        final MavenArtifact snapshot = zipArtifact();
+        snapshot.setVersion("1.0.0-SNAPSHOT");
+        final MavenArtifact timestampedSnapshot = zipArtifact();
+        timestampedSnapshot.setVersion("1.0.0-20240101.120000-1");
+
+        policies.put(snapshot, true);
+        policies.put(timestampedSnapshot, true);
+        policies.put(zipArtifact(), true);
+
+        assertThat(policies.get(snapshot)).isEmpty();
+        assertThat(policies.get(timestampedSnapshot)).isEmpty();
+        assertThat(policies.get(zipArtifact())).contains(true);
+        assertThat(policies.size()).isEqualTo(1);
+    }
+
+    private static MavenArtifact zipArtifact() {
+        final MavenArtifact artifact = new MavenArtifact();
+        artifact.setGroupId("foo");
+        artifact.setArtifactId("bar");
+        artifact.setVersion("1.0.0");
+        artifact.setExtension("zip");
+        artifact.setClassifier("");
+        return artifact;
+    }
+
+    private File createZip() throws Exception {
+        final File zip = temp.newFile("test.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip))) {
+            zos.putNextEntry(new ZipEntry("test.txt"));
+            zos.write("test".getBytes());
+            zos.closeEntry();
+        }
+        return zip;
+    }
+
+    @Test
+    public void testResolveFromManifestPrefersExactStreamOverWildcard() throws Exception {
+        final ChannelManifest manifest = new ChannelManifest(null, null, null, List.of(
+                new Stream("foo", "*", "2.0.0"),
+                new Stream("foo", "bar", "1.0.0")));
+        final File jar = temp.newFile("test.jar");
+        when(session.resolveDirectMavenArtifact("foo", "bar", "jar", "", "1.0.0"))
+                .thenReturn(new org.wildfly.channel.MavenArtifact("foo", "bar", "jar", "", "1.0.0", jar));
+        when(session.resolveDirectMavenArtifact("foo", "baz", "jar", "", "2.0.0"))
+                .thenReturn(new org.wildfly.channel.MavenArtifact("foo", "baz", "jar", "", "2.0.0", jar));
+        final ChannelMavenArtifactRepositoryManager manager = new ChannelMavenArtifactRepositoryManager(session, manifest);
+
+        final MavenArtifact exact = jarArtifact("foo", "bar");
+        manager.resolve(exact);
+        final MavenArtifact wildcard = jarArtifact("foo", "baz");
+        manager.resolve(wildcard);
+
+        assertThat(exact.getVersion()).isEqualTo("1.0.0");
+        assertThat(wildcard.getVersion()).isEqualTo("2.0.0");
+        assertThrows(MavenUniverseException.class, () -> manager.resolve(jarArtifact("other", "bar")));
+    }
+
+    private static MavenArtifact jarArtifact(String groupId, String artifactId) {
+        final MavenArtifact artifact = new MavenArtifact();
+        artifact.setGroupId(groupId);
+        artifact.setArtifactId(artifactId);
+        artifact.setExtension("jar");
+        artifact.setClassifier("");
+        return artifact;
+    }
+
+    @Test
+    public void testResolveAllInChunksConcurrently() throws Exception {
+        final File jar = temp.newFile("test.jar");
+        when(session.resolveMavenArtifacts(anyList())).thenAnswer(inv -> {
+            final List<ArtifactCoordinate> coords = inv.getArgument(0);
+            return coords.stream()
+                    .map(c -> new org.wildfly.channel.MavenArtifact(c.getGroupId(), c.getArtifactId(), c.getExtension(),
+                            c.getClassifier(), "1.0.0.Final", jar))
+                    .collect(Collectors.toList());
+        });
+        final List<MavenArtifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final MavenArtifact artifact = jarArtifact("foo", "bar" + i);
+            artifact.setVersion("1.0.0");
+            artifacts.add(artifact);
+        }
+
+        System.setProperty(ChannelMavenArtifactRepositoryManager.RESOLVE_PARALLELISM_PROPERTY, "3");
+        System.setProperty(ChannelMavenArtifactRepositoryManager.RESOLVE_CHUNK_SIZE_PROPERTY, "2");
+        try {
+            repositoryManager.resolveAll(artifacts);
+        } finally {
+            System.clearProperty(ChannelMavenArtifactRepositoryManager.RESOLVE_PARALLELISM_PROPERTY);
+            System.clearProperty(ChannelMavenArtifactRepositoryManager.RESOLVE_CHUNK_SIZE_PROPERTY);
+        }
+
+        verify(session, times(3)).resolveMavenArtifacts(anyList());
+        assertThat(artifacts)
+                .allMatch(a -> a.getVersion().equals("1.0.0.Final"))
+                .allMatch(a -> jar.toPath().equals(a.getPath()));
+    }
+
+    @Test
+    public void testResolveAllConcurrentlyPropagatesFailure() throws Exception {
+        when(session.resolveMavenArtifacts(anyList())).thenThrow(ArtifactTransferException.class);
+        final MavenArtifact artifact = jarArtifact("foo", "bar");
+        artifact.setVersion("1.0.0");
+
+        System.setProperty(ChannelMavenArtifactRepositoryManager.RESOLVE_PARALLELISM_PROPERTY, "3");
+        try {
+            assertThrows(MavenUniverseException.class, () -> repositoryManager.resolveAll(List.of(artifact)));
+        } finally {
+            System.clearProperty(ChannelMavenArtifactRepositoryManager.RESOLVE_PARALLELISM_PROPERTY);
+        }
+    }
+}
@@ -33,6 +33,14 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.wildfly.prospero.api.Console;
 import org.wildfly.prospero.api.ProvisioningProgressEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
@@ -120,6 +128,33 @@ public class DownloadsCallbackAdapterTest {
         assertEquals("test2.jar", event.getCurrentItem());
     }
 
+    @Test
+    public void countConcurrentTransfers() throws Exception {
+        tracker.starting(100);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final String name = "test" + i + ".jar";
+                futures.add(executor.submit(() -> adapter.transferSucceeded(
+                        new TransferEvent.Builder(session, new TransferResource(null, null, name, null, null))
+                                .setTransferredBytes(1024).build())));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Mockito.verify(console, Mockito.times(101)).progressUpdate(progressEventCaptor.capture());
+        assertThat(progressEventCaptor.getAllValues())
+                .filteredOn(e -> e.getEventType() == ProvisioningProgressEvent.EventType.UPDATE)
+                .map(ProvisioningProgressEvent::getCompleted)
+                .containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList()));
+    }
+
     private ProvisioningProgressEvent getProgressEvent() {
         Mockito.verify(console, Mockito.atLeastOnce()).progressUpdate(progressEventCaptor.capture());
         return progressEventCaptor.getValue();
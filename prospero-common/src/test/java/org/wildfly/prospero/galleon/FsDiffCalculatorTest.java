@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.util.HashUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FsDiffCalculatorTest {
+
+    private static final String METADATA_DIR = ProsperoMetadataUtils.METADATA_DIR + "/";
+    private static final FileTime AN_HOUR_AGO = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = temp.newFolder("server").toPath();
+        final Path galleon = Files.createDirectories(server.resolve(Constants.PROVISIONED_STATE_DIR));
+        Files.writeString(galleon.resolve(Constants.PROVISIONING_XML), "<installation/>");
+        Files.createDirectories(server.resolve(ProsperoMetadataUtils.METADATA_DIR));
+        provisionFile("bin/run.sh", "run");
+        provisionFile("bin/config.txt", "config");
+        provisionFile("modules/a/module.xml", "module");
+        provisionFile("README.txt", "readme");
+    }
+
+    @Test
+    public void noChangesInProvisionedServer() throws Exception {
+        assertThat(FsDiffCalculator.hasRecordedHashes(server)).isTrue();
+
+        assertNoChanges(new FsDiffCalculator(server, 2).calculate());
+    }
+
+    @Test
+    public void findAddedModifiedAndRemovedFiles() throws Exception {
+        Files.writeString(server.resolve("bin/config.txt"), "changed");
+        Files.delete(server.resolve("modules/a/module.xml"));
+        Files.writeString(server.resolve("bin/user.txt"), "user");
+        Files.writeString(server.resolve("bin/run.sh.glnew"), "ignored");
+
+        final FsDiff diff = new FsDiffCalculator(server, 2).calculate();
+
+        assertThat(diff.getModifiedPaths()).containsExactly("bin/config.txt");
+        assertThat(diff.getRemovedPaths()).containsExactly("modules/a/module.xml");
+        assertThat(diff.getAddedPaths()).containsExactlyInAnyOrder("bin/user.txt", METADATA_DIR);
+        assertThat(diff.getAddedEntry("bin/user.txt").getPath()).isEqualTo(server.resolve("bin/user.txt"));
+    }
+
+    @Test
+    public void reuseCachedHashesOfUnmodifiedFiles() throws Exception {
+        new FsDiffCalculator(server, 2).calculate();
+        assertThat(server.resolve(ProsperoMetadataUtils.METADATA_DIR).resolve(FsDiffCalculator.HASH_CACHE_FILE)).exists();
+
+        // same size and modification time - the cached hash is used
+        Files.writeString(server.resolve("bin/config.txt"), "CONFIG");
+        Files.setLastModifiedTime(server.resolve("bin/config.txt"), AN_HOUR_AGO);
+
+        assertNoChanges(new FsDiffCalculator(server, 2).calculate());
+    }
+
+    @Test
+    public void rehashFilesWithChangedModificationTime() throws Exception {
+        new FsDiffCalculator(server, 2).calculate();
+
+        Files.writeString(server.resolve("bin/config.txt"), "CONFIG");
+        Files.setLastModifiedTime(server.resolve("bin/config.txt"), FileTime.from(AN_HOUR_AGO.toInstant().plusSeconds(1)));
+
+        assertThat(new FsDiffCalculator(server, 2).calculate().getModifiedPaths())
+                .containsExactly("bin/config.txt");
+    }
+
+    @Test
+    public void recentlyModifiedFilesAreAlwaysRehashed() throws Exception {
+        final Path config = server.resolve("bin/config.txt");
+        final FileTime now = FileTime.from(Instant.now());
+        Files.setLastModifiedTime(config, now);
+        new FsDiffCalculator(server, 2).calculate();
+
+        // the file could have been changed in the same instant it was hashed
+        Files.writeString(config, "CONFIG");
+        Files.setLastModifiedTime(config, now);
+
+        assertThat(new FsDiffCalculator(server, 2).calculate().getModifiedPaths())
+                .containsExactly("bin/config.txt");
+    }
+
+    @Test
+    public void ignoreCorruptedCache() throws Exception {
+        Files.writeString(server.resolve(ProsperoMetadataUtils.METADATA_DIR).resolve(FsDiffCalculator.HASH_CACHE_FILE),
+                "v2\tfoo\nbar");
+        Files.writeString(server.resolve("bin/config.txt"), "changed");
+
+        assertThat(new FsDiffCalculator(server, 1).calculate().getModifiedPaths())
+                .containsExactly("bin/config.txt");
+    }
+
+    @Test
+    public void cacheIsKeptWhenProvisionedStateIsReplaced() throws Exception {
+        new FsDiffCalculator(server, 2).calculate();
+
+        // applying a candidate replaces the .galleon folder
+        final Path galleon = server.resolve(Constants.PROVISIONED_STATE_DIR);
+        final Path copy = temp.newFolder("galleon-copy").toPath();
+        FileUtils.copyDirectory(galleon.toFile(), copy.toFile());
+        FileUtils.deleteDirectory(galleon.toFile());
+        FileUtils.copyDirectory(copy.toFile(), galleon.toFile());
+
+        assertThat(galleon.resolve(FsDiffCalculator.HASH_CACHE_FILE)).doesNotExist();
+        assertThat(server.resolve(ProsperoMetadataUtils.METADATA_DIR).resolve(FsDiffCalculator.HASH_CACHE_FILE)).exists();
+    }
+
+    @Test
+    public void cachedHashesOfAnotherTreeAreIgnored() throws Exception {
+        new FsDiffCalculator(server, 2).calculate();
+
+        // a copy of the server with the same sizes and modification times, but different files
+        final Path copy = temp.newFolder("copy").toPath();
+        FileUtils.copyDirectory(server.toFile(), copy.toFile(), true);
+        final Path config = copy.resolve("bin/config.txt");
+        final FileTime mtime = Files.getLastModifiedTime(config);
+        Files.writeString(config, "CONFIG");
+        Files.setLastModifiedTime(config, mtime);
+
+        assertThat(new FsDiffCalculator(copy, 2).calculate().getModifiedPaths())
+                .containsExactly("bin/config.txt");
+    }
+
+    @Test
+    public void cacheIsNotWrittenIfInstallationIsNotManagedByProspero() throws Exception {
+        FileUtils.deleteDirectory(server.resolve(ProsperoMetadataUtils.METADATA_DIR).toFile());
+
+        assertThat(new FsDiffCalculator(server, 2).calculate().isEmpty()).isTrue();
+        assertThat(server.resolve(ProsperoMetadataUtils.METADATA_DIR)).doesNotExist();
+    }
+
+    private static void assertNoChanges(FsDiff diff) {
+        // the Prospero metadata are not provisioned by Galleon
+        assertThat(diff.getAddedPaths()).containsExactly(METADATA_DIR);
+        assertThat(diff.getModifiedPaths()).isEmpty();
+        assertThat(diff.getRemovedPaths()).isEmpty();
+    }
+
+    private void provisionFile(String relativePath, String content) throws IOException {
+        final Path file = server.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, AN_HOUR_AGO);
+
+        Path hashesDir = server.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASHES);
+        final Path parent = server.relativize(file).getParent();
+        if (parent != null) {
+            hashesDir = hashesDir.resolve(parent.toString());
+        }
+        Files.createDirectories(hashesDir);
+        final Path hashes = hashesDir.resolve(Constants.HASHES);
+        final String record = file.getFileName() + "\n" + HashUtils.bytesToHexString(HashUtils.hashPath(file)) + "\n";
+        Files.writeString(hashes, Files.exists(hashes) ? Files.readString(hashes) + record : record);
+    }
+}
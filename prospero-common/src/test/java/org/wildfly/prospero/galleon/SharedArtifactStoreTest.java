@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.util.HashUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.channel.MavenArtifact;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedArtifactStoreTest {
+
+    private static final String GROUP_ID = "group";
+    private static final String ARTIFACT_ID = "artifact";
+    private static final String EXTENSION = "jar";
+    private static final String CLASSIFIER = "classifier";
+    private static final String VERSION = "1.0.0";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private Path storeDir;
+    private SharedArtifactStore store;
+    private MavenArtifact anArtifact;
+
+    @Before
+    public void setUp() throws Exception {
+        storeDir = temp.newFolder().toPath();
+        store = new SharedArtifactStore(storeDir);
+        anArtifact = new MavenArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION, temp.newFile("test.jar"));
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        ArtifactCache.cleanInstancesCache();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(SharedArtifactStore.SHARED_STORE_PROPERTY);
+        ArtifactCache.cleanInstancesCache();
+    }
+
+    @Test
+    public void storedArtifactCanBeFoundByGav() throws Exception {
+        final String hash = HashUtils.hashFile(anArtifact.getFile().toPath());
+
+        final Path content = store.store(anArtifact, hash);
+
+        assertThat(content).hasFileName(hash).hasContent("content");
+        assertThat(store.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .hasValueSatisfying(f -> assertThat(f.toPath()).isEqualTo(content));
+        assertThat(store.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, "2.0.0"))
+                .isEmpty();
+    }
+
+    @Test
+    public void modifiedContentIsNotMatched() throws Exception {
+        final Path content = store.store(anArtifact, HashUtils.hashFile(anArtifact.getFile().toPath()));
+        Files.writeString(content, "changed");
+
+        assertThat(store.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isEmpty();
+    }
+
+    @Test
+    public void modifiedContentIsReplacedWhenStoredAgain() throws Exception {
+        final String hash = HashUtils.hashFile(anArtifact.getFile().toPath());
+        final Path content = store.store(anArtifact, hash);
+        Files.writeString(content, "changed");
+
+        assertThat(store.store(anArtifact, hash)).isEqualTo(content).hasContent("content");
+        assertThat(store.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .hasValueSatisfying(f -> assertThat(f.toPath()).isEqualTo(content));
+    }
+
+    @Test
+    public void truncatedContentIsReplacedWhenStoredAgain() throws Exception {
+        final String hash = HashUtils.hashFile(anArtifact.getFile().toPath());
+        final Path content = store.store(anArtifact, hash);
+        Files.writeString(content, "");
+
+        assertThat(store.store(anArtifact, hash)).hasContent("content");
+    }
+
+    @Test
+    public void cachedArtifactsAreLinkedToSharedStore() throws Exception {
+        System.setProperty(SharedArtifactStore.SHARED_STORE_PROPERTY, storeDir.toString());
+        final Path installationOne = temp.newFolder().toPath();
+        final Path installationTwo = temp.newFolder().toPath();
+        Files.createDirectories(installationOne.resolve(ArtifactCache.CACHE_FOLDER));
+        Files.createDirectories(installationTwo.resolve(ArtifactCache.CACHE_FOLDER));
+
+        ArtifactCache.getInstance(installationOne).cacheAll(List.of(anArtifact));
+        ArtifactCache.getInstance(installationTwo).cacheAll(List.of(anArtifact));
+
+        final Path content = store.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).get().toPath();
+        assertThat(Files.isSameFile(content, installationOne.resolve(ArtifactCache.CACHE_FOLDER).resolve("test.jar")))
+                .isTrue();
+        assertThat(Files.isSameFile(content, installationTwo.resolve(ArtifactCache.CACHE_FOLDER).resolve("test.jar")))
+                .isTrue();
+        assertThat(ArtifactCache.getInstance(installationTwo).getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.updates;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.eclipse.aether.util.repository.DefaultAuthenticationSelector;
+import org.eclipse.aether.util.repository.DefaultMirrorSelector;
+import org.jboss.galleon.util.HashUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.api.ArtifactChange;
+import org.wildfly.prospero.api.MavenOptions;
+import org.wildfly.prospero.galleon.ArtifactCache;
+import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
+import org.wildfly.prospero.wfchannel.MavenSessionManager;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UpdateCheckCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path installDir;
+    private Path repository;
+    private MavenSessionManager msm;
+    private final List<Artifact> installed = List.of(new DefaultArtifact("org.foo", "bar", "jar", "1.0.0"));
+    private final UpdateSet updates = new UpdateSet(List.of(ArtifactChange.updated(
+            new DefaultArtifact("org.foo", "bar", "jar", "1.0.0"),
+            new DefaultArtifact("org.foo", "bar", "jar", "1.0.1"), "test-channel")));
+    private final List<ChannelManifest> manifests = List.of(new ChannelManifest(null, null, null,
+            List.of(new Stream("org.foo", "bar", "1.0.1"))));
+
+    @Before
+    public void setUp() throws Exception {
+        installDir = temp.newFolder("installation").toPath();
+        Files.createDirectories(installDir.resolve(ProsperoMetadataUtils.METADATA_DIR));
+        repository = temp.newFolder("repository").toPath();
+        writeManifestMetadata(repository, "1.0.0");
+        msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(temp.newFolder("local").toPath()).build());
+    }
+
+    @Test
+    public void reuseResultIfMetadataHasNotChanged() throws Exception {
+        final List<Channel> channels = List.of(channel(repository.toUri().toString()));
+
+        UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+        assertThat(cache.findUnchangedUpdates(channels, installed)).isEmpty();
+        cache.record(channels, installed, manifests, updates);
+
+        cache = UpdateCheckCache.load(installDir, msm);
+        final Optional<UpdateSet> result = cache.findUnchangedUpdates(channels, installed);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getArtifactUpdates())
+                .hasSize(1)
+                .allMatch(c -> c.getArtifactName().equals("org.foo:bar"))
+                .allMatch(c -> c.getOldVersion().get().equals("1.0.0"))
+                .allMatch(c -> c.getNewVersion().get().equals("1.0.1"))
+                .allMatch(c -> c.getChannelName().get().equals("test-channel"));
+    }
+
+    @Test
+    public void extensionAndClassifierOfUpdatesAreKept() throws Exception {
+        final List<Channel> channels = List.of(channel(repository.toUri().toString()));
+        final UpdateSet zipUpdates = new UpdateSet(List.of(ArtifactChange.updated(
+                new DefaultArtifact("org.foo", "bar", "bin", "zip", "1.0.0"),
+                new DefaultArtifact("org.foo", "bar", "bin", "zip", "1.0.1"), "test-channel")));
+        UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+        cache.findUnchangedUpdates(channels, installed);
+        cache.record(channels, installed, manifests, zipUpdates);
+
+        final Optional<UpdateSet> result = UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, installed);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getArtifactUpdates())
+                .hasSize(1)
+                .allMatch(c -> c.getArtifactName().equals("org.foo:bar:bin"))
+                .allMatch(c -> c.getExtension().equals("zip"))
+                .allMatch(c -> c.getClassifier().equals("bin"));
+    }
+
+    @Test
+    public void fullCheckIfMetadataHasChanged() throws Exception {
+        final List<Channel> channels = List.of(channel(repository.toUri().toString()));
+        UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+        cache.findUnchangedUpdates(channels, installed);
+        cache.record(channels, installed, manifests, updates);
+
+        writeManifestMetadata(repository, "1.0.1");
+
+        assertThat(UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, installed)).isEmpty();
+    }
+
+    @Test
+    public void fullCheckIfInstalledArtifactsHaveChanged() throws Exception {
+        final List<Channel> channels = List.of(channel(repository.toUri().toString()));
+        UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+        cache.findUnchangedUpdates(channels, installed);
+        cache.record(channels, installed, manifests, updates);
+
+        final List<Artifact> updated = List.of(new DefaultArtifact("org.foo", "bar", "jar", "1.0.1"));
+        assertThat(UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, updated)).isEmpty();
+    }
+
+    @Test
+    public void resultIsNotStoredIfVersionsDependOnRepositoryContent() throws Exception {
+        final List<Channel> channels = List.of(channel(repository.toUri().toString()));
+        final List<ChannelManifest> patternManifests = List.of(new ChannelManifest(null, null, null,
+                List.of(new Stream("org.foo", "bar", Pattern.compile(".*")))));
+        UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+        cache.findUnchangedUpdates(channels, installed);
+        cache.record(channels, installed, patternManifests, updates);
+
+        assertThat(UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, installed)).isEmpty();
+    }
+
+    @Test
+    public void resultIsNotStoredForChannelsWithoutManifest() throws Exception {
+        final List<Channel> channels = List.of(new Channel("test-channel", null, null,
+                List.of(new Repository("test", repository.toUri().toString())), null, null,
+                Channel.NoStreamStrategy.LATEST));
+        UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+        cache.findUnchangedUpdates(channels, installed);
+        cache.record(channels, installed, manifests, updates);
+
+        assertThat(UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, installed)).isEmpty();
+        assertThat(installDir.resolve(ArtifactCache.CACHE_FOLDER)
+                .resolve(UpdateCheckCache.CACHE_FILENAME)).doesNotExist();
+    }
+
+    @Test
+    public void remoteMetadataIsResolvedAgainOnEachCheck() throws Exception {
+        final AtomicReference<String> latest = new AtomicReference<>("1.0.0");
+        final HttpServer server = metadataServer(exchange -> true, latest);
+        try {
+            final String url = "http://localhost:" + server.getAddress().getPort() + "/repo";
+            final List<Channel> channels = List.of(channel(url));
+
+            UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+            assertThat(cache.findUnchangedUpdates(channels, installed)).isEmpty();
+            cache.record(channels, installed, manifests, updates);
+
+            assertThat(UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, installed)).isPresent();
+
+            // the metadata was downloaded moments ago, but the change still has to be noticed
+            latest.set("1.0.1");
+            assertThat(UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, installed)).isEmpty();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void remoteMetadataIsRequestedFromMirrorWithCredentials() throws Exception {
+        final String expectedAuth = "Basic " + Base64.getEncoder().encodeToString("user:secret".getBytes(StandardCharsets.UTF_8));
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final HttpServer server = metadataServer(exchange -> {
+            requests.add(exchange.getRequestURI().getPath());
+            return expectedAuth.equals(exchange.getRequestHeaders().getFirst("Authorization"));
+        }, new AtomicReference<>("1.0.0"));
+        try {
+            final RepositorySystem system = msm.newRepositorySystem();
+            final DefaultRepositorySystemSession session = msm.newRepositorySystemSession(system);
+            session.setMirrorSelector(new DefaultMirrorSelector().add("mirror",
+                    "http://localhost:" + server.getAddress().getPort() + "/mirror", "default", false, false, "test", null));
+            session.setAuthenticationSelector(new DefaultAuthenticationSelector().add("mirror",
+                    new AuthenticationBuilder().addUsername("user").addPassword("secret").build()));
+            // the original repository is not reachable, only the mirror can answer
+            final List<Channel> channels = List.of(channel("http://localhost:1/repo"));
+
+            UpdateCheckCache cache = UpdateCheckCache.load(installDir, new ChannelMetadataProbe(system, session));
+            assertThat(cache.findUnchangedUpdates(channels, installed)).isEmpty();
+            cache.record(channels, installed, manifests, updates);
+
+            cache = UpdateCheckCache.load(installDir, new ChannelMetadataProbe(system, session));
+            assertThat(cache.findUnchangedUpdates(channels, installed)).isPresent();
+            assertThat(requests)
+                    .isNotEmpty()
+                    .allMatch(path -> path.startsWith("/mirror/org/test/test-manifest/maven-metadata.xml"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void fullCheckIfMetadataCannotBeProbed() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(401, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final List<Channel> channels = List.of(channel("http://localhost:" + server.getAddress().getPort() + "/repo"));
+            UpdateCheckCache cache = UpdateCheckCache.load(installDir, msm);
+            cache.findUnchangedUpdates(channels, installed);
+            cache.record(channels, installed, manifests, updates);
+
+            assertThat(UpdateCheckCache.load(installDir, msm).findUnchangedUpdates(channels, installed)).isEmpty();
+            assertThat(installDir.resolve(ArtifactCache.CACHE_FOLDER)
+                    .resolve(UpdateCheckCache.CACHE_FILENAME)).doesNotExist();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static Channel channel(String repositoryUrl) {
+        return new Channel("test-channel", null, null,
+                List.of(new Repository("test", repositoryUrl)),
+                new ChannelManifestCoordinate("org.test", "test-manifest"), null,
+                Channel.NoStreamStrategy.NONE);
+    }
+
+    private static void writeManifestMetadata(Path repository, String latest) throws Exception {
+        final Path metadata = repository.resolve("org/test/test-manifest/maven-metadata.xml");
+        Files.createDirectories(metadata.getParent());
+        Files.writeString(metadata, metadataContent(latest));
+        Files.writeString(metadata.resolveSibling(metadata.getFileName() + ".sha1"), HashUtils.hashFile(metadata));
+    }
+
+    private static String metadataContent(String latest) {
+        return "<metadata><versioning><latest>" + latest + "</latest></versioning></metadata>";
+    }
+
+    /**
+     * serves the manifest metadata and its checksum to requests accepted by {@code authorized}, other requests are rejected
+     * with 401
+     */
+    private static HttpServer metadataServer(Predicate<HttpExchange> authorized, AtomicReference<String> latest) throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            if (!authorized.test(exchange)) {
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"test\"");
+                exchange.sendResponseHeaders(401, -1);
+            } else if (!exchange.getRequestURI().getPath().contains("/org/test/test-manifest/maven-metadata.xml")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                final String content = metadataContent(latest.get());
+                final byte[] body = (exchange.getRequestURI().getPath().endsWith(".sha1") ? HashUtils.hash(content) : content)
+                        .getBytes(StandardCharsets.UTF_8);
+                if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(body);
+                    }
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+}
@@ -22,19 +22,28 @@ import org.eclipse.aether.artifact.DefaultArtifact;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.wildfly.channel.ArtifactTransferException;
 import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.VersionResult;
 import org.wildfly.prospero.api.ArtifactChange;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.jboss.galleon.api.Provisioning;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -131,4 +140,153 @@ public class UpdateFinderTest {
         assertEquals("1.0.1", actualUpdate.getOldVersion().get());
         assertEquals("test-channel", actualUpdate.getChannelName().orElse(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findUpdatesLooksUpEachStreamOnce() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null))
+                .thenReturn(new VersionResult("1.0.1", null));
+
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            final List<Artifact> artifacts = Arrays.asList(
+                    new DefaultArtifact("org.foo", "bar", "", "jar", "1.0.0"),
+                    new DefaultArtifact("org.foo", "bar", "sources", "jar", "1.0.0"),
+                    new DefaultArtifact("org.foo", "bar", "natives", "jar", "1.0.1")
+            );
+            final UpdateSet updates = finder.findUpdates(artifacts);
+
+            assertEquals(2, updates.getArtifactUpdates().size());
+            assertEquals("1.0.1", updates.getArtifactUpdates().get(0).getNewVersion().get());
+            assertEquals("1.0.1", updates.getArtifactUpdates().get(1).getNewVersion().get());
+            verify(channelSession, times(1)).findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null);
+        }
+    }
+
+    @Test
+    public void findUpdatesRemovesAllArtifactsOfMissingStream() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null))
+                .thenThrow(new ArtifactTransferException("Exception", Collections.emptySet(), Collections.emptySet()));
+
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            final List<Artifact> artifacts = Arrays.asList(
+                    new DefaultArtifact("org.foo", "bar", "", "jar", "1.0.0"),
+                    new DefaultArtifact("org.foo", "bar", "sources", "jar", "1.0.0")
+            );
+            final UpdateSet updates = finder.findUpdates(artifacts);
+
+            assertEquals(2, updates.getArtifactUpdates().size());
+            assertEquals(Optional.empty(), updates.getArtifactUpdates().get(0).getNewVersion());
+            assertEquals(Optional.empty(), updates.getArtifactUpdates().get(1).getNewVersion());
+        }
+    }
+
+    @Test
+    public void hasUpdatesStopsAfterFirstUpdate() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null))
+                .thenReturn(new VersionResult("1.0.1", null));
+
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            final List<Artifact> artifacts = Arrays.asList(
+                    new DefaultArtifact("org.foo", "bar", "jar", "1.0.0"),
+                    new DefaultArtifact("org.foo", "bar", "sources", "jar", "1.0.0")
+            );
+
+            assertTrue(finder.hasUpdates(artifacts));
+            verify(channelSession, times(1)).findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null);
+        }
+    }
+
+    @Test
+    public void hasUpdatesReturnsFalseIfAllArtifactsAreCurrent() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null))
+                .thenReturn(new VersionResult("1.0.0", null));
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "baz", "jar", "", null))
+                .thenReturn(new VersionResult("2.0.0", null));
+
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            final List<Artifact> artifacts = Arrays.asList(
+                    new DefaultArtifact("org.foo", "bar", "jar", "1.0.0"),
+                    new DefaultArtifact("org.foo", "baz", "jar", "2.0.0")
+            );
+
+            assertFalse(finder.hasUpdates(artifacts));
+        }
+    }
+
+    @Test
+    public void hasUpdatesDoesntLookUpRemainingStreamsAfterFirstUpdate() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion(eq("org.foo"), anyString(), eq("jar"), eq(""), isNull()))
+                .thenAnswer(inv -> {
+                    if (inv.getArgument(1).equals("artifact-0")) {
+                        return new VersionResult("1.0.1", null);
+                    }
+                    Thread.sleep(500);
+                    return new VersionResult("1.0.0", null);
+                });
+        final List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            artifacts.add(new DefaultArtifact("org.foo", "artifact-" + i, "jar", "1.0.0"));
+        }
+
+        System.setProperty(UpdateFinder.UPDATES_SEARCH_PARALLELISM_PROPERTY, "1");
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            assertTrue(finder.hasUpdates(artifacts));
+        } finally {
+            System.clearProperty(UpdateFinder.UPDATES_SEARCH_PARALLELISM_PROPERTY);
+        }
+
+        // the queued lookups are cancelled - at most one more lookup could have started before the update was found
+        verify(channelSession, times(1)).findLatestMavenArtifactVersion("org.foo", "artifact-0", "jar", "", null);
+        assertTrue(Mockito.mockingDetails(channelSession).getInvocations().size() <= 2);
+    }
+
+    @Test
+    public void hasUpdatesCancelsPendingLookups() throws Exception {
+        final CountDownLatch slowLookupStarted = new CountDownLatch(1);
+        final CountDownLatch slowLookupInterrupted = new CountDownLatch(1);
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "slow", "jar", "", null))
+                .thenAnswer(inv -> {
+                    slowLookupStarted.countDown();
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        slowLookupInterrupted.countDown();
+                        throw e;
+                    }
+                    return new VersionResult("1.0.0", null);
+                });
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "updated", "jar", "", null))
+                .thenAnswer(inv -> {
+                    // make sure both lookups are running
+                    slowLookupStarted.await(10, TimeUnit.SECONDS);
+                    return new VersionResult("1.0.1", null);
+                });
+
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            final List<Artifact> artifacts = Arrays.asList(
+                    new DefaultArtifact("org.foo", "slow", "jar", "1.0.0"),
+                    new DefaultArtifact("org.foo", "updated", "jar", "1.0.0")
+            );
+
+            assertTrue(finder.hasUpdates(artifacts));
+            assertTrue("The pending lookup should be interrupted", slowLookupInterrupted.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void hasUpdatesLooksUpAllStreamsIfNoUpdatesAreFound() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion(eq("org.foo"), anyString(), eq("jar"), eq(""), isNull()))
+                .thenReturn(new VersionResult("1.0.0", null));
+        final List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            artifacts.add(new DefaultArtifact("org.foo", "artifact-" + i, "jar", "1.0.0"));
+        }
+
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            assertFalse(finder.hasUpdates(artifacts));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            verify(channelSession, times(1)).findLatestMavenArtifactVersion("org.foo", "artifact-" + i, "jar", "", null);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecutorUtilsTest {
+
+    private static final String TEST_PROPERTY = "org.wildfly.prospero.test.value";
+
+    @After
+    public void tearDown() {
+        System.clearProperty(TEST_PROPERTY);
+        System.clearProperty(ExecutorUtils.VIRTUAL_THREADS_PROPERTY);
+    }
+
+    @Test
+    public void defaultValueIfPropertyIsNotSet() {
+        assertThat(ExecutorUtils.getPositiveInteger(TEST_PROPERTY, 5)).isEqualTo(5);
+    }
+
+    @Test
+    public void readPositiveValue() {
+        System.setProperty(TEST_PROPERTY, "12");
+
+        assertThat(ExecutorUtils.getPositiveInteger(TEST_PROPERTY, 5)).isEqualTo(12);
+    }
+
+    @Test
+    public void invalidValuesAreIgnored() {
+        System.setProperty(TEST_PROPERTY, "-1");
+        assertThat(ExecutorUtils.getPositiveInteger(TEST_PROPERTY, 5)).isEqualTo(5);
+
+        System.setProperty(TEST_PROPERTY, "abc");
+        assertThat(ExecutorUtils.getPositiveInteger(TEST_PROPERTY, 5)).isEqualTo(5);
+    }
+
+    @Test
+    public void virtualThreadsFallBackToPlatformThreads() throws Exception {
+        System.setProperty(ExecutorUtils.VIRTUAL_THREADS_PROPERTY, "true");
+
+        final ExecutorService executor = ExecutorUtils.newBoundedExecutor(2);
+        try {
+            assertThat(executor.submit(() -> "done").get(10, TimeUnit.SECONDS)).isEqualTo("done");
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.ArtifactTransferException;
+import org.jboss.galleon.util.ZipUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.prospero.api.MavenOptions;
+
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ArchiveRepositoryTransporterFactoryTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path archive;
+    private Path localRepo;
+
+    @Before
+    public void setUp() throws Exception {
+        final Path content = temp.newFolder("archive content").toPath();
+        final Path jar = content.resolve("test-repository/maven-repository/org/test/test-artifact/1.0.0/test-artifact-1.0.0.jar");
+        Files.createDirectories(jar.getParent());
+        Files.writeString(jar, "test");
+        archive = temp.getRoot().toPath().resolve("test repository.zip");
+        ZipUtils.zip(content, archive);
+        localRepo = temp.newFolder("local").toPath();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ArchiveRepositoryTransporterFactory.openArchive(archive).close();
+    }
+
+    @Test
+    public void resolveArtifactFromArchive() throws Exception {
+        final ArtifactResult result = resolve(MavenOptions.builder().setLocalCachePath(localRepo).build());
+
+        assertThat(result.getArtifact().getFile())
+                .hasContent("test");
+        assertThat(result.getArtifact().getFile().toPath())
+                .startsWith(localRepo);
+    }
+
+    @Test
+    public void resolveArtifactFromArchiveInOfflineMode() throws Exception {
+        final ArtifactResult result = resolve(MavenOptions.builder().setLocalCachePath(localRepo).setOffline(true).build());
+
+        assertThat(result.getArtifact().getFile())
+                .hasContent("test");
+    }
+
+    @Test
+    public void artifactMissingInArchiveIsNotFound() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(localRepo).build());
+        final RepositorySystem system = msm.newRepositorySystem();
+        final RepositorySystemSession session = msm.newRepositorySystemSession(system);
+
+        assertThatThrownBy(() -> system.resolveArtifact(session, new ArtifactRequest(
+                new DefaultArtifact("org.test:missing-artifact:1.0.0"), List.of(repository()), null)))
+                .isInstanceOf(ArtifactResolutionException.class)
+                .hasCauseInstanceOf(ArtifactNotFoundException.class);
+    }
+
+    @Test
+    public void closedArchiveIsNotReopened() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(localRepo).build());
+        final RepositorySystem system = msm.newRepositorySystem();
+        final RepositorySystemSession session = msm.newRepositorySystemSession(system);
+        final RemoteRepository repository = repository();
+        ArchiveRepositoryTransporterFactory.openArchive(archive).close();
+
+        assertThatThrownBy(() -> system.resolveArtifact(session, new ArtifactRequest(
+                new DefaultArtifact("org.test:test-artifact:1.0.0"), List.of(repository), null)))
+                .isInstanceOf(ArtifactResolutionException.class)
+                .hasCauseInstanceOf(ArtifactTransferException.class)
+                .hasStackTraceContaining("is not open");
+        assertThatThrownBy(() -> FileSystems.getFileSystem(URI.create("jar:" + archive.toFile().toURI())))
+                .isInstanceOf(FileSystemNotFoundException.class);
+    }
+
+    @Test
+    public void repositoryUrlPointsInsideArchive() throws Exception {
+        try (FileSystem fs = ArchiveRepositoryTransporterFactory.openArchive(archive)) {
+            final String url = ArchiveRepositoryTransporterFactory.toRepositoryUrl(archive,
+                    fs.getPath("/test-repository/maven-repository"));
+
+            assertThat(url)
+                    .isEqualTo("jar:" + archive.toFile().toURI() + "!/test-repository/maven-repository/");
+            assertThat(new RemoteRepository.Builder("test", "default", url).build().getProtocol())
+                    .isEqualTo(ArchiveRepositoryTransporterFactory.PROTOCOL);
+        }
+    }
+
+    private ArtifactResult resolve(MavenOptions options) throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(options);
+        final RepositorySystem system = msm.newRepositorySystem();
+        final RepositorySystemSession session = msm.newRepositorySystemSession(system);
+        return system.resolveArtifact(session, new ArtifactRequest(new DefaultArtifact("org.test:test-artifact:1.0.0"),
+                List.of(repository()), null));
+    }
+
+    private RemoteRepository repository() throws Exception {
+        final FileSystem fs = ArchiveRepositoryTransporterFactory.openArchive(archive);
+        return new RemoteRepository.Builder("test", "default", ArchiveRepositoryTransporterFactory.toRepositoryUrl(archive,
+                fs.getPath("/test-repository/maven-repository"))).build();
+    }
+}
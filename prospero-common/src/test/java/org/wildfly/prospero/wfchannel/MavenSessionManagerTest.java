@@ -17,16 +17,34 @@
 
 package org.wildfly.prospero.wfchannel;
 
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
+import org.eclipse.aether.repository.LocalMetadataRequest;
+import org.eclipse.aether.repository.LocalMetadataResult;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.MetadataRequest;
+import org.eclipse.aether.resolution.MetadataResult;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.wildfly.prospero.api.MavenOptions;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
 public class MavenSessionManagerTest {
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Test
     public void defaultToTempFolderIfNoCacheOptionSet() throws Exception {
         final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
@@ -45,4 +63,181 @@ public class MavenSessionManagerTest {
 
         assertEquals(MavenSessionManager.LOCAL_MAVEN_REPO, msm.getProvisioningRepo());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void repositorySystemIsReused() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+
+        assertSame(msm.newRepositorySystem(), msm.newRepositorySystem());
+        assertSame(msm.newRepositorySystem(), new MavenSessionManager(msm).newRepositorySystem());
+    }
+
+    @Test
+    public void sessionsShareRepositoryCache() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession();
+        final DefaultRepositorySystemSession otherSession = msm.newRepositorySystemSession(msm.newRepositorySystem());
+
+        assertNotSame(session, otherSession);
+        assertNotNull(session.getCache());
+        assertSame(session.getCache(), otherSession.getCache());
+    }
+
+    @Test
+    public void sessionsUseCurrentOfflineMode() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+
+        assertFalse(msm.newRepositorySystemSession().isOffline());
+        msm.setOffline(true);
+        assertTrue(msm.newRepositorySystemSession().isOffline());
+    }
+
+    @Test
+    public void connectionOptionsAreSetOnSession() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder()
+                .setDownloadThreads(8)
+                .setMaxConnectionsPerRoute(20)
+                .setConnectionTtl(60)
+                .setConnectTimeout(5000)
+                .setRequestTimeout(60000)
+                .build());
+
+        final DefaultRepositorySystemSession session = new MavenSessionManager(msm).newRepositorySystemSession();
+
+        assertEquals(8, session.getConfigProperties().get("aether.connector.basic.threads"));
+        assertEquals(20, session.getConfigProperties().get(ConfigurationProperties.HTTP_MAX_CONNECTIONS_PER_ROUTE));
+        assertEquals(60, session.getConfigProperties().get(ConfigurationProperties.HTTP_CONNECTION_MAX_TTL));
+        assertEquals(5000, session.getConfigProperties().get(ConfigurationProperties.CONNECT_TIMEOUT));
+        assertEquals(60000, session.getConfigProperties().get(ConfigurationProperties.REQUEST_TIMEOUT));
+    }
+
+    @Test
+    public void resolverDefaultsAreUsedIfConnectionOptionsAreNotSet() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession();
+
+        assertFalse(session.getConfigProperties().containsKey("aether.connector.basic.threads"));
+        assertFalse(session.getConfigProperties().containsKey(ConfigurationProperties.REQUEST_TIMEOUT));
+    }
+
+    @Test
+    public void artifactsAreFoundInSharedLocalRepository() throws Exception {
+        final Path sharedRepo = temp.newFolder("shared").toPath();
+        final Path localRepo = temp.newFolder("local").toPath();
+        final Path sharedJar = sharedRepo.resolve("org/test/test-artifact/1.0.0/test-artifact-1.0.0.jar");
+        Files.createDirectories(sharedJar.getParent());
+        Files.writeString(sharedJar, "test");
+
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder()
+                .setLocalCachePath(localRepo)
+                .setSharedLocalCaches(List.of(sharedRepo))
+                .build());
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession();
+
+        final LocalArtifactResult result = session.getLocalRepositoryManager().find(session,
+                new LocalArtifactRequest(new DefaultArtifact("org.test:test-artifact:1.0.0"), null, null));
+        assertTrue(result.isAvailable());
+        assertEquals(sharedJar.toFile(), result.getFile());
+        // new artifacts are written into the local repository
+        assertEquals(localRepo.toFile(), session.getLocalRepositoryManager().getRepository().getBasedir());
+    }
+
+    @Test
+    public void sharedLocalRepositoryIsSearchedBeforeLocalRepository() throws Exception {
+        final Path sharedRepo = temp.newFolder("shared").toPath();
+        final Path localRepo = temp.newFolder("local").toPath();
+        final String path = "org/test/test-artifact/1.0.0/test-artifact-1.0.0.jar";
+        final Path sharedJar = sharedRepo.resolve(path);
+        Files.createDirectories(sharedJar.getParent());
+        Files.writeString(sharedJar, "shared");
+        final Path localJar = localRepo.resolve(path);
+        Files.createDirectories(localJar.getParent());
+        Files.writeString(localJar, "local");
+
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder()
+                .setLocalCachePath(localRepo)
+                .setSharedLocalCaches(List.of(sharedRepo))
+                .build());
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession();
+
+        final LocalArtifactResult result = session.getLocalRepositoryManager().find(session,
+                new LocalArtifactRequest(new DefaultArtifact("org.test:test-artifact:1.0.0"), null, null));
+        assertTrue(result.isAvailable());
+        assertEquals(sharedJar.toFile(), result.getFile());
+    }
+
+    @Test
+    public void artifactsMissingInSharedRepositoryAreFoundInLocalRepository() throws Exception {
+        final Path sharedRepo = temp.newFolder("shared").toPath();
+        final Path localRepo = temp.newFolder("local").toPath();
+        final Path localJar = localRepo.resolve("org/test/test-artifact/1.0.0/test-artifact-1.0.0.jar");
+        Files.createDirectories(localJar.getParent());
+        Files.writeString(localJar, "local");
+
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder()
+                .setLocalCachePath(localRepo)
+                .setSharedLocalCaches(List.of(sharedRepo))
+                .build());
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession();
+
+        final LocalArtifactResult result = session.getLocalRepositoryManager().find(session,
+                new LocalArtifactRequest(new DefaultArtifact("org.test:test-artifact:1.0.0"), null, null));
+        assertEquals(localJar.toFile(), result.getFile());
+    }
+
+    @Test
+    public void remoteMetadataInLocalRepositoryIsPreferredOverSharedRepository() throws Exception {
+        final Path sharedRepo = temp.newFolder("shared").toPath();
+        final Path localRepo = temp.newFolder("local").toPath();
+        final String path = "org/test/test-artifact/maven-metadata-test.xml";
+        final Path sharedMetadata = sharedRepo.resolve(path);
+        Files.createDirectories(sharedMetadata.getParent());
+        Files.writeString(sharedMetadata, metadata("1.0.0"));
+        final Path localMetadata = localRepo.resolve(path);
+        Files.createDirectories(localMetadata.getParent());
+        Files.writeString(localMetadata, metadata("1.0.1"));
+
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder()
+                .setLocalCachePath(localRepo)
+                .setSharedLocalCaches(List.of(sharedRepo))
+                .setOffline(true)
+                .build());
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession();
+        final MetadataRequest request = new MetadataRequest(
+                new DefaultMetadata("org.test", "test-artifact", "maven-metadata.xml", Metadata.Nature.RELEASE),
+                new RemoteRepository.Builder("test", "default", "http://localhost:1/repo").build(), null);
+
+        final List<MetadataResult> results = msm.newRepositorySystem().resolveMetadata(session, List.of(request));
+
+        assertEquals(localMetadata.toFile(), results.get(0).getMetadata().getFile());
+    }
+
+    @Test
+    public void remoteMetadataIsFoundInSharedRepositoryIfMissingLocally() throws Exception {
+        final Path sharedRepo = temp.newFolder("shared").toPath();
+        final Path localRepo = temp.newFolder("local").toPath();
+        final Path sharedMetadata = sharedRepo.resolve("org/test/test-artifact/maven-metadata-test.xml");
+        Files.createDirectories(sharedMetadata.getParent());
+        Files.writeString(sharedMetadata, metadata("1.0.0"));
+
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder()
+                .setLocalCachePath(localRepo)
+                .setSharedLocalCaches(List.of(sharedRepo))
+                .build());
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession();
+
+        final LocalMetadataResult result = session.getLocalRepositoryManager().find(session, new LocalMetadataRequest(
+                new DefaultMetadata("org.test", "test-artifact", "maven-metadata.xml", Metadata.Nature.RELEASE),
+                new RemoteRepository.Builder("test", "default", "http://localhost:1/repo").build(), null));
+
+        assertEquals(sharedMetadata.toFile(), result.getFile());
+    }
+
+    private static String metadata(String version) {
+        return "<metadata><groupId>org.test</groupId><artifactId>test-artifact</artifactId><versioning>"
+                + "<release>" + version + "</release><versions><version>" + version + "</version></versions>"
+                + "</versioning></metadata>";
+    }
+}
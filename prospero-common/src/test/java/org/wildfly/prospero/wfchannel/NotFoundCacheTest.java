@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.prospero.api.MavenOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NotFoundCacheTest {
+
+    private static final String REPO_URL = "https://test.repo/maven";
+    private static final String KEY = "org.test:test-artifact:jar::1.0.0";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(NotFoundCache.TTL_PROPERTY);
+        System.clearProperty(NotFoundCache.REFRESH_PROPERTY);
+    }
+
+    @Test
+    public void recordIsValidUntilTtlExpires() throws Exception {
+        final Path file = temp.getRoot().toPath().resolve(NotFoundCache.NOT_FOUND_FILENAME);
+        final Instant now = Instant.now();
+        final NotFoundCache cache = new NotFoundCache(file, Duration.ofMinutes(10), Clock.fixed(now, ZoneOffset.UTC));
+
+        cache.record(REPO_URL, KEY);
+
+        assertThat(cache.isNotFound(REPO_URL, KEY)).isTrue();
+        assertThat(cache.isNotFound("https://other.repo/maven", KEY)).isFalse();
+
+        final NotFoundCache later = new NotFoundCache(file, Duration.ofMinutes(10),
+                Clock.fixed(now.plus(Duration.ofMinutes(11)), ZoneOffset.UTC));
+        later.load();
+        assertThat(later.isNotFound(REPO_URL, KEY)).isFalse();
+        assertThat(later.size()).isZero();
+    }
+
+    @Test
+    public void recordsArePersisted() throws Exception {
+        final Path file = temp.getRoot().toPath().resolve(NotFoundCache.NOT_FOUND_FILENAME);
+        new NotFoundCache(file, Duration.ofMinutes(10), Clock.systemUTC()).record(REPO_URL, KEY);
+
+        final NotFoundCache cache = new NotFoundCache(file, Duration.ofMinutes(10), Clock.systemUTC());
+        cache.load();
+
+        assertThat(cache.isNotFound(REPO_URL, KEY)).isTrue();
+    }
+
+    @Test
+    public void expiredRecordsAreRemovedFromFile() throws Exception {
+        final Path file = temp.getRoot().toPath().resolve(NotFoundCache.NOT_FOUND_FILENAME);
+        final Instant now = Instant.now();
+        final NotFoundCache cache = new NotFoundCache(file, Duration.ofMinutes(10), Clock.fixed(now, ZoneOffset.UTC));
+        cache.record(REPO_URL, KEY);
+        cache.record(REPO_URL, "org.test:other-artifact:jar::1.0.0");
+        assertThat(Files.readAllLines(file)).hasSize(2);
+
+        final NotFoundCache later = new NotFoundCache(file, Duration.ofMinutes(10),
+                Clock.fixed(now.plus(Duration.ofMinutes(11)), ZoneOffset.UTC));
+        later.load();
+        later.record(REPO_URL, KEY);
+
+        assertThat(Files.readAllLines(file)).hasSize(1);
+    }
+
+    @Test
+    public void recordsAreKeptIfLocalRepositoryIsTemporary() throws Exception {
+        final String userHome = System.getProperty("user.home");
+        System.setProperty("user.home", temp.newFolder("home").toString());
+        System.setProperty(NotFoundCache.TTL_PROPERTY, "60");
+        final Path remoteRepo = temp.newFolder("remote").toPath();
+        try {
+            final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+            assertThatThrownBy(() -> resolve(msm))
+                    .isInstanceOf(ArtifactResolutionException.class);
+            assertThat(NotFoundCache.userDirectory().resolve(NotFoundCache.NOT_FOUND_FILENAME)).exists();
+
+            final Path jar = remoteRepo.resolve("org/test/test-artifact/1.0.0/test-artifact-1.0.0.jar");
+            Files.createDirectories(jar.getParent());
+            Files.writeString(jar, "test");
+
+            // the second session uses a new temporary local repository, but still sees the recorded miss
+            final MavenSessionManager second = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+            assertThat(second.getProvisioningRepo()).isNotEqualTo(msm.getProvisioningRepo());
+            assertThatThrownBy(() -> resolve(second))
+                    .isInstanceOf(ArtifactResolutionException.class);
+        } finally {
+            System.setProperty("user.home", userHome);
+        }
+    }
+
+    @Test
+    public void cacheIsDisabledByDefault() throws Exception {
+        assertThat(NotFoundCache.fromSystemProperties(temp.getRoot().toPath())).isNull();
+    }
+
+    @Test
+    public void missingArtifactIsNotRequestedAgainUntilRefreshed() throws Exception {
+        final Path localRepo = temp.newFolder("local").toPath();
+        final Path remoteRepo = temp.newFolder("remote").toPath();
+        System.setProperty(NotFoundCache.TTL_PROPERTY, "60");
+        final MavenOptions options = MavenOptions.builder().setLocalCachePath(localRepo).build();
+        final MavenSessionManager msm = new MavenSessionManager(options);
+
+        assertThatThrownBy(() -> resolve(msm))
+                .isInstanceOf(ArtifactResolutionException.class);
+        assertThat(localRepo.resolve(NotFoundCache.NOT_FOUND_FILENAME)).exists();
+
+        // publish the artifact, the repository is not queried for it until the records are refreshed
+        final Path jar = remoteRepo.resolve("org/test/test-artifact/1.0.0/test-artifact-1.0.0.jar");
+        Files.createDirectories(jar.getParent());
+        Files.writeString(jar, "test");
+
+        assertThatThrownBy(() -> resolve(new MavenSessionManager(options)))
+                .isInstanceOf(ArtifactResolutionException.class);
+
+        System.setProperty(NotFoundCache.REFRESH_PROPERTY, "true");
+        final ArtifactResult result = resolve(new MavenSessionManager(options));
+        assertThat(result.getArtifact().getFile()).hasContent("test");
+    }
+
+    private ArtifactResult resolve(MavenSessionManager msm) throws ArtifactResolutionException {
+        final RepositorySystem system = msm.newRepositorySystem();
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession(system);
+        // disable the resolver's own caching of missing artifacts
+        session.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS);
+        final RemoteRepository remote = new RemoteRepository.Builder("test", "default",
+                temp.getRoot().toPath().resolve("remote").toUri().toString()).build();
+        return system.resolveArtifact(session, new ArtifactRequest(new DefaultArtifact("org.test:test-artifact:1.0.0"),
+                List.of(remote), null));
+    }
+}